@@ -0,0 +1,149 @@
+package seers.textanalyzer.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import seers.appcore.utils.ExceptionUtils;
+
+/**
+ * Documents used by the benchmarks: the bundled sample of bug reports, or
+ * synthetic bug-report-like documents of several sizes generated from the
+ * sample vocabulary with a fixed seed (i.e., always the same documents).
+ */
+public class BenchmarkCorpus {
+
+	public enum Source {
+		SAMPLE(0), SMALL(20), MEDIUM(200), LARGE(2000);
+
+		private final int wordsPerDocument;
+
+		private Source(int wordsPerDocument) {
+			this.wordsPerDocument = wordsPerDocument;
+		}
+
+		public int getWordsPerDocument() {
+			return wordsPerDocument;
+		}
+	}
+
+	public static final String SAMPLE_PATH = "/corpus/bug-reports.txt";
+	private static final long SEED = 13;
+	private static final int SYNTHETIC_DOCUMENTS = 20;
+
+	private static final String[] IDENTIFIERS = { "getItemCount", "XMLParser2Factory", "onResume", "user_id",
+			"MainActivity.java", "SyncService", "HTTPResponseCode", "java.lang.NullPointerException" };
+
+	public static List<String> load(Source source) {
+		List<String> sample = readSample();
+		if (Source.SAMPLE.equals(source)) {
+			return sample;
+		}
+		return generate(sample, SYNTHETIC_DOCUMENTS, source.getWordsPerDocument(), SEED);
+	}
+
+	/**
+	 * @return the bundled documents, separated by blank lines in the file
+	 */
+	public static List<String> readSample() {
+		List<String> documents = new ArrayList<>();
+
+		try (InputStream in = BenchmarkCorpus.class.getResourceAsStream(SAMPLE_PATH);
+				BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+
+			StringBuilder document = new StringBuilder();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().isEmpty()) {
+					addDocument(documents, document);
+					continue;
+				}
+				document.append(line).append("\n");
+			}
+			addDocument(documents, document);
+
+		} catch (IOException e) {
+			throw ExceptionUtils.getRuntimeException(e);
+		}
+
+		return documents;
+	}
+
+	private static void addDocument(List<String> documents, StringBuilder document) {
+		if (document.length() > 0) {
+			documents.add(document.toString().trim());
+			document.setLength(0);
+		}
+	}
+
+	/**
+	 * Generates documents made of sentences of 5-24 words drawn from the sample
+	 * vocabulary, with some numbers, code identifiers and quoted phrases
+	 */
+	public static List<String> generate(List<String> sample, int numDocuments, int wordsPerDocument, long seed) {
+		List<String> vocabulary = getWords(sample);
+		Random random = new Random(seed);
+
+		List<String> documents = new ArrayList<>();
+		for (int d = 0; d < numDocuments; d++) {
+
+			StringBuilder document = new StringBuilder();
+			int words = 0;
+			while (words < wordsPerDocument) {
+				int sentenceLength = Math.min(5 + random.nextInt(20), wordsPerDocument - words);
+				for (int w = 0; w < sentenceLength; w++) {
+					String word;
+					int kind = random.nextInt(20);
+					if (kind == 0) {
+						word = String.valueOf(random.nextInt(10000));
+					} else if (kind == 1) {
+						word = IDENTIFIERS[random.nextInt(IDENTIFIERS.length)];
+					} else if (kind == 2 && w + 1 < sentenceLength) {
+						word = "\"" + randomWord(vocabulary, random) + " " + randomWord(vocabulary, random) + "\"";
+						w++;
+					} else {
+						word = randomWord(vocabulary, random);
+					}
+
+					if (w == 0) {
+						word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+					}
+					document.append(word).append(' ');
+				}
+				document.setLength(document.length() - 1);
+				document.append(". ");
+				words += sentenceLength;
+			}
+			documents.add(document.toString().trim());
+		}
+
+		return documents;
+	}
+
+	private static String randomWord(List<String> vocabulary, Random random) {
+		return vocabulary.get(random.nextInt(vocabulary.size()));
+	}
+
+	/**
+	 * @return the alphabetic words of the documents (lower case, with
+	 *         repetitions)
+	 */
+	public static List<String> getWords(List<String> documents) {
+		List<String> words = new ArrayList<>();
+		for (String document : documents) {
+			for (String token : document.split("\\s+")) {
+				String word = token.replaceAll("[^A-Za-z]", "").toLowerCase();
+				if (!word.isEmpty()) {
+					words.add(word);
+				}
+			}
+		}
+		return words;
+	}
+
+}
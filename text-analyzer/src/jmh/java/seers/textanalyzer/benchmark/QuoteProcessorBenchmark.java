@@ -0,0 +1,49 @@
+package seers.textanalyzer.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import seers.textanalyzer.QuoteProcessor;
+
+/**
+ * Time to extract the quotes of all the documents of a corpus
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuoteProcessorBenchmark {
+
+	@Param({ "SAMPLE", "SMALL", "MEDIUM", "LARGE" })
+	public BenchmarkCorpus.Source corpus;
+
+	private List<String> documents;
+
+	@Setup
+	public void setup() {
+		documents = BenchmarkCorpus.load(corpus);
+	}
+
+	@Benchmark
+	public void processSentence(Blackhole blackhole) {
+		for (String document : documents) {
+			blackhole.consume(new QuoteProcessor().processSentence(document));
+		}
+	}
+
+}
@@ -0,0 +1,64 @@
+package seers.textanalyzer.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import seers.textanalyzer.BoundedCache;
+import seers.textanalyzer.GeneralStemmer;
+
+/**
+ * Time to stem all the words of a corpus, with and without the stem cache
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StemmerBenchmark {
+
+	@Param({ "SAMPLE", "LARGE" })
+	public BenchmarkCorpus.Source corpus;
+
+	@Param({ "true", "false" })
+	public boolean cache;
+
+	private List<String> words;
+	private StringBuilder buffer;
+
+	@Setup
+	public void setup() {
+		words = BenchmarkCorpus.getWords(BenchmarkCorpus.load(corpus));
+		buffer = new StringBuilder();
+		GeneralStemmer.setStemCache(cache ? new BoundedCache<>(100000) : null);
+	}
+
+	@Benchmark
+	public void stemmingPorter(Blackhole blackhole) {
+		for (String word : words) {
+			blackhole.consume(GeneralStemmer.stemmingPorter(word));
+		}
+	}
+
+	@Benchmark
+	public void stemmingPorterIntoBuffer(Blackhole blackhole) {
+		for (String word : words) {
+			buffer.setLength(0);
+			blackhole.consume(GeneralStemmer.stemmingPorter(word, 0, word.length(), buffer));
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+package seers.textanalyzer.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import seers.textanalyzer.PreprocessingOptions;
+import seers.textanalyzer.PreprocessingOptionsParser;
+import seers.textanalyzer.TextProcessor;
+import seers.textanalyzer.entity.Sentence;
+
+/**
+ * Time per document of the main TextProcessor entry points
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TextProcessorBenchmark {
+
+	@Param({ "SAMPLE", "SMALL", "MEDIUM", "LARGE" })
+	public BenchmarkCorpus.Source corpus;
+
+	private List<String> documents;
+	private int nextDocument;
+
+	private PreprocessingOptions defaultOptions;
+	private PreprocessingOptions camelCaseOptions;
+
+	@Setup
+	public void setup() {
+		documents = BenchmarkCorpus.load(corpus);
+		defaultOptions = PreprocessingOptions.of(PreprocessingOptionsParser.getDefaultOptionsNoCamelCase());
+		camelCaseOptions = PreprocessingOptions.of(PreprocessingOptionsParser.getDefaultOptions());
+
+		// loads the models
+		TextProcessor.preprocessText("warm up", null, camelCaseOptions);
+		TextProcessor.processTextFullPipeline("warm up", false);
+	}
+
+	private String nextDocument() {
+		String document = documents.get(nextDocument);
+		nextDocument = (nextDocument + 1) % documents.size();
+		return document;
+	}
+
+	@Benchmark
+	public List<Sentence> tokenizeText() {
+		return TextProcessor.tokenizeText(nextDocument());
+	}
+
+	@Benchmark
+	public List<Sentence> processText() {
+		return TextProcessor.processText(nextDocument(), true);
+	}
+
+	@Benchmark
+	public List<Sentence> preprocessText() {
+		return TextProcessor.preprocessText(nextDocument(), null, defaultOptions);
+	}
+
+	@Benchmark
+	public List<Sentence> preprocessTextCamelCase() {
+		return TextProcessor.preprocessText(nextDocument(), null, camelCaseOptions);
+	}
+
+	@Benchmark
+	public List<Sentence> processTextFullPipeline() {
+		return TextProcessor.processTextFullPipeline(nextDocument(), true);
+	}
+
+	@Benchmark
+	public List<Sentence> processTextFullPipelineAndQuotes() {
+		return TextProcessor.processTextFullPipelineAndQuotes(nextDocument(), true);
+	}
+
+}
@@ -0,0 +1,69 @@
+package seers.textanalyzer.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import seers.textanalyzer.TextProcessor;
+import seers.textanalyzer.entity.Token;
+
+/**
+ * Time to apply each token filter to all the lemmas of the sample corpus
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenFilterBenchmark {
+
+	private String[] lemmas;
+
+	@Setup
+	public void setup() {
+		String text = String.join("\n\n", BenchmarkCorpus.readSample());
+		List<Token> tokens = TextProcessor.getAllTokens(TextProcessor.processText(text));
+		lemmas = tokens.stream().map(Token::getLemma).toArray(String[]::new);
+	}
+
+	@Benchmark
+	public void isNumber(Blackhole blackhole) {
+		for (String lemma : lemmas) {
+			blackhole.consume(TextProcessor.isNumber(lemma));
+		}
+	}
+
+	@Benchmark
+	public void isPunctuation(Blackhole blackhole) {
+		for (String lemma : lemmas) {
+			blackhole.consume(TextProcessor.isPunctuation(lemma));
+		}
+	}
+
+	@Benchmark
+	public void isSpecialChar(Blackhole blackhole) {
+		for (String lemma : lemmas) {
+			blackhole.consume(TextProcessor.isSpecialChar(lemma));
+		}
+	}
+
+	@Benchmark
+	public void isParenthesis(Blackhole blackhole) {
+		for (String lemma : lemmas) {
+			blackhole.consume(TextProcessor.isParenthesis(lemma));
+		}
+	}
+
+}
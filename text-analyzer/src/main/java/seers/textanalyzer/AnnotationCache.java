@@ -0,0 +1,343 @@
+package seers.textanalyzer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import edu.stanford.nlp.util.Pair;
+import seers.appcore.utils.ExceptionUtils;
+import seers.textanalyzer.MetricsListener.Cache;
+import seers.textanalyzer.entity.Sentence;
+
+/**
+ * Persistent, content-addressed cache of processed texts: the sentences are
+ * stored (see {@link SentenceCodec}) in a file named after the SHA-256 hash
+ * of the processing configuration (annotators and options) and the text, so
+ * repeated runs over the same texts skip the annotation.
+ * <p>
+ * When the files take more than {@code maxBytes}, the least recently used
+ * ones are deleted. Unreadable entries are treated as misses, and write
+ * failures only skip caching the result.
+ */
+public class AnnotationCache {
+
+	/**
+	 * Directory of the cache used by {@link TextProcessor}, none by default
+	 */
+	public static final String DIRECTORY_PROPERTY = "textanalyzer.annotation.cache.dir";
+	/**
+	 * Maximum size in bytes of the cache used by {@link TextProcessor}
+	 */
+	public static final String MAX_BYTES_PROPERTY = "textanalyzer.annotation.cache.maxBytes";
+	private static final String DEFAULT_MAX_BYTES = String.valueOf(1024L * 1024 * 1024);
+
+	private static final String EXTENSION = ".bin";
+	private static final String TEMP_EXTENSION = ".tmp";
+
+	private final Path directory;
+	private final long maxBytes;
+
+	private final Map<String, Entry> entries;
+	private final AtomicLong totalBytes;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong errors = new AtomicLong();
+
+	/**
+	 * Opens the cache stored in the directory, which is created if needed
+	 *
+	 * @param directory
+	 * @param maxBytes
+	 * @throws IOException
+	 */
+	public AnnotationCache(File directory, long maxBytes) throws IOException {
+		if (maxBytes <= 0) {
+			throw new IllegalArgumentException("The maximum size should be greater than 0");
+		}
+		this.directory = directory.toPath();
+		this.maxBytes = maxBytes;
+		this.entries = new ConcurrentHashMap<>();
+		this.totalBytes = new AtomicLong();
+
+		Files.createDirectories(this.directory);
+		loadEntries();
+		evictIfNeeded();
+	}
+
+	/**
+	 * @return the cache configured with {@link #DIRECTORY_PROPERTY} and
+	 *         {@link #MAX_BYTES_PROPERTY}, or null if there is no directory
+	 */
+	static AnnotationCache fromSystemProperties() {
+		String directory = System.getProperty(DIRECTORY_PROPERTY);
+		if (directory == null || directory.trim().isEmpty()) {
+			return null;
+		}
+		long maxBytes = Long.parseLong(System.getProperty(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES));
+		try {
+			return new AnnotationCache(new File(directory.trim()), maxBytes);
+		} catch (IOException e) {
+			throw ExceptionUtils.getRuntimeException(e);
+		}
+	}
+
+	private void loadEntries() throws IOException {
+		try (DirectoryStream<Path> subdirectories = Files.newDirectoryStream(directory, Files::isDirectory)) {
+			for (Path subdirectory : subdirectories) {
+				try (DirectoryStream<Path> files = Files.newDirectoryStream(subdirectory)) {
+					for (Path file : files) {
+						String fileName = file.getFileName().toString();
+						if (fileName.endsWith(TEMP_EXTENSION)) {
+							// left by an interrupted write
+							Files.deleteIfExists(file);
+						} else if (fileName.endsWith(EXTENSION)) {
+							String key = fileName.substring(0, fileName.length() - EXTENSION.length());
+							long size = Files.size(file);
+							entries.put(key, new Entry(size, Files.getLastModifiedTime(file).toMillis()));
+							totalBytes.addAndGet(size);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the cached sentences of the text, or processes the text and
+	 * caches the result
+	 *
+	 * @param text
+	 * @param configuration
+	 *            annotators and options that determine the result
+	 * @param processor
+	 * @return
+	 */
+	public List<Sentence> get(String text, String configuration, Function<String, List<Sentence>> processor) {
+		String key = getKey(text, configuration);
+		List<Sentence> sentences = read(key);
+		Metrics.cacheAccessed(Cache.ANNOTATION, sentences != null);
+		if (sentences != null) {
+			hits.incrementAndGet();
+			return sentences;
+		}
+
+		misses.incrementAndGet();
+		sentences = processor.apply(text);
+		write(key, sentences);
+		return sentences;
+	}
+
+	/**
+	 * @param text
+	 * @param configuration
+	 * @return the cached sentences, or null
+	 */
+	public List<Sentence> get(String text, String configuration) {
+		List<Sentence> sentences = read(getKey(text, configuration));
+		Metrics.cacheAccessed(Cache.ANNOTATION, sentences != null);
+		if (sentences != null) {
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
+		}
+		return sentences;
+	}
+
+	public void put(String text, String configuration, List<Sentence> sentences) {
+		write(getKey(text, configuration), sentences);
+	}
+
+	private List<Sentence> read(String key) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+
+		Path file = getPath(key);
+		List<Sentence> sentences;
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+			sentences = SentenceCodec.read(in);
+		} catch (IOException | RuntimeException e) {
+			// e.g., deleted, truncated or from an older version
+			errors.incrementAndGet();
+			remove(key);
+			return null;
+		}
+
+		entry.lastAccess = System.currentTimeMillis();
+		try {
+			// keeps the access order across runs
+			Files.setLastModifiedTime(file, FileTime.fromMillis(entry.lastAccess));
+		} catch (IOException | RuntimeException e) {
+			// e.g., a read-only directory, the entry is still valid
+		}
+		return sentences;
+	}
+
+	private void write(String key, List<Sentence> sentences) {
+		Path file = getPath(key);
+		Path tempFile = file.resolveSibling(key + "-" + Thread.currentThread().getId() + TEMP_EXTENSION);
+		try {
+			Files.createDirectories(file.getParent());
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+				SentenceCodec.write(sentences, out);
+			}
+			long size = Files.size(tempFile);
+			Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+			Entry previous = entries.put(key, new Entry(size, System.currentTimeMillis()));
+			totalBytes.addAndGet(previous == null ? size : size - previous.size);
+		} catch (IOException | RuntimeException e) {
+			errors.incrementAndGet();
+			try {
+				Files.deleteIfExists(tempFile);
+			} catch (IOException e2) {
+				// nothing else to do
+			}
+			return;
+		}
+		evictIfNeeded();
+	}
+
+	private void remove(String key) {
+		Entry entry = entries.remove(key);
+		if (entry != null) {
+			totalBytes.addAndGet(-entry.size);
+		}
+		try {
+			Files.deleteIfExists(getPath(key));
+		} catch (IOException e) {
+			errors.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Deletes the least recently used entries until the cache takes 90% of
+	 * its maximum size
+	 */
+	private synchronized void evictIfNeeded() {
+		if (totalBytes.get() <= maxBytes) {
+			return;
+		}
+
+		// the access times are copied since they change while sorting
+		List<Pair<String, Long>> lruEntries = new ArrayList<>(entries.size());
+		for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+			lruEntries.add(new Pair<>(entry.getKey(), entry.getValue().lastAccess));
+		}
+		lruEntries.sort(Comparator.comparing(Pair::second));
+
+		long targetBytes = maxBytes / 10 * 9;
+		for (Pair<String, Long> entry : lruEntries) {
+			if (totalBytes.get() <= targetBytes) {
+				break;
+			}
+			remove(entry.first);
+			evictions.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Deletes all the entries
+	 */
+	public synchronized void clear() {
+		for (String key : new ArrayList<>(entries.keySet())) {
+			remove(key);
+		}
+	}
+
+	private Path getPath(String key) {
+		return directory.resolve(key.substring(0, 2)).resolve(key + EXTENSION);
+	}
+
+	static String getKey(String text, String configuration) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(configuration.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(text.getBytes(StandardCharsets.UTF_8));
+
+			byte[] hash = digest.digest();
+			StringBuilder key = new StringBuilder(hash.length * 2);
+			for (byte b : hash) {
+				key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return key.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw ExceptionUtils.getRuntimeException(e);
+		}
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long getTotalBytes() {
+		return totalBytes.get();
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public File getDirectory() {
+		return directory.toFile();
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * @return number of entries that could not be read or written
+	 */
+	public long getErrors() {
+		return errors.get();
+	}
+
+	@Override
+	public String toString() {
+		return "AnnotationCache [dir=" + directory + ", entries=" + entries.size() + ", bytes=" + totalBytes.get()
+				+ ", hits=" + hits.get() + ", misses=" + misses.get() + ", evictions=" + evictions.get() + "]";
+	}
+
+	private static class Entry {
+
+		private final long size;
+		private volatile long lastAccess;
+
+		private Entry(long size, long lastAccess) {
+			this.size = size;
+			this.lastAccess = lastAccess;
+		}
+	}
+
+}
@@ -0,0 +1,348 @@
+package seers.textanalyzer;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import seers.appcore.utils.ExceptionUtils;
+import seers.textanalyzer.DocumentSource.Format;
+import seers.textanalyzer.entity.DocumentResult;
+import seers.textanalyzer.entity.Sentence;
+import seers.textanalyzer.entity.Token;
+
+/**
+ * Command-line preprocessor of text files, directories, JSONL and CSV files
+ * (see {@link DocumentSource}): the documents are preprocessed in parallel
+ * with {@link TextProcessor#preprocessText(String, List, PreprocessingOptions)}
+ * and written, in input order, as lemma strings (one line per document: id,
+ * tab, lemmas), token TSV or the binary format of {@link SentenceCodec}. The
+ * progress and throughput are reported on the standard error.
+ * <p>
+ * E.g., {@code BatchPreprocessor --preprocessing="-p -n -s 3" --stop-words
+ * stop.txt -t 8 -o out.tsv --output-format tsv docs/}
+ */
+public class BatchPreprocessor {
+
+	public enum OutputFormat {
+		LEMMAS, TSV, BINARY
+	}
+
+	private static final String FORMAT = "format";
+	private static final String TEXT_FIELD = "text-field";
+	private static final String ID_FIELD = "id-field";
+	private static final String PREPROCESSING = "preprocessing";
+	private static final String STOP_WORDS = "stop-words";
+	private static final String THREADS = "threads";
+	private static final String OUTPUT = "output";
+	private static final String OUTPUT_FORMAT = "output-format";
+	private static final String PROGRESS = "progress";
+	private static final String CHARSET = "charset";
+	private static final String HELP = "help";
+
+	private static final String DEFAULT_PROGRESS_SECONDS = "10";
+
+	private static final String TSV_HEADER = "id\tsentence\tindex\tword\tlemma\tpos\tgeneral_pos\tstem\tbegin\tend";
+
+	private static final Options options = new Options();
+	static {
+		options.addOption(Option.builder("f").longOpt(FORMAT).hasArg().argName("format")
+				.desc("input format: auto (by file extension), text, jsonl or csv; by default, auto").build());
+		options.addOption(Option.builder().longOpt(TEXT_FIELD).hasArg().argName("name")
+				.desc("JSON field or CSV column of the text; by default, " + DocumentSource.DEFAULT_TEXT_FIELD)
+				.build());
+		options.addOption(Option.builder().longOpt(ID_FIELD).hasArg().argName("name")
+				.desc("JSON field or CSV column of the id; by default, the file and record number").build());
+		options.addOption(Option.builder().longOpt(PREPROCESSING).hasArg().argName("options")
+				.desc("preprocessing options, e.g., --" + PREPROCESSING + "=\"-p -n -s 3 -c\"; by default, \""
+						+ PreprocessingOptionsParser.getDefaultOptions() + "\"")
+				.build());
+		options.addOption(Option.builder().longOpt(STOP_WORDS).hasArg().argName("file")
+				.desc("stop words, one per line").build());
+		options.addOption(Option.builder("t").longOpt(THREADS).hasArg().argName("n")
+				.desc("number of threads; by default, the number of processors").build());
+		options.addOption(Option.builder("o").longOpt(OUTPUT).hasArg().argName("file")
+				.desc("output file; by default, the standard output").build());
+		options.addOption(Option.builder().longOpt(OUTPUT_FORMAT).hasArg().argName("format")
+				.desc("lemmas, tsv or binary; by default, lemmas").build());
+		options.addOption(Option.builder().longOpt(PROGRESS).hasArg().argName("seconds")
+				.desc("seconds between progress reports, 0 to disable them; by default, " + DEFAULT_PROGRESS_SECONDS)
+				.build());
+		options.addOption(Option.builder().longOpt(CHARSET).hasArg().argName("charset")
+				.desc("charset of the input files; by default, UTF-8").build());
+		options.addOption(Option.builder("h").longOpt(HELP).desc("prints this message").build());
+	}
+
+	public static void main(String[] args) {
+		int status = run(args, System.out, System.err);
+		if (status != 0) {
+			System.exit(status);
+		}
+	}
+
+	/**
+	 * @param args
+	 * @param out
+	 *            used when there is no output file
+	 * @param err
+	 *            for the progress and errors
+	 * @return the exit status: 0 if all the documents were processed, 1 if
+	 *         some failed, 2 if the arguments are wrong, 3 if the input or
+	 *         output failed
+	 */
+	public static int run(String[] args, PrintStream out, PrintStream err) {
+		CommandLine cmd;
+		try {
+			cmd = new DefaultParser().parse(options, args);
+		} catch (ParseException e) {
+			err.println(e.getMessage());
+			printUsage(err);
+			return 2;
+		}
+		if (cmd.hasOption(HELP)) {
+			printUsage(out);
+			return 0;
+		}
+
+		List<File> inputs = new ArrayList<>();
+		for (String input : cmd.getArgs()) {
+			inputs.add(new File(input));
+		}
+
+		Format format;
+		OutputFormat outputFormat;
+		PreprocessingOptions preprocessingOptions;
+		int numThreads;
+		long progressNanos;
+		Charset charset;
+		try {
+			if (inputs.isEmpty()) {
+				throw new IllegalArgumentException("No input files or directories");
+			}
+			format = Format.valueOf(cmd.getOptionValue(FORMAT, "auto").toUpperCase(Locale.ROOT));
+			outputFormat = OutputFormat.valueOf(cmd.getOptionValue(OUTPUT_FORMAT, "lemmas").toUpperCase(Locale.ROOT));
+			preprocessingOptions = PreprocessingOptions
+					.of(cmd.getOptionValue(PREPROCESSING, PreprocessingOptionsParser.getDefaultOptions()));
+			numThreads = Integer.parseInt(cmd.getOptionValue(THREADS,
+					String.valueOf(Runtime.getRuntime().availableProcessors())));
+			if (numThreads <= 0) {
+				throw new IllegalArgumentException("The number of threads should be greater than 0");
+			}
+			progressNanos = Long.parseLong(cmd.getOptionValue(PROGRESS, DEFAULT_PROGRESS_SECONDS)) * 1_000_000_000L;
+			charset = Charset.forName(cmd.getOptionValue(CHARSET, StandardCharsets.UTF_8.name()));
+		} catch (RuntimeException e) {
+			// includes the wrong enum values, numbers and charsets
+			err.println("Wrong arguments: " + e.getMessage());
+			printUsage(err);
+			return 2;
+		}
+
+		String outputPath = cmd.getOptionValue(OUTPUT);
+		try (OutputStream output = outputPath == null ? new NonClosingOutputStream(out)
+				: new FileOutputStream(outputPath)) {
+
+			List<String> stopWords = cmd.hasOption(STOP_WORDS) ? StopWords.read(cmd.getOptionValue(STOP_WORDS))
+					: StopWords.of(Collections.emptyList());
+			DocumentSource documents = new DocumentSource(inputs, format, cmd.getOptionValue(TEXT_FIELD,
+					DocumentSource.DEFAULT_TEXT_FIELD), cmd.getOptionValue(ID_FIELD), charset);
+
+			Progress progress = new Progress(err, progressNanos);
+			try (ResultWriter writer = new ResultWriter(output, outputFormat);
+					BatchTextProcessor processor = new BatchTextProcessor(numThreads)) {
+				processor.process(documents, BatchTextProcessor.preprocessing(stopWords, preprocessingOptions), true,
+						result -> {
+							if (result.isSuccessful()) {
+								writer.write(result);
+							} else {
+								err.println("Error in " + result.getId() + ": " + result.getError());
+							}
+							progress.update(result);
+						});
+			} finally {
+				documents.close();
+			}
+			progress.report("done");
+			return progress.errors == 0 ? 0 : 1;
+		} catch (IOException | RuntimeException e) {
+			err.println("Processing failed: " + e);
+			return 3;
+		}
+	}
+
+	private static void printUsage(PrintStream stream) {
+		HelpFormatter formatter = new HelpFormatter();
+		PrintWriter writer = new PrintWriter(stream);
+		formatter.printHelp(writer, HelpFormatter.DEFAULT_WIDTH,
+				BatchPreprocessor.class.getSimpleName() + " [options] <file or directory>...", null, options,
+				HelpFormatter.DEFAULT_LEFT_PAD, HelpFormatter.DEFAULT_DESC_PAD, null);
+		writer.flush();
+	}
+
+	/**
+	 * Writes the results in one of the {@link OutputFormat}s
+	 */
+	private static class ResultWriter implements AutoCloseable {
+
+		private final OutputFormat format;
+		private final Writer writer;
+		private final SentenceCodec.DocumentWriter documentWriter;
+
+		private ResultWriter(OutputStream output, OutputFormat format) throws IOException {
+			this.format = format;
+			if (format == OutputFormat.BINARY) {
+				writer = null;
+				documentWriter = new SentenceCodec.DocumentWriter(output);
+			} else {
+				writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+				documentWriter = null;
+				if (format == OutputFormat.TSV) {
+					writer.write(TSV_HEADER);
+					writer.write('\n');
+				}
+			}
+		}
+
+		private void write(DocumentResult result) {
+			try {
+				switch (format) {
+				case LEMMAS:
+					writer.write(clean(result.getId()));
+					writer.write('\t');
+					writer.write(clean(TextProcessor.getStringFromSentences(result.getSentences())));
+					writer.write('\n');
+					break;
+				case TSV:
+					writeTsv(result);
+					break;
+				default:
+					documentWriter.write(result.getId(), result.getSentences());
+				}
+			} catch (IOException e) {
+				throw ExceptionUtils.getRuntimeException(e);
+			}
+		}
+
+		private void writeTsv(DocumentResult result) throws IOException {
+			String id = clean(result.getId());
+			for (Sentence sentence : result.getSentences()) {
+				String sentenceId = clean(sentence.getId());
+				List<Token> tokens = sentence.getTokens();
+				for (int i = 0; i < tokens.size(); i++) {
+					Token token = tokens.get(i);
+					writer.write(id + '\t' + sentenceId + '\t' + i + '\t' + clean(token.getWord()) + '\t'
+							+ clean(token.getLemma()) + '\t' + clean(token.getPos()) + '\t'
+							+ clean(token.getGeneralPos()) + '\t' + clean(token.getStem()) + '\t'
+							+ token.getBeginPosition() + '\t' + token.getEndPosition() + '\n');
+				}
+			}
+		}
+
+		private static String clean(String value) {
+			if (value == null) {
+				return "";
+			}
+			// the separators of the output
+			return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (documentWriter != null) {
+				documentWriter.close();
+			} else {
+				writer.close();
+			}
+		}
+
+	}
+
+	/**
+	 * Counts of the processed documents, reported every given interval
+	 */
+	private static class Progress {
+
+		private final PrintStream err;
+		private final long intervalNanos;
+		private final long start = System.nanoTime();
+		private long lastReport = start;
+
+		private long documents;
+		private long errors;
+		private long sentences;
+		private long tokens;
+
+		private Progress(PrintStream err, long intervalNanos) {
+			this.err = err;
+			this.intervalNanos = intervalNanos;
+		}
+
+		private void update(DocumentResult result) {
+			documents++;
+			if (!result.isSuccessful()) {
+				errors++;
+			} else {
+				sentences += result.getSentences().size();
+				for (Sentence sentence : result.getSentences()) {
+					tokens += sentence.getTokens().size();
+				}
+			}
+
+			if (intervalNanos > 0) {
+				long now = System.nanoTime();
+				if (now - lastReport >= intervalNanos) {
+					lastReport = now;
+					report("processed");
+				}
+			}
+		}
+
+		private void report(String status) {
+			double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+			err.println(String.format(Locale.ROOT,
+					"%s %d documents (%d errors), %d sentences, %d tokens in %.1f s: %.1f documents/s, %.0f tokens/s",
+					status, documents, errors, sentences, tokens, seconds, documents / seconds, tokens / seconds));
+		}
+
+	}
+
+	/**
+	 * Keeps the standard output open after writing the results
+	 */
+	private static class NonClosingOutputStream extends FilterOutputStream {
+
+		private NonClosingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+
+	}
+
+}
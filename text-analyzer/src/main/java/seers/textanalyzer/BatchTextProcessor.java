@@ -0,0 +1,199 @@
+package seers.textanalyzer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import seers.appcore.utils.ExceptionUtils;
+import seers.textanalyzer.entity.DocumentResult;
+import seers.textanalyzer.entity.Sentence;
+import seers.textanalyzer.entity.TextDocument;
+
+/**
+ * Processes many documents with a fixed number of worker threads.
+ * <p>
+ * At most {@code maxPending} documents are in flight at any time: the input
+ * iterator is consumed only as results are delivered, so arbitrarily large
+ * corpora can be streamed through. An exception thrown while processing a
+ * document is reported in its {@link DocumentResult} and does not abort the
+ * batch.
+ */
+public class BatchTextProcessor implements AutoCloseable {
+
+	private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+	private final ExecutorService executor;
+	private final int numThreads;
+	private final int maxPending;
+
+	public BatchTextProcessor() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public BatchTextProcessor(int numThreads) {
+		this(numThreads, numThreads * 2);
+	}
+
+	public BatchTextProcessor(int numThreads, int maxPending) {
+		if (numThreads <= 0 || maxPending <= 0) {
+			throw new IllegalArgumentException("The number of threads and pending documents should be greater than 0");
+		}
+		this.numThreads = numThreads;
+		this.maxPending = maxPending;
+		this.executor = Executors.newFixedThreadPool(numThreads, new WorkerFactory());
+	}
+
+	/**
+	 * Processes all the documents and returns the results in input order
+	 *
+	 * @param documents
+	 * @param processingFn
+	 *            e.g., {@link #preprocessing(List, String)}
+	 * @return
+	 */
+	public List<DocumentResult> process(Collection<TextDocument> documents,
+			Function<String, List<Sentence>> processingFn) {
+		List<DocumentResult> results = new ArrayList<>(documents.size());
+		process(documents.iterator(), processingFn, true, results::add);
+		return results;
+	}
+
+	/**
+	 * Processes the documents and hands every result to the consumer, on the
+	 * calling thread.
+	 *
+	 * @param documents
+	 *            the ones with an error (see {@link TextDocument#getError()})
+	 *            are not processed and give a failed result
+	 * @param processingFn
+	 * @param inOrder
+	 *            true to deliver the results in input order, false to deliver
+	 *            them as they finish
+	 * @param consumer
+	 */
+	public void process(Iterator<TextDocument> documents, Function<String, List<Sentence>> processingFn,
+			boolean inOrder, Consumer<DocumentResult> consumer) {
+
+		ArrayDeque<Future<DocumentResult>> pendingInOrder = new ArrayDeque<>();
+		CompletionService<DocumentResult> completionService = new ExecutorCompletionService<>(executor);
+
+		int pending = 0;
+		long position = 0;
+		while (documents.hasNext()) {
+
+			if (pending == maxPending) {
+				consumer.accept(inOrder ? getResult(pendingInOrder.poll()) : takeResult(completionService));
+				pending--;
+			}
+
+			Callable<DocumentResult> task = createTask(documents.next(), position++, processingFn);
+			if (inOrder) {
+				pendingInOrder.add(executor.submit(task));
+			} else {
+				completionService.submit(task);
+			}
+			pending++;
+		}
+
+		for (; pending > 0; pending--) {
+			consumer.accept(inOrder ? getResult(pendingInOrder.poll()) : takeResult(completionService));
+		}
+	}
+
+	private static Callable<DocumentResult> createTask(TextDocument document, long position,
+			Function<String, List<Sentence>> processingFn) {
+		return () -> {
+			if (document.getError() != null) {
+				return new DocumentResult(document.getId(), position, null, document.getError());
+			}
+			try {
+				List<Sentence> sentences = processingFn.apply(document.getText());
+				return new DocumentResult(document.getId(), position, sentences, null);
+			} catch (Exception e) {
+				return new DocumentResult(document.getId(), position, null, e);
+			}
+		};
+	}
+
+	private static DocumentResult takeResult(CompletionService<DocumentResult> completionService) {
+		try {
+			return getResult(completionService.take());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw ExceptionUtils.getRuntimeException(e);
+		}
+	}
+
+	private static DocumentResult getResult(Future<DocumentResult> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw ExceptionUtils.getRuntimeException(e);
+		} catch (ExecutionException e) {
+			// the tasks catch their own exceptions, only errors get here
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw ExceptionUtils.getRuntimeException(e);
+		}
+	}
+
+	public static Function<String, List<Sentence>> processing(boolean checkForIdentifiers) {
+		return text -> TextProcessor.processText(text, checkForIdentifiers);
+	}
+
+	public static Function<String, List<Sentence>> preprocessing(List<String> stopWords,
+			String preprocessingOptions) {
+		return preprocessing(stopWords, PreprocessingOptions.of(preprocessingOptions));
+	}
+
+	public static Function<String, List<Sentence>> preprocessing(List<String> stopWords,
+			PreprocessingOptions options) {
+		return text -> TextProcessor.preprocessText(text, stopWords, options);
+	}
+
+	public static Function<String, List<Sentence>> fullPipeline(boolean checkForIdentifiers) {
+		return text -> TextProcessor.processTextFullPipeline(text, checkForIdentifiers);
+	}
+
+	public int getNumThreads() {
+		return numThreads;
+	}
+
+	public int getMaxPending() {
+		return maxPending;
+	}
+
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+
+	private static class WorkerFactory implements ThreadFactory {
+
+		private final int poolId = POOL_COUNT.incrementAndGet();
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "text-batch-" + poolId + "-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
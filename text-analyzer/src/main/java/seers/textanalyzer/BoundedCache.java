@@ -0,0 +1,268 @@
+package seers.textanalyzer;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Thread-safe cache with a maximum number of entries, or a maximum total
+ * weight if the entries are weighed (e.g., by their number of tokens).
+ * <p>
+ * The entries are spread over independently locked segments, each one evicting
+ * its least recently used ({@link Eviction#LRU}) or its oldest
+ * ({@link Eviction#FIFO}) entries when full. A value that weighs more than a
+ * segment can hold is not cached, so the weighed caches have one segment by
+ * default. Hits, misses and evictions are counted.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class BoundedCache<K, V> {
+
+	public enum Eviction {
+		LRU, FIFO
+	}
+
+	private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+	private static final int DEFAULT_WEIGHED_CONCURRENCY_LEVEL = 1;
+
+	private final Segment<K, V>[] segments;
+	private final long maxWeight;
+	private final Eviction eviction;
+	private final ToIntFunction<? super V> weigher;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public BoundedCache(int maxSize) {
+		this(maxSize, Eviction.LRU);
+	}
+
+	public BoundedCache(int maxSize, Eviction eviction) {
+		this(maxSize, eviction, DEFAULT_CONCURRENCY_LEVEL);
+	}
+
+	public BoundedCache(int maxSize, Eviction eviction, int concurrencyLevel) {
+		this(maxSize, null, eviction, concurrencyLevel);
+	}
+
+	/**
+	 * @param maxWeight
+	 * @param weigher
+	 *            weight of a value, which should not change while it is cached;
+	 *            null to count the entries
+	 * @param eviction
+	 */
+	public BoundedCache(long maxWeight, ToIntFunction<? super V> weigher, Eviction eviction) {
+		this(maxWeight, weigher, eviction,
+				weigher == null ? DEFAULT_CONCURRENCY_LEVEL : DEFAULT_WEIGHED_CONCURRENCY_LEVEL);
+	}
+
+	@SuppressWarnings("unchecked")
+	public BoundedCache(long maxWeight, ToIntFunction<? super V> weigher, Eviction eviction, int concurrencyLevel) {
+		if (maxWeight <= 0 || concurrencyLevel <= 0) {
+			throw new IllegalArgumentException("The size and concurrency level should be greater than 0");
+		}
+		if (eviction == null) {
+			throw new NullPointerException();
+		}
+
+		this.maxWeight = maxWeight;
+		this.eviction = eviction;
+		this.weigher = weigher;
+
+		int numSegments = (int) Math.min(concurrencyLevel, maxWeight);
+		segments = new Segment[numSegments];
+		for (int i = 0; i < numSegments; i++) {
+			// the first segments take the remainder
+			long segmentWeight = maxWeight / numSegments + (i < maxWeight % numSegments ? 1 : 0);
+			segments[i] = new Segment<>(segmentWeight, Eviction.LRU.equals(eviction), weigher, evictions);
+		}
+	}
+
+	public V get(K key) {
+		Segment<K, V> segment = segmentFor(key);
+		V value;
+		synchronized (segment) {
+			value = segment.get(key);
+		}
+
+		if (value == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the cached value or computes and caches it. The value is computed
+	 * outside the cache locks, so two threads may compute the same value.
+	 *
+	 * @param key
+	 * @param loader
+	 * @return
+	 */
+	public V get(K key, Function<? super K, ? extends V> loader) {
+		V value = get(key);
+		if (value != null) {
+			return value;
+		}
+
+		value = loader.apply(key);
+		if (value != null) {
+			put(key, value);
+		}
+		return value;
+	}
+
+	public void put(K key, V value) {
+		if (key == null || value == null) {
+			throw new NullPointerException();
+		}
+
+		Segment<K, V> segment = segmentFor(key);
+		synchronized (segment) {
+			segment.putAndEvict(key, value);
+		}
+	}
+
+	public void clear() {
+		for (Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return total weight of the entries, i.e., their number if they are not
+	 *         weighed
+	 */
+	public long getWeight() {
+		long weight = 0;
+		for (Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				weight += segment.weight;
+			}
+		}
+		return weight;
+	}
+
+	public void resetStats() {
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	public double getHitRate() {
+		long hits = getHits();
+		long requests = hits + getMisses();
+		return requests == 0 ? 0 : (double) hits / requests;
+	}
+
+	/**
+	 * @return maximum number of entries, or maximum weight for weighed entries
+	 */
+	public int getMaxSize() {
+		return (int) Math.min(maxWeight, Integer.MAX_VALUE);
+	}
+
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+
+	public boolean isWeighed() {
+		return weigher != null;
+	}
+
+	public Eviction getEviction() {
+		return eviction;
+	}
+
+	private Segment<K, V> segmentFor(Object key) {
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return segments[(h & 0x7fffffff) % segments.length];
+	}
+
+	@Override
+	public String toString() {
+		return "cache [size=" + size() + ", max=" + maxWeight + ", hits=" + getHits() + ", misses=" + getMisses()
+				+ ", evictions=" + getEvictions() + "]";
+	}
+
+	private static class Segment<K, V> extends LinkedHashMap<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long maxWeight;
+		private final transient ToIntFunction<? super V> weigher;
+		private final transient LongAdder evictions;
+		private long weight;
+
+		public Segment(long maxWeight, boolean accessOrder, ToIntFunction<? super V> weigher, LongAdder evictions) {
+			super(16, 0.75f, accessOrder);
+			this.maxWeight = maxWeight;
+			this.weigher = weigher;
+			this.evictions = evictions;
+		}
+
+		private int weigh(V value) {
+			return weigher == null ? 1 : weigher.applyAsInt(value);
+		}
+
+		public void putAndEvict(K key, V value) {
+			int valueWeight = weigh(value);
+			V previous = valueWeight > maxWeight ? remove(key) : put(key, value);
+			if (previous != null) {
+				weight -= weigh(previous);
+			}
+			if (valueWeight > maxWeight) {
+				return;
+			}
+			weight += valueWeight;
+
+			// the eldest entries come first
+			Iterator<V> values = values().iterator();
+			while (weight > maxWeight) {
+				weight -= weigh(values.next());
+				values.remove();
+				evictions.increment();
+			}
+		}
+
+		@Override
+		public void clear() {
+			super.clear();
+			weight = 0;
+		}
+	}
+
+}
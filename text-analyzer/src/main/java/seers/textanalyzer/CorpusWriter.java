@@ -0,0 +1,251 @@
+package seers.textanalyzer;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import seers.textanalyzer.entity.Sentence;
+import seers.textanalyzer.entity.Token;
+
+/**
+ * Writes processed documents to a corpus file read by {@link MappedCorpus}.
+ * <p>
+ * All the values are fixed-width and aligned so that the file can be read in
+ * place: each document has its number of sentences, the position of the
+ * first token of every sentence and fixed-size token records, whose fields
+ * are ids of a string table written at the end, with the document index and
+ * a hash table of the document ids.
+ */
+public class CorpusWriter implements Closeable {
+
+	static final int MAGIC = 0x5441434F;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 64;
+
+	/**
+	 * word, general POS, POS, lemma, stem, begin, end and index
+	 */
+	static final int TOKEN_SIZE = 8 * 4;
+	static final int DOCUMENT_ENTRY_SIZE = 16;
+	static final int NULL_ID = -1;
+
+	private final RandomAccessFile file;
+	private final DataOutputStream out;
+	private long position;
+
+	private final Map<String, Integer> stringIds;
+	private final List<String> strings;
+
+	private long[] documentOffsets;
+	private int[] documentIds;
+	private int numDocuments;
+	private boolean closed;
+
+	public CorpusWriter(File corpusFile) throws IOException {
+		file = new RandomAccessFile(corpusFile, "rw");
+		file.setLength(0);
+		out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(file.getChannel()), 1 << 16));
+
+		stringIds = new HashMap<>();
+		strings = new ArrayList<>();
+		documentOffsets = new long[1024];
+		documentIds = new int[1024];
+
+		// written on close
+		writePadding(HEADER_SIZE);
+	}
+
+	/**
+	 * @param id
+	 *            used to look up the document, may be null
+	 * @param sentences
+	 * @throws IOException
+	 */
+	public void write(String id, List<Sentence> sentences) throws IOException {
+		if (numDocuments == documentOffsets.length) {
+			documentOffsets = Arrays.copyOf(documentOffsets, numDocuments * 2);
+			documentIds = Arrays.copyOf(documentIds, numDocuments * 2);
+		}
+		documentOffsets[numDocuments] = position;
+		documentIds[numDocuments] = getStringId(id);
+		numDocuments++;
+
+		writeInt(sentences.size());
+		int firstToken = 0;
+		for (Sentence sentence : sentences) {
+			writeInt(firstToken);
+			firstToken += sentence.getTokens().size();
+		}
+		writeInt(firstToken);
+
+		for (Sentence sentence : sentences) {
+			for (Token token : sentence.getTokens()) {
+				writeInt(getStringId(token.getWord()));
+				writeInt(getStringId(token.getGeneralPos()));
+				writeInt(getStringId(token.getPos()));
+				writeInt(getStringId(token.getLemma()));
+				writeInt(getStringId(token.getStem()));
+				writeInt(token.getBeginPosition());
+				writeInt(token.getEndPosition());
+				writeInt(token.getIndex());
+			}
+		}
+	}
+
+	private int getStringId(String string) {
+		if (string == null) {
+			return NULL_ID;
+		}
+		Integer id = stringIds.get(string);
+		if (id == null) {
+			id = strings.size();
+			stringIds.put(string, id);
+			strings.add(string);
+		}
+		return id;
+	}
+
+	/**
+	 * Writes the string table, the document index and the header
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		try {
+			long stringsOffset = writeStrings();
+			long documentIndexOffset = writeDocumentIndex();
+			int hashCapacity = getHashCapacity(numDocuments);
+			long hashOffset = writeHashTable(hashCapacity);
+			out.flush();
+
+			file.seek(0);
+			file.writeInt(MAGIC);
+			file.writeInt(VERSION);
+			file.writeLong(numDocuments);
+			file.writeLong(documentIndexOffset);
+			file.writeLong(stringsOffset);
+			file.writeInt(strings.size());
+			file.writeInt(hashCapacity);
+			file.writeLong(hashOffset);
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Number of strings, the offsets of their UTF-8 bytes (one more than the
+	 * number of strings, to know the length of the last one) and the bytes
+	 */
+	private long writeStrings() throws IOException {
+		alignTo(8);
+		long stringsOffset = position;
+		writeInt(strings.size());
+		writeInt(0);
+
+		// the strings are encoded twice rather than kept twice in memory
+		long bytesOffset = 0;
+		for (String string : strings) {
+			writeLong(bytesOffset);
+			bytesOffset += string.getBytes(StandardCharsets.UTF_8).length;
+		}
+		writeLong(bytesOffset);
+
+		for (String string : strings) {
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			out.write(bytes);
+			position += bytes.length;
+		}
+		return stringsOffset;
+	}
+
+	private long writeDocumentIndex() throws IOException {
+		alignTo(8);
+		long documentIndexOffset = position;
+		for (int i = 0; i < numDocuments; i++) {
+			writeLong(documentOffsets[i]);
+			writeInt(documentIds[i]);
+			writeInt(0);
+		}
+		return documentIndexOffset;
+	}
+
+	/**
+	 * Open addressing with linear probing: every slot has 0 or the position
+	 * of a document plus one. Only the first document with a given id is
+	 * indexed.
+	 */
+	private long writeHashTable(int hashCapacity) throws IOException {
+		int[] slots = new int[hashCapacity];
+		for (int i = 0; i < numDocuments; i++) {
+			if (documentIds[i] == NULL_ID) {
+				continue;
+			}
+			String id = strings.get(documentIds[i]);
+			int slot = hash(id) & (hashCapacity - 1);
+			while (slots[slot] != 0 && !strings.get(documentIds[slots[slot] - 1]).equals(id)) {
+				slot = (slot + 1) & (hashCapacity - 1);
+			}
+			if (slots[slot] == 0) {
+				slots[slot] = i + 1;
+			}
+		}
+
+		long hashOffset = position;
+		for (int slot : slots) {
+			writeInt(slot);
+		}
+		return hashOffset;
+	}
+
+	static int getHashCapacity(int numDocuments) {
+		int capacity = 2;
+		while (capacity < numDocuments * 2L) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	static int hash(String id) {
+		int h = id.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private void alignTo(int alignment) throws IOException {
+		int remainder = (int) (position % alignment);
+		if (remainder != 0) {
+			writePadding(alignment - remainder);
+		}
+	}
+
+	private void writePadding(int length) throws IOException {
+		for (int i = 0; i < length; i++) {
+			out.write(0);
+		}
+		position += length;
+	}
+
+	private void writeInt(int value) throws IOException {
+		out.writeInt(value);
+		position += 4;
+	}
+
+	private void writeLong(long value) throws IOException {
+		out.writeLong(value);
+		position += 8;
+	}
+
+}
@@ -8,7 +8,32 @@ import edu.stanford.nlp.semgraph.SemanticGraph;
 import edu.stanford.nlp.semgraph.SemanticGraphEdge;
 import edu.stanford.nlp.trees.GrammaticalRelation;
 import edu.stanford.nlp.util.Pair;
-
+import seers.textanalyzer.entity.CompactDependencies;
+import seers.textanalyzer.entity.DependencyIndex;
+import seers.textanalyzer.entity.StringDictionary;
+import seers.textanalyzer.entity.TermSet;
+
+/**
+ * Queries over dependency graphs. Every query has an overload on a
+ * {@link DependencyIndex} (see
+ * {@link seers.textanalyzer.entity.Sentence#getDependencyIndex()}), with the
+ * same results, which avoids walking the graph again for every query.
+ * <p>
+ * The overloads on {@link CompactDependencies} (see
+ * {@link seers.textanalyzer.entity.Sentence#compactDependencies(StringDictionary)})
+ * return edge numbers and vertices, and traverse the children in the order of
+ * the compact edges (by dependent). The other overloads traverse them in the
+ * order of {@link SemanticGraph#childPairs(IndexedWord)}, so, when several
+ * children match, getFirstChildByRelationAndPos and
+ * getFirstChildByRelationSpecific may return a different child on
+ * {@link CompactDependencies} (getFirstChildByRelation sorts the children in
+ * all the overloads).
+ * <p>
+ * The queries repeated for many sentences should use the overloads on
+ * {@link TermSet}s, compiled once, instead of the relation, POS and lemma
+ * strings, which are compared one by one (or looked up in the dictionaries on
+ * every call, for {@link CompactDependencies}).
+ */
 public class DependenciesUtils {
 
 	public static Pair<GrammaticalRelation, IndexedWord> getFirstChildByRelation(SemanticGraph dependencies,
@@ -99,9 +124,12 @@ public class DependenciesUtils {
 	public static boolean checkForRelationsInPairs(List<Pair<GrammaticalRelation, IndexedWord>> pairs,
 			String... relations) {
 
-		List<String> relList = Arrays.asList(relations);
-		boolean anyMatch = pairs.stream().anyMatch(p -> relList.contains(p.first.getShortName()));
-		return anyMatch;
+		for (Pair<GrammaticalRelation, IndexedWord> p : pairs) {
+			if (contains(relations, p.first.getShortName())) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	public static List<SemanticGraphEdge> findRelationsByTgtRelationPosAndLemmas(SemanticGraph dependencies,
@@ -120,10 +148,12 @@ public class DependenciesUtils {
 
 		List<Pair<GrammaticalRelation, IndexedWord>> childPairs = dependencies.childPairs(idxWord);
 
-		List<String> relList = Arrays.asList(relations);
-		List<Pair<GrammaticalRelation, IndexedWord>> rels = childPairs.stream()
-				.filter(p -> relList.stream().anyMatch(r -> p.first.getShortName().equals(r)))
-				.collect(Collectors.toList());
+		List<Pair<GrammaticalRelation, IndexedWord>> rels = new ArrayList<>();
+		for (Pair<GrammaticalRelation, IndexedWord> p : childPairs) {
+			if (contains(relations, p.first.getShortName())) {
+				rels.add(p);
+			}
+		}
 
 		return rels;
 	}
@@ -169,16 +199,715 @@ public class DependenciesUtils {
 			String... relations) {
 
 		List<Pair<GrammaticalRelation, IndexedWord>> pars = dependencies.parentPairs(vertex);
-		List<String> relsSet = Arrays.asList(relations);
-		List<Pair<GrammaticalRelation, IndexedWord>> parsFiltered = pars.stream()
-				.filter(p -> relsSet.contains(p.first.getShortName())).collect(Collectors.toList());
 
 		Set<IndexedWord> parents = new LinkedHashSet<>();
-		for (Pair<GrammaticalRelation, IndexedWord> parPair : parsFiltered) {
-			parents.add(parPair.second);
+		for (Pair<GrammaticalRelation, IndexedWord> parPair : pars) {
+			if (contains(relations, parPair.first.getShortName())) {
+				parents.add(parPair.second);
+			}
+		}
+
+		return new ArrayList<>(parents);
+	}
+
+	public static Pair<GrammaticalRelation, IndexedWord> getFirstChildByRelation(SemanticGraph dependencies,
+			IndexedWord idxWord, TermSet relations) {
+
+		if (idxWord == null) {
+			return null;
+		}
+
+		// the first by index, as the sort of the String version
+		Pair<GrammaticalRelation, IndexedWord> first = null;
+		for (Pair<GrammaticalRelation, IndexedWord> p : dependencies.childPairs(idxWord)) {
+			if (relations.contains(p.first) && (first == null || p.second.index() < first.second.index())) {
+				first = p;
+			}
+		}
+		return first;
+	}
+
+	public static boolean checkForRelationsInPairs(List<Pair<GrammaticalRelation, IndexedWord>> pairs,
+			TermSet relations) {
+		for (Pair<GrammaticalRelation, IndexedWord> p : pairs) {
+			if (relations.contains(p.first)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param dependencies
+	 * @param tgtRelations
+	 * @return the edges, by relation in the order of the set
+	 */
+	public static List<SemanticGraphEdge> findRelationsByTgtRelations(SemanticGraph dependencies,
+			TermSet tgtRelations) {
+		// one pass over the edges, which are then grouped by relation
+		Map<String, List<SemanticGraphEdge>> relationEdges = new HashMap<>();
+		for (SemanticGraphEdge edge : dependencies.edgeIterable()) {
+			String relation = edge.getRelation().getShortName();
+			if (tgtRelations.contains(relation)) {
+				relationEdges.computeIfAbsent(relation, r -> new ArrayList<>()).add(edge);
+			}
+		}
+
+		List<SemanticGraphEdge> edges = new ArrayList<>();
+		for (String relation : tgtRelations.getTerms()) {
+			List<SemanticGraphEdge> relEdges = relationEdges.get(relation);
+			if (relEdges != null) {
+				edges.addAll(relEdges);
+			}
+		}
+		return edges;
+	}
+
+	/**
+	 * @param dependencies
+	 * @param tgtRelations
+	 * @param pos
+	 *            of the dependent, null for any
+	 * @return the edges, by relation in the order of the set
+	 */
+	public static List<SemanticGraphEdge> findRelationsByTgtRelationAndPos(SemanticGraph dependencies,
+			TermSet tgtRelations, TermSet pos) {
+		return filterByTarget(findRelationsByTgtRelations(dependencies, tgtRelations), pos, null);
+	}
+
+	public static List<SemanticGraphEdge> findRelationsByTgtRelationPosAndLemmas(SemanticGraph dependencies,
+			TermSet tgtRelations, TermSet pos, TermSet lemmas) {
+		return filterByTarget(findRelationsByTgtRelations(dependencies, tgtRelations), pos, lemmas);
+	}
+
+	public static List<Pair<GrammaticalRelation, IndexedWord>> getChildRelations(SemanticGraph dependencies,
+			IndexedWord idxWord, TermSet relations) {
+		if (idxWord == null) {
+			return new ArrayList<>();
+		}
+		return getChildren(dependencies.childPairs(idxWord), relations, null, null);
+	}
+
+	public static Pair<GrammaticalRelation, IndexedWord> getFirstChildByRelationAndPos(SemanticGraph dependencies,
+			IndexedWord idxWord, TermSet relations, TermSet pos) {
+		if (idxWord == null) {
+			return null;
+		}
+		return getFirstChild(dependencies.childPairs(idxWord), relations, pos);
+	}
+
+	public static List<Pair<GrammaticalRelation, IndexedWord>> getChildrenByRelationPosAndLemma(
+			SemanticGraph dependencies, IndexedWord idxWord, TermSet relations, TermSet pos, TermSet lemmas) {
+		if (idxWord == null) {
+			return null;
+		}
+		return getChildren(dependencies.childPairs(idxWord), relations, pos, lemmas);
+	}
+
+	public static List<IndexedWord> getParentsbyRelation(SemanticGraph dependencies, IndexedWord vertex,
+			TermSet relations) {
+		return getParents(dependencies.parentPairs(vertex), relations);
+	}
+
+	public static Pair<GrammaticalRelation, IndexedWord> getFirstChildByRelation(DependencyIndex index,
+			IndexedWord idxWord, String... relations) {
+
+		if (idxWord == null) {
+			return null;
+		}
+
+		for (Pair<GrammaticalRelation, IndexedWord> child : index.getSortedChildren(idxWord)) {
+			if (contains(relations, child.first.getShortName())) {
+				return child;
+			}
+		}
+
+		return null;
+	}
+
+	public static Pair<GrammaticalRelation, IndexedWord> getFirstChildByRelationSpecific(DependencyIndex index,
+			IndexedWord idxWord, Map<String, List<String>> relations) {
+
+		if (idxWord == null) {
+			return null;
+		}
+
+		for (Pair<GrammaticalRelation, IndexedWord> p : index.getChildren(idxWord)) {
+			List<String> specifics = relations.get(p.first.getShortName());
+			if (specifics != null) {
+				if (p.first.getSpecific() != null && specifics.contains(p.first.getSpecific())) {
+					return p;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	public static List<SemanticGraphEdge> findRelationsByTgtRelationAndPos(DependencyIndex index,
+			String tgtRelation, String pos) {
+
+		List<SemanticGraphEdge> edges = index.getEdges(tgtRelation);
+		List<SemanticGraphEdge> rels = new ArrayList<>(edges.size());
+		for (SemanticGraphEdge edge : edges) {
+			if (pos == null || edge.getTarget().tag().equals(pos)) {
+				rels.add(edge);
+			}
+		}
+		return rels;
+	}
+
+	public static List<SemanticGraphEdge> findRelationsByTgtRelations(DependencyIndex index,
+			String... tgtRelations) {
+
+		if (tgtRelations == null) {
+			return null;
+		}
+
+		Set<SemanticGraphEdge> edges = new LinkedHashSet<>();
+
+		for (String rel : tgtRelations) {
+			edges.addAll(index.getEdges(rel));
+		}
+
+		return new ArrayList<>(edges);
+	}
+
+	public static List<SemanticGraphEdge> findRelationsByTgtRelationPosAndLemmas(DependencyIndex index,
+			String tgtRelation, String pos, Set<String> lemmas) {
+		List<SemanticGraphEdge> rels = findRelationsByTgtRelationAndPos(index, tgtRelation, pos);
+		rels.removeIf(r -> !lemmas.contains(r.getTarget().lemma()));
+		return rels;
+	}
+
+	public static List<Pair<GrammaticalRelation, IndexedWord>> getChildRelations(DependencyIndex index,
+			IndexedWord idxWord, String... relations) {
+
+		List<Pair<GrammaticalRelation, IndexedWord>> rels = new ArrayList<>();
+		if (idxWord == null) {
+			return rels;
+		}
+
+		for (Pair<GrammaticalRelation, IndexedWord> p : index.getChildren(idxWord)) {
+			if (contains(relations, p.first.getShortName())) {
+				rels.add(p);
+			}
+		}
+
+		return rels;
+	}
+
+	public static Pair<GrammaticalRelation, IndexedWord> getFirstChildByRelationAndPos(DependencyIndex index,
+			IndexedWord idxWord, Set<String> relations, Set<String> pos) {
+
+		if (idxWord == null) {
+			return null;
+		}
+
+		for (Pair<GrammaticalRelation, IndexedWord> p : index.getChildren(idxWord)) {
+			if (relations.contains(p.first.getShortName()) && pos.contains(p.second.tag())) {
+				return p;
+			}
+		}
+
+		return null;
+	}
+
+	public static List<Pair<GrammaticalRelation, IndexedWord>> getChildrenByRelationPosAndLemma(
+			DependencyIndex index, IndexedWord idxWord, Set<String> relations, Set<String> pos,
+			Set<String> lemmas) {
+
+		if (idxWord == null) {
+			return null;
+		}
+
+		List<Pair<GrammaticalRelation, IndexedWord>> children = new ArrayList<>();
+		for (Pair<GrammaticalRelation, IndexedWord> p : index.getChildren(idxWord)) {
+			if (relations.contains(p.first.getShortName()) && pos.contains(p.second.tag())
+					&& lemmas.contains(p.second.lemma())) {
+				children.add(p);
+			}
+		}
+
+		return children;
+	}
+
+	public static List<IndexedWord> getParentsbyRelation(DependencyIndex index, IndexedWord vertex,
+			String... relations) {
+
+		Set<IndexedWord> parents = new LinkedHashSet<>();
+		for (Pair<GrammaticalRelation, IndexedWord> parPair : index.getParents(vertex)) {
+			if (contains(relations, parPair.first.getShortName())) {
+				parents.add(parPair.second);
+			}
+		}
+
+		return new ArrayList<>(parents);
+	}
+
+	public static Pair<GrammaticalRelation, IndexedWord> getFirstChildByRelation(DependencyIndex index,
+			IndexedWord idxWord, TermSet relations) {
+		if (idxWord == null) {
+			return null;
 		}
+		return getFirstChild(index.getSortedChildren(idxWord), relations, null);
+	}
+
+	public static List<SemanticGraphEdge> findRelationsByTgtRelations(DependencyIndex index, TermSet tgtRelations) {
+		List<SemanticGraphEdge> edges = new ArrayList<>();
+		for (String relation : tgtRelations.getTerms()) {
+			edges.addAll(index.getEdges(relation));
+		}
+		return edges;
+	}
+
+	public static List<SemanticGraphEdge> findRelationsByTgtRelationAndPos(DependencyIndex index,
+			TermSet tgtRelations, TermSet pos) {
+		return filterByTarget(findRelationsByTgtRelations(index, tgtRelations), pos, null);
+	}
+
+	public static List<SemanticGraphEdge> findRelationsByTgtRelationPosAndLemmas(DependencyIndex index,
+			TermSet tgtRelations, TermSet pos, TermSet lemmas) {
+		return filterByTarget(findRelationsByTgtRelations(index, tgtRelations), pos, lemmas);
+	}
+
+	public static List<Pair<GrammaticalRelation, IndexedWord>> getChildRelations(DependencyIndex index,
+			IndexedWord idxWord, TermSet relations) {
+		if (idxWord == null) {
+			return new ArrayList<>();
+		}
+		return getChildren(index.getChildren(idxWord), relations, null, null);
+	}
 
+	public static Pair<GrammaticalRelation, IndexedWord> getFirstChildByRelationAndPos(DependencyIndex index,
+			IndexedWord idxWord, TermSet relations, TermSet pos) {
+		if (idxWord == null) {
+			return null;
+		}
+		return getFirstChild(index.getChildren(idxWord), relations, pos);
+	}
+
+	public static List<Pair<GrammaticalRelation, IndexedWord>> getChildrenByRelationPosAndLemma(
+			DependencyIndex index, IndexedWord idxWord, TermSet relations, TermSet pos, TermSet lemmas) {
+		if (idxWord == null) {
+			return null;
+		}
+		return getChildren(index.getChildren(idxWord), relations, pos, lemmas);
+	}
+
+	public static List<IndexedWord> getParentsbyRelation(DependencyIndex index, IndexedWord vertex,
+			TermSet relations) {
+		return getParents(index.getParents(vertex), relations);
+	}
+
+	/**
+	 * @param dependencies
+	 * @param vertex
+	 * @param relations
+	 * @return the first edge, by dependent, from the vertex with any of the
+	 *         relations, or {@link CompactDependencies#NO_EDGE}
+	 */
+	public static int getFirstChildByRelation(CompactDependencies dependencies, int vertex, String... relations) {
+		int[] relationIds = getRelationIds(relations);
+		int numEdges = dependencies.getNumEdges();
+		for (int e = dependencies.getFirstChildEdge(vertex); e < numEdges
+				&& dependencies.getGovernor(e) == vertex; e++) {
+			if (contains(relationIds, dependencies.getRelationId(e))) {
+				return e;
+			}
+		}
+		return CompactDependencies.NO_EDGE;
+	}
+
+	public static int getFirstChildByRelation(CompactDependencies dependencies, int vertex, TermSet relations) {
+		return getFirstChild(dependencies, vertex, relations, null);
+	}
+
+	/**
+	 * @param dependencies
+	 * @param vertex
+	 * @param relations
+	 *            specifics by relation
+	 * @return the first edge, by dependent, from the vertex with any of the
+	 *         relations and specifics, or {@link CompactDependencies#NO_EDGE}
+	 */
+	public static int getFirstChildByRelationSpecific(CompactDependencies dependencies, int vertex,
+			Map<String, List<String>> relations) {
+		int numEdges = dependencies.getNumEdges();
+		for (int e = dependencies.getFirstChildEdge(vertex); e < numEdges
+				&& dependencies.getGovernor(e) == vertex; e++) {
+			List<String> specifics = relations.get(dependencies.getRelation(e));
+			if (specifics != null) {
+				String specific = dependencies.getSpecific(e);
+				if (specific != null && specifics.contains(specific)) {
+					return e;
+				}
+			}
+		}
+		return CompactDependencies.NO_EDGE;
+	}
+
+	/**
+	 * @param dependencies
+	 * @param tgtRelation
+	 * @param pos
+	 *            of the dependent, null for any
+	 * @return the edges
+	 */
+	public static int[] findRelationsByTgtRelationAndPos(CompactDependencies dependencies, String tgtRelation,
+			String pos) {
+		return findRelations(dependencies, getRelationIds(tgtRelation), pos, null);
+	}
+
+	public static int[] findRelationsByTgtRelations(CompactDependencies dependencies, String... tgtRelations) {
+		if (tgtRelations == null) {
+			return null;
+		}
+
+		// every edge has one relation, so the edges of each relation are distinct
+		int[] relationIds = getRelationIds(tgtRelations);
+		int[] edges = new int[dependencies.getNumEdges()];
+		int size = 0;
+		for (int i = 0; i < relationIds.length; i++) {
+			if (indexOf(relationIds, relationIds[i]) < i) {
+				continue;
+			}
+			for (int e = 0; e < edges.length; e++) {
+				if (dependencies.getRelationId(e) == relationIds[i]) {
+					edges[size++] = e;
+				}
+			}
+		}
+		return Arrays.copyOf(edges, size);
+	}
+
+	/**
+	 * @param dependencies
+	 * @param tgtRelations
+	 * @return the edges, by relation in the order of the set
+	 */
+	public static int[] findRelationsByTgtRelations(CompactDependencies dependencies, TermSet tgtRelations) {
+		return findRelations(dependencies, tgtRelations, null, null);
+	}
+
+	/**
+	 * @param dependencies
+	 * @param tgtRelations
+	 * @param pos
+	 *            of the dependent, null for any
+	 * @return the edges, by relation in the order of the set
+	 */
+	public static int[] findRelationsByTgtRelationAndPos(CompactDependencies dependencies, TermSet tgtRelations,
+			TermSet pos) {
+		return findRelations(dependencies, tgtRelations, pos, null);
+	}
+
+	public static int[] findRelationsByTgtRelationPosAndLemmas(CompactDependencies dependencies,
+			TermSet tgtRelations, TermSet pos, TermSet lemmas) {
+		return findRelations(dependencies, tgtRelations, pos, lemmas);
+	}
+
+	public static int[] findRelationsByTgtRelationPosAndLemmas(CompactDependencies dependencies,
+			String tgtRelation, String pos, Set<String> lemmas) {
+		return findRelations(dependencies, getRelationIds(tgtRelation), pos, lemmas);
+	}
+
+	public static int[] getChildRelations(CompactDependencies dependencies, int vertex, String... relations) {
+		return getChildren(dependencies, vertex, getRelationIds(relations), null, null);
+	}
+
+	public static int[] getChildRelations(CompactDependencies dependencies, int vertex, TermSet relations) {
+		return getChildren(dependencies, vertex, relations, null, null);
+	}
+
+	/**
+	 * @param dependencies
+	 * @param vertex
+	 * @param relations
+	 * @param pos
+	 *            of the dependent
+	 * @return the first edge, by dependent, from the vertex with any of the
+	 *         relations and tags, or {@link CompactDependencies#NO_EDGE}
+	 */
+	public static int getFirstChildByRelationAndPos(CompactDependencies dependencies, int vertex,
+			Set<String> relations, Set<String> pos) {
+		int numEdges = dependencies.getNumEdges();
+		for (int e = dependencies.getFirstChildEdge(vertex); e < numEdges
+				&& dependencies.getGovernor(e) == vertex; e++) {
+			if (relations.contains(dependencies.getRelation(e))
+					&& pos.contains(dependencies.getTag(dependencies.getDependent(e)))) {
+				return e;
+			}
+		}
+		return CompactDependencies.NO_EDGE;
+	}
+
+	public static int getFirstChildByRelationAndPos(CompactDependencies dependencies, int vertex,
+			TermSet relations, TermSet pos) {
+		return getFirstChild(dependencies, vertex, relations, pos);
+	}
+
+	public static int[] getChildrenByRelationPosAndLemma(CompactDependencies dependencies, int vertex,
+			Set<String> relations, Set<String> pos, Set<String> lemmas) {
+		int[] relationIds = new int[relations.size()];
+		int i = 0;
+		for (String relation : relations) {
+			relationIds[i++] = CompactDependencies.getRelationId(relation);
+		}
+		return getChildren(dependencies, vertex, relationIds, pos, lemmas);
+	}
+
+	public static int[] getChildrenByRelationPosAndLemma(CompactDependencies dependencies, int vertex,
+			TermSet relations, TermSet pos, TermSet lemmas) {
+		return getChildren(dependencies, vertex, relations, pos, lemmas);
+	}
+
+	/**
+	 * @param dependencies
+	 * @param vertex
+	 * @param relations
+	 * @return the distinct governors of the vertex with any of the relations
+	 */
+	public static int[] getParentsbyRelation(CompactDependencies dependencies, int vertex, String... relations) {
+		int[] relationIds = getRelationIds(relations);
+		int[] parents = new int[dependencies.getNumEdges()];
+		int size = 0;
+		for (int e = 0; e < parents.length; e++) {
+			if (dependencies.getDependent(e) == vertex && contains(relationIds, dependencies.getRelationId(e))) {
+				int governor = dependencies.getGovernor(e);
+				// the edges are sorted by governor
+				if (size == 0 || parents[size - 1] != governor) {
+					parents[size++] = governor;
+				}
+			}
+		}
+		return Arrays.copyOf(parents, size);
+	}
+
+	public static int[] getParentsbyRelation(CompactDependencies dependencies, int vertex, TermSet relations) {
+		int[] parents = new int[dependencies.getNumEdges()];
+		int size = 0;
+		for (int e = 0; e < parents.length; e++) {
+			if (dependencies.getDependent(e) == vertex && containsRelation(relations, dependencies, e)) {
+				int governor = dependencies.getGovernor(e);
+				// the edges are sorted by governor
+				if (size == 0 || parents[size - 1] != governor) {
+					parents[size++] = governor;
+				}
+			}
+		}
+		return Arrays.copyOf(parents, size);
+	}
+
+	private static Pair<GrammaticalRelation, IndexedWord> getFirstChild(
+			List<Pair<GrammaticalRelation, IndexedWord>> children, TermSet relations, TermSet pos) {
+		for (Pair<GrammaticalRelation, IndexedWord> p : children) {
+			if (relations.contains(p.first) && (pos == null || pos.contains(p.second.tag()))) {
+				return p;
+			}
+		}
+		return null;
+	}
+
+	private static List<Pair<GrammaticalRelation, IndexedWord>> getChildren(
+			List<Pair<GrammaticalRelation, IndexedWord>> children, TermSet relations, TermSet pos, TermSet lemmas) {
+		List<Pair<GrammaticalRelation, IndexedWord>> rels = new ArrayList<>();
+		for (Pair<GrammaticalRelation, IndexedWord> p : children) {
+			if (relations.contains(p.first) && (pos == null || pos.contains(p.second.tag()))
+					&& (lemmas == null || lemmas.contains(p.second.lemma()))) {
+				rels.add(p);
+			}
+		}
+		return rels;
+	}
+
+	private static List<IndexedWord> getParents(List<Pair<GrammaticalRelation, IndexedWord>> parentPairs,
+			TermSet relations) {
+		Set<IndexedWord> parents = new LinkedHashSet<>();
+		for (Pair<GrammaticalRelation, IndexedWord> parPair : parentPairs) {
+			if (relations.contains(parPair.first)) {
+				parents.add(parPair.second);
+			}
+		}
 		return new ArrayList<>(parents);
 	}
 
+	private static int[] findRelations(CompactDependencies dependencies, int[] relationIds, String pos,
+			Set<String> lemmas) {
+		// a tag without id has no vertices
+		int posId = dependencies.getDictionary().lookup(pos);
+		if (pos != null && posId == StringDictionary.NULL_ID) {
+			return new int[0];
+		}
+
+		int[] edges = new int[dependencies.getNumEdges()];
+		int size = 0;
+		for (int e = 0; e < edges.length; e++) {
+			if (contains(relationIds, dependencies.getRelationId(e))) {
+				int dependent = dependencies.getDependent(e);
+				if ((pos == null || dependencies.getTagId(dependent) == posId)
+						&& (lemmas == null || lemmas.contains(dependencies.getLemma(dependent)))) {
+					edges[size++] = e;
+				}
+			}
+		}
+		return Arrays.copyOf(edges, size);
+	}
+
+	private static int[] getChildren(CompactDependencies dependencies, int vertex, int[] relationIds,
+			Set<String> pos, Set<String> lemmas) {
+		int first = dependencies.getFirstChildEdge(vertex);
+		int end = first;
+		while (end < dependencies.getNumEdges() && dependencies.getGovernor(end) == vertex) {
+			end++;
+		}
+
+		int[] edges = new int[end - first];
+		int size = 0;
+		for (int e = first; e < end; e++) {
+			if (contains(relationIds, dependencies.getRelationId(e))) {
+				int dependent = dependencies.getDependent(e);
+				if ((pos == null || pos.contains(dependencies.getTag(dependent)))
+						&& (lemmas == null || lemmas.contains(dependencies.getLemma(dependent)))) {
+					edges[size++] = e;
+				}
+			}
+		}
+		return Arrays.copyOf(edges, size);
+	}
+
+	private static int[] getRelationIds(String... relations) {
+		int[] ids = new int[relations.length];
+		for (int i = 0; i < relations.length; i++) {
+			ids[i] = CompactDependencies.getRelationId(relations[i]);
+		}
+		return ids;
+	}
+
+	private static boolean contains(int[] relationIds, int relationId) {
+		// unknown relations have no edges
+		return relationId != StringDictionary.NULL_ID && indexOf(relationIds, relationId) >= 0;
+	}
+
+	private static int indexOf(int[] relationIds, int relationId) {
+		for (int i = 0; i < relationIds.length; i++) {
+			if (relationIds[i] == relationId) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int getFirstChild(CompactDependencies dependencies, int vertex, TermSet relations,
+			TermSet pos) {
+		int numEdges = dependencies.getNumEdges();
+		for (int e = dependencies.getFirstChildEdge(vertex); e < numEdges
+				&& dependencies.getGovernor(e) == vertex; e++) {
+			if (containsRelation(relations, dependencies, e)
+					&& containsTerm(pos, dependencies, dependencies.getTagId(dependencies.getDependent(e)))) {
+				return e;
+			}
+		}
+		return CompactDependencies.NO_EDGE;
+	}
+
+	private static int[] findRelations(CompactDependencies dependencies, TermSet relations, TermSet pos,
+			TermSet lemmas) {
+		// every edge has one relation, so the edges of each relation are distinct
+		int[] edges = new int[dependencies.getNumEdges()];
+		int size = 0;
+		for (String relation : relations.getTerms()) {
+			int relationId = CompactDependencies.getRelationId(relation);
+			if (relationId == StringDictionary.NULL_ID) {
+				continue;
+			}
+			for (int e = 0; e < edges.length; e++) {
+				if (dependencies.getRelationId(e) == relationId) {
+					int dependent = dependencies.getDependent(e);
+					if (containsTerm(pos, dependencies, dependencies.getTagId(dependent))
+							&& containsTerm(lemmas, dependencies, dependencies.getLemmaId(dependent))) {
+						edges[size++] = e;
+					}
+				}
+			}
+		}
+		return Arrays.copyOf(edges, size);
+	}
+
+	/**
+	 * @param edges
+	 *            filtered in place
+	 * @param pos
+	 *            of the target, null for any
+	 * @param lemmas
+	 *            of the target, null for any
+	 * @return the edges
+	 */
+	private static List<SemanticGraphEdge> filterByTarget(List<SemanticGraphEdge> edges, TermSet pos,
+			TermSet lemmas) {
+		edges.removeIf(r -> (pos != null && !pos.contains(r.getTarget().tag()))
+				|| (lemmas != null && !lemmas.contains(r.getTarget().lemma())));
+		return edges;
+	}
+
+	private static int[] getChildren(CompactDependencies dependencies, int vertex, TermSet relations, TermSet pos,
+			TermSet lemmas) {
+		int first = dependencies.getFirstChildEdge(vertex);
+		int end = first;
+		while (end < dependencies.getNumEdges() && dependencies.getGovernor(end) == vertex) {
+			end++;
+		}
+
+		int[] edges = new int[end - first];
+		int size = 0;
+		for (int e = first; e < end; e++) {
+			if (matches(dependencies, e, relations, pos, lemmas)) {
+				edges[size++] = e;
+			}
+		}
+		return Arrays.copyOf(edges, size);
+	}
+
+	private static boolean matches(CompactDependencies dependencies, int edge, TermSet relations, TermSet pos,
+			TermSet lemmas) {
+		int dependent = dependencies.getDependent(edge);
+		return containsRelation(relations, dependencies, edge)
+				&& containsTerm(pos, dependencies, dependencies.getTagId(dependent))
+				&& containsTerm(lemmas, dependencies, dependencies.getLemmaId(dependent));
+	}
+
+	static boolean containsRelation(TermSet relations, CompactDependencies dependencies, int edge) {
+		if (relations.getDictionary() == CompactDependencies.getRelationDictionary()) {
+			return relations.containsId(dependencies.getRelationId(edge));
+		}
+		return relations.contains(dependencies.getRelation(edge));
+	}
+
+	/**
+	 * @param terms
+	 *            null for any
+	 * @param dependencies
+	 * @param id
+	 *            of the dictionary of the dependencies
+	 * @return
+	 */
+	static boolean containsTerm(TermSet terms, CompactDependencies dependencies, int id) {
+		if (terms == null) {
+			return true;
+		}
+		if (terms.getDictionary() == dependencies.getDictionary()) {
+			return terms.containsId(id);
+		}
+		return terms.contains(dependencies.getDictionary().getString(id));
+	}
+
+	private static boolean contains(String[] relations, String relation) {
+		for (String r : relations) {
+			if (relation.equals(r)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 }
@@ -0,0 +1,253 @@
+package seers.textanalyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import seers.textanalyzer.DependencyPattern.Step;
+import seers.textanalyzer.entity.CompactDependencies;
+import seers.textanalyzer.entity.Sentence;
+import seers.textanalyzer.entity.StringDictionary;
+
+/**
+ * Evaluates a set of {@link DependencyPattern}s over the dependencies of
+ * sentences: every vertex of a sentence is visited once and tried as the root
+ * of all the patterns, on the {@link CompactDependencies} of the sentence
+ * (built from its graph, if it was not compacted, with a dictionary shared by
+ * the sentences of a batch and discarded with the matches). Thread-safe.
+ * <p>
+ * There is at most one match per pattern and root vertex: the first
+ * assignment of the nodes, trying the children of every vertex by dependent.
+ */
+public class DependencyMatcher {
+
+	private static final int UNBOUND = -1;
+	private static final int SENTENCE_DICTIONARY_CAPACITY = 64;
+
+	private final List<DependencyPattern> patterns;
+	private final Step[] roots;
+	private final int maxNodes;
+
+	public DependencyMatcher(DependencyPattern... patterns) {
+		this(Arrays.asList(patterns));
+	}
+
+	public DependencyMatcher(Collection<DependencyPattern> patterns) {
+		this.patterns = Collections.unmodifiableList(new ArrayList<>(patterns));
+		this.roots = new Step[this.patterns.size()];
+		int max = 0;
+		for (int i = 0; i < roots.length; i++) {
+			roots[i] = this.patterns.get(i).getRoot();
+			max = Math.max(max, this.patterns.get(i).getNumNodes());
+		}
+		this.maxNodes = max;
+	}
+
+	public List<DependencyPattern> getPatterns() {
+		return patterns;
+	}
+
+	/**
+	 * @param sentence
+	 * @return the matches, by root vertex and then pattern, empty if the
+	 *         sentence has no dependencies
+	 */
+	public List<Match> match(Sentence sentence) {
+		return match(sentence, null);
+	}
+
+	/**
+	 * @param sentences
+	 * @return the matches of every sentence, in input order
+	 */
+	public List<List<Match>> match(List<Sentence> sentences) {
+		StringDictionary dictionary = new StringDictionary();
+		List<List<Match>> matches = new ArrayList<>(sentences.size());
+		for (Sentence sentence : sentences) {
+			matches.add(match(sentence, dictionary));
+		}
+		return matches;
+	}
+
+	/**
+	 * Matches the sentences in parallel, in the common fork-join pool
+	 *
+	 * @param sentences
+	 * @return the matches of every sentence, in input order
+	 */
+	public List<List<Match>> matchParallel(List<Sentence> sentences) {
+		StringDictionary dictionary = new StringDictionary();
+		return IntStream.range(0, sentences.size()).parallel().mapToObj(i -> match(sentences.get(i), dictionary))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * @param sentence
+	 * @param dictionary
+	 *            to compact the dependencies, if they were not compacted, or
+	 *            null for a new one
+	 * @return
+	 */
+	private List<Match> match(Sentence sentence, StringDictionary dictionary) {
+		CompactDependencies dependencies = sentence.getCompactDependencies();
+		if (dependencies == null) {
+			if (sentence.getDependencies() == null) {
+				return Collections.emptyList();
+			}
+			dependencies = new CompactDependencies(sentence.getDependencies(),
+					dictionary == null ? new StringDictionary(SENTENCE_DICTIONARY_CAPACITY) : dictionary);
+		}
+
+		List<Match> matches = new ArrayList<>(0);
+		int[] bindings = new int[maxNodes];
+		int numVertices = dependencies.getNumVertices();
+		for (int i = 0; i < numVertices; i++) {
+			int vertex = dependencies.getVertexAt(i);
+			for (int p = 0; p < roots.length; p++) {
+				Arrays.fill(bindings, UNBOUND);
+				if (matches(dependencies, roots[p], vertex, bindings)) {
+					DependencyPattern pattern = patterns.get(p);
+					matches.add(new Match(pattern, sentence, dependencies,
+							Arrays.copyOf(bindings, pattern.getNumNodes())));
+				}
+			}
+		}
+		return matches;
+	}
+
+	private boolean matches(CompactDependencies dependencies, Step step, int vertex, int[] bindings) {
+		if (!DependenciesUtils.containsTerm(step.pos, dependencies, dependencies.getTagId(vertex))
+				|| !DependenciesUtils.containsTerm(step.lemmas, dependencies, dependencies.getLemmaId(vertex))) {
+			return false;
+		}
+
+		int first = dependencies.getFirstChildEdge(vertex);
+		int end = first;
+		while (end < dependencies.getNumEdges() && dependencies.getGovernor(end) == vertex) {
+			if (step.excluded != null && DependenciesUtils.containsRelation(step.excluded, dependencies, end)) {
+				return false;
+			}
+			end++;
+		}
+
+		bindings[step.id] = vertex;
+		if (matchChildren(dependencies, step, 0, first, end, bindings)) {
+			return true;
+		}
+		bindings[step.id] = UNBOUND;
+		return false;
+	}
+
+	private boolean matchChildren(CompactDependencies dependencies, Step step, int c, int first, int end,
+			int[] bindings) {
+		if (c == step.children.length) {
+			return true;
+		}
+
+		Step child = step.children[c];
+		for (int e = first; e < end; e++) {
+			int dependent = dependencies.getDependent(e);
+			if (DependenciesUtils.containsRelation(step.childRelations[c], dependencies, e)
+					&& !isBound(bindings, dependent) && matches(dependencies, child, dependent, bindings)) {
+				if (matchChildren(dependencies, step, c + 1, first, end, bindings)) {
+					return true;
+				}
+				// backtrack, the next children did not match
+				Arrays.fill(bindings, child.id, child.end, UNBOUND);
+			}
+		}
+		return false;
+	}
+
+	private static boolean isBound(int[] bindings, int vertex) {
+		for (int binding : bindings) {
+			if (binding == vertex) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Match of a pattern: the vertex of every node
+	 */
+	public static class Match {
+
+		private final DependencyPattern pattern;
+		private final Sentence sentence;
+		private final CompactDependencies dependencies;
+		private final int[] vertices;
+
+		private Match(DependencyPattern pattern, Sentence sentence, CompactDependencies dependencies,
+				int[] vertices) {
+			this.pattern = pattern;
+			this.sentence = sentence;
+			this.dependencies = dependencies;
+			this.vertices = vertices;
+		}
+
+		public DependencyPattern getPattern() {
+			return pattern;
+		}
+
+		public Sentence getSentence() {
+			return sentence;
+		}
+
+		public CompactDependencies getDependencies() {
+			return dependencies;
+		}
+
+		public int getRoot() {
+			return vertices[0];
+		}
+
+		/**
+		 * @param node
+		 *            number of the node, see {@link DependencyPattern#getNumNodes()}
+		 * @return the vertex, see {@link CompactDependencies#getVertex(int, int)}
+		 */
+		public int getVertex(int node) {
+			return vertices[node];
+		}
+
+		/**
+		 * @param nodeName
+		 * @return the vertex of the node with the name
+		 */
+		public int getVertex(String nodeName) {
+			int node = pattern.getNodeId(nodeName);
+			if (node < 0) {
+				throw new IllegalArgumentException("Unknown node: " + nodeName);
+			}
+			return vertices[node];
+		}
+
+		/**
+		 * @param nodeName
+		 * @return the word of the vertex of the node
+		 */
+		public String getWord(String nodeName) {
+			return dependencies.getWord(getVertex(nodeName));
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder(pattern.getName()).append(" [");
+			for (int i = 0; i < vertices.length; i++) {
+				if (i > 0) {
+					builder.append(", ");
+				}
+				builder.append(dependencies.getWord(vertices[i])).append('-')
+						.append(CompactDependencies.getTokenIndex(vertices[i]));
+			}
+			return builder.append("]").toString();
+		}
+
+	}
+
+}
@@ -0,0 +1,221 @@
+package seers.textanalyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import seers.textanalyzer.entity.TermSet;
+
+/**
+ * Immutable tree pattern over dependency graphs, e.g., a verb with a pronoun
+ * subject and a noun object:
+ *
+ * <pre>
+ * new DependencyPattern("svo", DependencyPattern.node("verb").pos("VB", "VBD", "VBP", "VBZ")
+ * 		.child("nsubj", DependencyPattern.node("subject").pos("PRP"))
+ * 		.child("dobj", DependencyPattern.node("object").pos("NN", "NNS")));
+ * </pre>
+ *
+ * Every node constrains the POS and lemma of a vertex, the relations of its
+ * required children (matched by distinct vertices) and the relations it must
+ * not have. The patterns are evaluated by a {@link DependencyMatcher}.
+ */
+public class DependencyPattern {
+
+	private final String name;
+	private final Step root;
+	private final int numNodes;
+	private final Map<String, Integer> nodeIds;
+
+	/**
+	 * @param name
+	 * @param root
+	 *            compiled now, later changes to the nodes do not affect the
+	 *            pattern
+	 */
+	public DependencyPattern(String name, Node root) {
+		if (name == null || root == null) {
+			throw new NullPointerException();
+		}
+		this.name = name;
+		this.nodeIds = new HashMap<>();
+		this.root = compile(root, new int[1]);
+		this.numNodes = this.root.end;
+	}
+
+	/**
+	 * @return a node without constraints, nor name
+	 */
+	public static Node node() {
+		return new Node(null);
+	}
+
+	/**
+	 * @param name
+	 *            to find the vertex of the node in a match, see
+	 *            {@link DependencyMatcher.Match#getVertex(String)}
+	 * @return
+	 */
+	public static Node node(String name) {
+		return new Node(name);
+	}
+
+	private Step compile(Node node, int[] nextId) {
+		int id = nextId[0]++;
+		if (node.name != null && nodeIds.put(node.name, id) != null) {
+			throw new IllegalArgumentException("Repeated node name: " + node.name);
+		}
+
+		Step[] children = new Step[node.children.size()];
+		for (int i = 0; i < children.length; i++) {
+			children[i] = compile(node.children.get(i), nextId);
+		}
+		return new Step(id, nextId[0], node.pos, node.lemmas, node.excluded,
+				node.childRelations.toArray(new TermSet[node.childRelations.size()]), children);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the number of nodes, numbered in pre-order from 0 (the root)
+	 */
+	public int getNumNodes() {
+		return numNodes;
+	}
+
+	/**
+	 * @param nodeName
+	 * @return the number of the node, or -1 if the pattern has no node with
+	 *         the name
+	 */
+	public int getNodeId(String nodeName) {
+		Integer id = nodeIds.get(nodeName);
+		return id == null ? -1 : id;
+	}
+
+	Step getRoot() {
+		return root;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	/**
+	 * Mutable node of a pattern
+	 */
+	public static class Node {
+
+		private final String name;
+		private TermSet pos;
+		private TermSet lemmas;
+		private TermSet excluded;
+		private final List<TermSet> childRelations = new ArrayList<>();
+		private final List<Node> children = new ArrayList<>();
+
+		private Node(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * @param tags
+		 *            any of the POS tags, by default any
+		 * @return this node
+		 */
+		public Node pos(String... tags) {
+			return pos(TermSet.of(tags));
+		}
+
+		public Node pos(TermSet tags) {
+			this.pos = tags;
+			return this;
+		}
+
+		/**
+		 * @param lemmaList
+		 *            any of the lemmas, by default any
+		 * @return this node
+		 */
+		public Node lemmas(String... lemmaList) {
+			return lemmas(TermSet.of(lemmaList));
+		}
+
+		public Node lemmas(TermSet lemmaSet) {
+			this.lemmas = lemmaSet;
+			return this;
+		}
+
+		/**
+		 * @param relation
+		 *            short name, e.g., "nsubj"
+		 * @param child
+		 * @return this node
+		 */
+		public Node child(String relation, Node child) {
+			return child(TermSet.ofRelations(relation), child);
+		}
+
+		/**
+		 * @param relations
+		 *            any of the relations
+		 * @param child
+		 * @return this node
+		 */
+		public Node child(TermSet relations, Node child) {
+			if (relations == null || child == null) {
+				throw new NullPointerException();
+			}
+			childRelations.add(relations);
+			children.add(child);
+			return this;
+		}
+
+		/**
+		 * @param relations
+		 *            that the vertex must not have with any child
+		 * @return this node
+		 */
+		public Node without(String... relations) {
+			List<String> all = new ArrayList<>(Arrays.asList(relations));
+			if (excluded != null) {
+				all.addAll(excluded.getTerms());
+			}
+			excluded = TermSet.ofRelations(all);
+			return this;
+		}
+
+	}
+
+	/**
+	 * Compiled node, its descendants are numbered from {@code id + 1} to
+	 * {@code end - 1}
+	 */
+	static final class Step {
+
+		final int id;
+		final int end;
+		final TermSet pos;
+		final TermSet lemmas;
+		final TermSet excluded;
+		final TermSet[] childRelations;
+		final Step[] children;
+
+		private Step(int id, int end, TermSet pos, TermSet lemmas, TermSet excluded, TermSet[] childRelations,
+				Step[] children) {
+			this.id = id;
+			this.end = end;
+			this.pos = pos;
+			this.lemmas = lemmas;
+			this.excluded = excluded;
+			this.childRelations = childRelations;
+			this.children = children;
+		}
+
+	}
+
+}
@@ -0,0 +1,470 @@
+package seers.textanalyzer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+
+import seers.appcore.utils.ExceptionUtils;
+import seers.textanalyzer.entity.TextDocument;
+
+/**
+ * Lazily reads the documents of files and directories (searched recursively,
+ * in path order) for {@link BatchTextProcessor}:
+ * <ul>
+ * <li>{@link Format#TEXT}: every file is a document, its id is the path</li>
+ * <li>{@link Format#JSONL}: every line is a JSON object with a text field
+ * and, optionally, an id field (by default, the path and line number)</li>
+ * <li>{@link Format#CSV}: every record (RFC 4180, with a header) has a text
+ * column and, optionally, an id column (by default, the path and record
+ * number)</li>
+ * </ul>
+ * With {@link Format#AUTO}, the format of every file is given by its
+ * extension: .jsonl or .json, .csv, and text for the rest.
+ * <p>
+ * A malformed record (or a CSV file without the text column) does not stop
+ * the reading: it is given as a document with an error (see
+ * {@link TextDocument#getError()}), which {@link BatchTextProcessor} reports
+ * as a failed result.
+ */
+public class DocumentSource implements Iterator<TextDocument> {
+
+	public enum Format {
+		AUTO, TEXT, JSONL, CSV
+	}
+
+	public static final String DEFAULT_TEXT_FIELD = "text";
+
+	private final Iterator<File> files;
+	private final Format format;
+	private final String textField;
+	private final String idField;
+	private final Charset charset;
+
+	private File file;
+	private BufferedReader reader;
+	private long recordNumber;
+	private int textColumn;
+	private int idColumn;
+	private TextDocument next;
+
+	/**
+	 * @param inputs
+	 *            files and directories
+	 * @param format
+	 * @param textField
+	 *            JSON field or CSV column of the text
+	 * @param idField
+	 *            JSON field or CSV column of the id, null to number the
+	 *            documents
+	 * @param charset
+	 * @throws IOException
+	 *             if an input does not exist or a directory cannot be read
+	 */
+	public DocumentSource(List<File> inputs, Format format, String textField, String idField, Charset charset)
+			throws IOException {
+		if (format == null || textField == null || charset == null) {
+			throw new NullPointerException();
+		}
+		this.files = listFiles(inputs).iterator();
+		this.format = format;
+		this.textField = textField;
+		this.idField = idField;
+		this.charset = charset;
+	}
+
+	private static List<File> listFiles(List<File> inputs) throws IOException {
+		List<File> files = new ArrayList<>();
+		for (File input : inputs) {
+			if (input.isDirectory()) {
+				try (Stream<Path> paths = Files.walk(input.toPath())) {
+					files.addAll(paths.filter(Files::isRegularFile).sorted().map(Path::toFile)
+							.collect(Collectors.toList()));
+				}
+			} else if (input.isFile()) {
+				files.add(input);
+			} else {
+				throw new IOException("The input does not exist: " + input);
+			}
+		}
+		return files;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null) {
+			try {
+				next = readNext();
+			} catch (IOException e) {
+				close();
+				throw ExceptionUtils.getRuntimeException(e);
+			}
+		}
+		return next != null;
+	}
+
+	@Override
+	public TextDocument next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		TextDocument document = next;
+		next = null;
+		return document;
+	}
+
+	/**
+	 * Closes the current file, needed only if the source is not read to the
+	 * end
+	 */
+	public void close() {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				// nothing else to read
+			}
+			reader = null;
+		}
+	}
+
+	private TextDocument readNext() throws IOException {
+		while (true) {
+			if (reader != null) {
+				TextDocument document;
+				try {
+					document = getFileFormat(file) == Format.JSONL ? readJsonLine() : readCsvRecord();
+				} catch (MalformedRecordException e) {
+					return new TextDocument(getLocation(), null, e);
+				}
+				if (document != null) {
+					return document;
+				}
+				close();
+			}
+
+			if (!files.hasNext()) {
+				return null;
+			}
+			file = files.next();
+			recordNumber = 0;
+
+			Format fileFormat = getFileFormat(file);
+			if (fileFormat == Format.TEXT) {
+				return new TextDocument(file.getPath(), FileUtils.readFileToString(file, charset));
+			}
+
+			reader = Files.newBufferedReader(file.toPath(), charset);
+			if (fileFormat == Format.CSV) {
+				try {
+					if (!readCsvHeader()) {
+						close();
+					}
+				} catch (MalformedRecordException e) {
+					// none of the records can be read
+					close();
+					return new TextDocument(file.getPath(), null, e);
+				}
+			}
+		}
+	}
+
+	private Format getFileFormat(File file) {
+		if (format != Format.AUTO) {
+			return format;
+		}
+		String name = file.getName().toLowerCase();
+		if (name.endsWith(".jsonl") || name.endsWith(".json")) {
+			return Format.JSONL;
+		}
+		if (name.endsWith(".csv")) {
+			return Format.CSV;
+		}
+		return Format.TEXT;
+	}
+
+	private TextDocument readJsonLine() throws IOException {
+		String line;
+		while ((line = reader.readLine()) != null) {
+			recordNumber++;
+			if (line.trim().isEmpty()) {
+				continue;
+			}
+
+			Map<String, String> fields;
+			try {
+				fields = new JsonLine(line).readFields();
+			} catch (IllegalArgumentException e) {
+				throw new MalformedRecordException(getLocation() + ": " + e.getMessage(), e);
+			}
+
+			String text = fields.get(textField);
+			String id = idField == null ? null : fields.get(idField);
+			if (text == null) {
+				throw new MalformedRecordException(getLocation() + ": no text field \"" + textField + "\"", null);
+			}
+			return new TextDocument(id == null ? getLocation() : id, text);
+		}
+		return null;
+	}
+
+	private boolean readCsvHeader() throws IOException {
+		List<String> header = readCsvFields();
+		if (header == null) {
+			return false;
+		}
+		textColumn = header.indexOf(textField);
+		idColumn = idField == null ? -1 : header.indexOf(idField);
+		if (textColumn < 0) {
+			throw new MalformedRecordException(file + ": no text column \"" + textField + "\"", null);
+		}
+		return true;
+	}
+
+	private TextDocument readCsvRecord() throws IOException {
+		// counted before reading, for the location of an unclosed quote
+		recordNumber++;
+		List<String> fields = readCsvFields();
+		if (fields == null) {
+			return null;
+		}
+		if (textColumn >= fields.size()) {
+			throw new MalformedRecordException(getLocation() + ": no text column", null);
+		}
+
+		String id = idColumn >= 0 && idColumn < fields.size() ? fields.get(idColumn) : getLocation();
+		return new TextDocument(id, fields.get(textColumn));
+	}
+
+	/**
+	 * @return the fields of the next record, which may span several lines if
+	 *         a quoted field has line breaks, or null at the end of the file
+	 * @throws IOException
+	 */
+	private List<String> readCsvFields() throws IOException {
+		String line = reader.readLine();
+		while (line != null && line.isEmpty()) {
+			line = reader.readLine();
+		}
+		if (line == null) {
+			return null;
+		}
+
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		int i = 0;
+		while (true) {
+			if (i == line.length()) {
+				if (!quoted) {
+					break;
+				}
+				line = reader.readLine();
+				if (line == null) {
+					throw new MalformedRecordException(file + ": unclosed quote", null);
+				}
+				field.append('\n');
+				i = 0;
+				continue;
+			}
+
+			char c = line.charAt(i++);
+			if (quoted) {
+				if (c != '"') {
+					field.append(c);
+				} else if (i < line.length() && line.charAt(i) == '"') {
+					field.append('"');
+					i++;
+				} else {
+					quoted = false;
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	private String getLocation() {
+		return file.getPath() + ":" + recordNumber;
+	}
+
+	/**
+	 * A record that cannot be read, unlike the other {@link IOException}s it
+	 * does not stop the reading
+	 */
+	private static class MalformedRecordException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+
+		private MalformedRecordException(String message, Throwable cause) {
+			super(message, cause);
+		}
+
+	}
+
+	/**
+	 * Reader of the top-level fields of a JSON object. The values that are
+	 * not strings are given as they are written (e.g., numbers); the nested
+	 * objects and arrays are skipped.
+	 */
+	private static class JsonLine {
+
+		private final String line;
+		private int pos;
+
+		private JsonLine(String line) {
+			this.line = line;
+		}
+
+		private Map<String, String> readFields() {
+			Map<String, String> fields = new HashMap<>();
+			skipSpaces();
+			expect('{');
+			skipSpaces();
+			if (peek() == '}') {
+				return fields;
+			}
+
+			while (true) {
+				skipSpaces();
+				String name = readString();
+				skipSpaces();
+				expect(':');
+				skipSpaces();
+
+				char c = peek();
+				if (c == '"') {
+					fields.put(name, readString());
+				} else if (c == '{' || c == '[') {
+					skipNested();
+				} else {
+					int start = pos;
+					while (pos < line.length() && ",} \t".indexOf(line.charAt(pos)) < 0) {
+						pos++;
+					}
+					String value = line.substring(start, pos);
+					if (!value.equals("null")) {
+						fields.put(name, value);
+					}
+				}
+
+				skipSpaces();
+				char separator = next();
+				if (separator == '}') {
+					return fields;
+				}
+				if (separator != ',') {
+					throw new IllegalArgumentException("expected ',' or '}' at " + (pos - 1));
+				}
+			}
+		}
+
+		private String readString() {
+			expect('"');
+			StringBuilder builder = new StringBuilder();
+			while (true) {
+				char c = next();
+				if (c == '"') {
+					return builder.toString();
+				}
+				if (c != '\\') {
+					builder.append(c);
+					continue;
+				}
+
+				char escaped = next();
+				switch (escaped) {
+				case 'n':
+					builder.append('\n');
+					break;
+				case 't':
+					builder.append('\t');
+					break;
+				case 'r':
+					builder.append('\r');
+					break;
+				case 'b':
+					builder.append('\b');
+					break;
+				case 'f':
+					builder.append('\f');
+					break;
+				case 'u':
+					if (pos + 4 > line.length()) {
+						throw new IllegalArgumentException("truncated escape at " + pos);
+					}
+					builder.append((char) Integer.parseInt(line.substring(pos, pos + 4), 16));
+					pos += 4;
+					break;
+				default:
+					// '"', '\\' and '/'
+					builder.append(escaped);
+				}
+			}
+		}
+
+		private void skipNested() {
+			int depth = 0;
+			do {
+				char c = peek();
+				if (c == '"') {
+					readString();
+					continue;
+				}
+				pos++;
+				if (c == '{' || c == '[') {
+					depth++;
+				} else if (c == '}' || c == ']') {
+					depth--;
+				}
+			} while (depth > 0);
+		}
+
+		private void skipSpaces() {
+			while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) {
+				pos++;
+			}
+		}
+
+		private void expect(char expected) {
+			char c = next();
+			if (c != expected) {
+				throw new IllegalArgumentException("expected '" + expected + "' at " + (pos - 1));
+			}
+		}
+
+		private char peek() {
+			if (pos >= line.length()) {
+				throw new IllegalArgumentException("unexpected end of line");
+			}
+			return line.charAt(pos);
+		}
+
+		private char next() {
+			char c = peek();
+			pos++;
+			return c;
+		}
+
+	}
+
+}
@@ -2,12 +2,68 @@ package seers.textanalyzer;
 
 public class GeneralStemmer {
 
+	/**
+	 * Maximum number of stems cached by {@link #stemmingPorter(String)}, 0
+	 * disables the cache
+	 */
+	public static final String CACHE_SIZE_PROPERTY = "textanalyzer.stem.cache.size";
+	private static final String DEFAULT_CACHE_SIZE = "100000";
+
+	private static volatile BoundedCache<String, String> stemCache = createDefaultCache();
+
+	private static final ThreadLocal<PorterStemmer> STEMMER = ThreadLocal.withInitial(PorterStemmer::new);
+
 	public static String stemmingPorter(String token) {
-		PorterStemmer stemmer = new PorterStemmer();
-		for (int j = 0; j < token.length(); j++)
-			stemmer.add(token.charAt(j));
-		stemmer.stem();
+		BoundedCache<String, String> cache = stemCache;
+		if (cache == null) {
+			return stem(token);
+		}
+		return cache.get(token, GeneralStemmer::stem);
+	}
+
+	/**
+	 * Stems token[off, off + len) and appends the stem to the result, without
+	 * going through the cache. The stemmer is reused by the calling thread, so
+	 * no objects are allocated (besides growing the builder).
+	 *
+	 * @param token
+	 * @param off
+	 * @param len
+	 * @param result
+	 * @return the result
+	 */
+	public static StringBuilder stemmingPorter(CharSequence token, int off, int len, StringBuilder result) {
+		PorterStemmer stemmer = STEMMER.get();
+		stemmer.stem(token, off, len);
+		return stemmer.getResult(result);
+	}
+
+	private static String stem(String token) {
+		PorterStemmer stemmer = STEMMER.get();
+		stemmer.stem(token, 0, token.length());
 		return stemmer.toString();
 	}
 
+	/**
+	 * Replaces the cache of {@link #stemmingPorter(String)}
+	 *
+	 * @param cache
+	 *            the new cache, null to disable caching
+	 */
+	public static void setStemCache(BoundedCache<String, String> cache) {
+		stemCache = cache;
+	}
+
+	public static BoundedCache<String, String> getStemCache() {
+		return stemCache;
+	}
+
+	private static BoundedCache<String, String> createDefaultCache() {
+		int size = Integer.valueOf(System.getProperty(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE).trim());
+		if (size <= 0) {
+			return null;
+		}
+		return new BoundedCache<>(size);
+	}
+
 }
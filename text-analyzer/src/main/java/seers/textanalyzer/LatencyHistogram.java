@@ -0,0 +1,149 @@
+package seers.textanalyzer;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe histogram of durations in nanoseconds, with buckets of
+ * exponentially increasing width: each power of two is divided in
+ * {@value #SUB_BUCKETS} buckets, so the percentiles have a relative error of
+ * at most 25%. Recording a value does not allocate or lock.
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+
+	private static final int SUB_BUCKET_BITS = 2;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int NUM_BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * @param nanos
+	 *            negative values are recorded as 0
+	 */
+	public void record(long nanos) {
+		long value = Math.max(nanos, 0);
+		buckets.incrementAndGet(getBucket(value));
+		count.increment();
+		total.add(value);
+		max.accumulate(value);
+	}
+
+	static int getBucket(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		// the highest bit selects the power of two, the next ones the sub-bucket
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+	}
+
+	/**
+	 * @return the largest value of the bucket
+	 */
+	static long getBucketMax(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	/**
+	 * @param percentile
+	 *            between 0 and 100
+	 * @return approximate value (the upper bound of its bucket, at most the
+	 *         maximum), in nanoseconds
+	 */
+	public long getPercentile(double percentile) {
+		long numValues = 0;
+		long[] counts = new long[NUM_BUCKETS];
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+			numValues += counts[i];
+		}
+		if (numValues == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * numValues));
+		long seen = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(getBucketMax(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	@Override
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getTotalNanos() {
+		return total.sum();
+	}
+
+	public long getMaxNanos() {
+		return max.get();
+	}
+
+	@Override
+	public double getTotalMillis() {
+		return total.sum() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getMeanMillis() {
+		long n = count.sum();
+		return n == 0 ? 0 : total.sum() / NANOS_PER_MILLI / n;
+	}
+
+	@Override
+	public double getMaxMillis() {
+		return max.get() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getMedianMillis() {
+		return getPercentile(50) / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double get90thPercentileMillis() {
+		return getPercentile(90) / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double get99thPercentileMillis() {
+		return getPercentile(99) / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * Not atomic: the values recorded while resetting may be partially lost
+	 */
+	@Override
+	public void reset() {
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			buckets.set(i, 0);
+		}
+		count.reset();
+		total.reset();
+		max.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "LatencyHistogram [count=" + getCount() + ", meanMs=" + getMeanMillis() + ", p50Ms="
+				+ getMedianMillis() + ", p99Ms=" + get99thPercentileMillis() + ", maxMs=" + getMaxMillis() + "]";
+	}
+
+}
@@ -0,0 +1,24 @@
+package seers.textanalyzer;
+
+/**
+ * JMX view of a {@link LatencyHistogram}
+ */
+public interface LatencyHistogramMXBean {
+
+	long getCount();
+
+	double getTotalMillis();
+
+	double getMeanMillis();
+
+	double getMaxMillis();
+
+	double getMedianMillis();
+
+	double get90thPercentileMillis();
+
+	double get99thPercentileMillis();
+
+	void reset();
+
+}
@@ -0,0 +1,358 @@
+package seers.textanalyzer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import seers.textanalyzer.entity.Sentence;
+import seers.textanalyzer.entity.Token;
+
+/**
+ * Read-only, memory-mapped view of a corpus file written by
+ * {@link CorpusWriter}. Documents are accessed in constant time by position
+ * or id, and their sentences and tokens are read in place through
+ * {@link DocumentView} and {@link SentenceView}, so scanning the corpus
+ * creates no {@link Sentence} or {@link Token} objects (unless requested).
+ * <p>
+ * The file is mapped in segments of {@value #DEFAULT_SEGMENT_BITS} bits (1
+ * GB), so files larger than 2 GB are supported. The views are thread-safe.
+ * The mapping is released by the garbage collector: after {@link #close()},
+ * the views should not be used anymore.
+ */
+public class MappedCorpus implements Closeable {
+
+	public static final int DEFAULT_SEGMENT_BITS = 30;
+
+	private static final int WORD = 0;
+	private static final int GENERAL_POS = 4;
+	private static final int POS = 8;
+	private static final int LEMMA = 12;
+	private static final int STEM = 16;
+	private static final int BEGIN = 20;
+	private static final int END = 24;
+	private static final int INDEX = 28;
+
+	private final int segmentBits;
+	private final long segmentMask;
+	private MappedByteBuffer[] segments;
+
+	private final long numDocuments;
+	private final long documentIndexOffset;
+	private final long stringOffsetsOffset;
+	private final long stringBytesOffset;
+	private final int numStrings;
+	private final int hashCapacity;
+	private final long hashOffset;
+
+	public MappedCorpus(File corpusFile) throws IOException {
+		this(corpusFile, DEFAULT_SEGMENT_BITS);
+	}
+
+	/**
+	 * @param corpusFile
+	 * @param segmentBits
+	 *            the file is mapped in segments of 2^segmentBits bytes, with
+	 *            segmentBits between 3 and 30
+	 * @throws IOException
+	 */
+	MappedCorpus(File corpusFile, int segmentBits) throws IOException {
+		if (segmentBits < 3 || segmentBits > 30) {
+			throw new IllegalArgumentException("The segment bits should be between 3 and 30");
+		}
+		this.segmentBits = segmentBits;
+		this.segmentMask = (1L << segmentBits) - 1;
+
+		try (RandomAccessFile file = new RandomAccessFile(corpusFile, "r")) {
+			FileChannel channel = file.getChannel();
+			long size = channel.size();
+			if (size < CorpusWriter.HEADER_SIZE) {
+				throw new IOException("Not a corpus file: " + corpusFile);
+			}
+
+			long segmentSize = 1L << segmentBits;
+			int numSegments = (int) ((size + segmentSize - 1) >>> segmentBits);
+			segments = new MappedByteBuffer[numSegments];
+			for (int i = 0; i < numSegments; i++) {
+				long start = i * segmentSize;
+				segments[i] = channel.map(MapMode.READ_ONLY, start, Math.min(segmentSize, size - start));
+			}
+		}
+
+		if (getInt(0) != CorpusWriter.MAGIC) {
+			throw new IOException("Not a corpus file: " + corpusFile);
+		}
+		int version = getInt(4);
+		if (version != CorpusWriter.VERSION) {
+			throw new IOException("Unsupported corpus file version: " + version);
+		}
+		numDocuments = getLong(8);
+		documentIndexOffset = getLong(16);
+		long stringsOffset = getLong(24);
+		numStrings = getInt(32);
+		hashCapacity = getInt(36);
+		hashOffset = getLong(40);
+
+		stringOffsetsOffset = stringsOffset + 8;
+		stringBytesOffset = stringOffsetsOffset + (numStrings + 1L) * 8;
+	}
+
+	public long getNumDocuments() {
+		return numDocuments;
+	}
+
+	/**
+	 * @param position
+	 *            position of the document in the corpus, from 0
+	 * @return
+	 */
+	public DocumentView getDocument(long position) {
+		if (position < 0 || position >= numDocuments) {
+			throw new IndexOutOfBoundsException("Document " + position + " of " + numDocuments);
+		}
+		return new DocumentView(position);
+	}
+
+	/**
+	 * @param id
+	 * @return the (first) document with the id, or null if there is none
+	 */
+	public DocumentView getDocument(String id) {
+		if (id == null) {
+			return null;
+		}
+		int slot = CorpusWriter.hash(id) & (hashCapacity - 1);
+		while (true) {
+			int documentPlusOne = getInt(hashOffset + slot * 4L);
+			if (documentPlusOne == 0) {
+				return null;
+			}
+
+			long position = documentPlusOne - 1L;
+			if (id.equals(getString(getDocumentIdId(position)))) {
+				return new DocumentView(position);
+			}
+			slot = (slot + 1) & (hashCapacity - 1);
+		}
+	}
+
+	public int getNumStrings() {
+		return numStrings;
+	}
+
+	/**
+	 * @param stringId
+	 *            e.g., {@link SentenceView#getLemmaId(int)}
+	 * @return the string, or null for {@link CorpusWriter#NULL_ID}
+	 */
+	public String getString(int stringId) {
+		if (stringId == CorpusWriter.NULL_ID) {
+			return null;
+		}
+		if (stringId < 0 || stringId >= numStrings) {
+			throw new IndexOutOfBoundsException("String " + stringId + " of " + numStrings);
+		}
+
+		long start = getLong(stringOffsetsOffset + stringId * 8L);
+		long end = getLong(stringOffsetsOffset + (stringId + 1L) * 8L);
+		byte[] bytes = new byte[(int) (end - start)];
+		getBytes(stringBytesOffset + start, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private int getDocumentIdId(long position) {
+		return getInt(documentIndexOffset + position * CorpusWriter.DOCUMENT_ENTRY_SIZE + 8);
+	}
+
+	/**
+	 * Ints are 4-byte aligned, so they are never split between segments
+	 */
+	private int getInt(long offset) {
+		return segments[(int) (offset >>> segmentBits)].getInt((int) (offset & segmentMask));
+	}
+
+	/**
+	 * Longs are 8-byte aligned, so they are never split between segments
+	 */
+	private long getLong(long offset) {
+		return segments[(int) (offset >>> segmentBits)].getLong((int) (offset & segmentMask));
+	}
+
+	private void getBytes(long offset, byte[] bytes) {
+		int copied = 0;
+		while (copied < bytes.length) {
+			long current = offset + copied;
+			MappedByteBuffer segment = segments[(int) (current >>> segmentBits)];
+			int segmentOffset = (int) (current & segmentMask);
+			int length = Math.min(bytes.length - copied, segment.capacity() - segmentOffset);
+			for (int i = 0; i < length; i++) {
+				// absolute gets do not change the (shared) buffer position
+				bytes[copied + i] = segment.get(segmentOffset + i);
+			}
+			copied += length;
+		}
+	}
+
+	@Override
+	public void close() {
+		segments = null;
+	}
+
+	/**
+	 * A document of the corpus, read in place
+	 */
+	public final class DocumentView {
+
+		private final long position;
+		private final long offset;
+
+		private DocumentView(long position) {
+			this.position = position;
+			this.offset = getLong(documentIndexOffset + position * CorpusWriter.DOCUMENT_ENTRY_SIZE);
+		}
+
+		public long getPosition() {
+			return position;
+		}
+
+		public String getId() {
+			return getString(getDocumentIdId(position));
+		}
+
+		public int getNumSentences() {
+			return getInt(offset);
+		}
+
+		public int getNumTokens() {
+			return getFirstToken(getNumSentences());
+		}
+
+		private int getFirstToken(int sentence) {
+			return getInt(offset + 4 + sentence * 4L);
+		}
+
+		public SentenceView getSentence(int sentence) {
+			int numSentences = getNumSentences();
+			if (sentence < 0 || sentence >= numSentences) {
+				throw new IndexOutOfBoundsException("Sentence " + sentence + " of " + numSentences);
+			}
+
+			long tokensOffset = offset + 4 + (numSentences + 1L) * 4;
+			int firstToken = getFirstToken(sentence);
+			int numTokens = getFirstToken(sentence + 1) - firstToken;
+			return new SentenceView(sentence, tokensOffset + (long) firstToken * CorpusWriter.TOKEN_SIZE, numTokens);
+		}
+
+		/**
+		 * @return copies of the sentences, with ids "0", "1", etc.
+		 */
+		public List<Sentence> toSentences() {
+			int numSentences = getNumSentences();
+			List<Sentence> sentences = new ArrayList<>(numSentences);
+			for (int i = 0; i < numSentences; i++) {
+				sentences.add(getSentence(i).toSentence());
+			}
+			return sentences;
+		}
+	}
+
+	/**
+	 * A sentence of the corpus, whose tokens are read in place. The string
+	 * fields are ids, which are decoded by {@link MappedCorpus#getString(int)}.
+	 */
+	public final class SentenceView {
+
+		private final int sentence;
+		private final long tokensOffset;
+		private final int numTokens;
+
+		private SentenceView(int sentence, long tokensOffset, int numTokens) {
+			this.sentence = sentence;
+			this.tokensOffset = tokensOffset;
+			this.numTokens = numTokens;
+		}
+
+		public int getNumTokens() {
+			return numTokens;
+		}
+
+		private int getField(int token, int field) {
+			if (token < 0 || token >= numTokens) {
+				throw new IndexOutOfBoundsException("Token " + token + " of " + numTokens);
+			}
+			return getInt(tokensOffset + (long) token * CorpusWriter.TOKEN_SIZE + field);
+		}
+
+		public int getWordId(int token) {
+			return getField(token, WORD);
+		}
+
+		public int getGeneralPosId(int token) {
+			return getField(token, GENERAL_POS);
+		}
+
+		public int getPosId(int token) {
+			return getField(token, POS);
+		}
+
+		public int getLemmaId(int token) {
+			return getField(token, LEMMA);
+		}
+
+		public int getStemId(int token) {
+			return getField(token, STEM);
+		}
+
+		public int getBeginPosition(int token) {
+			return getField(token, BEGIN);
+		}
+
+		public int getEndPosition(int token) {
+			return getField(token, END);
+		}
+
+		public int getIndex(int token) {
+			return getField(token, INDEX);
+		}
+
+		public String getWord(int token) {
+			return getString(getWordId(token));
+		}
+
+		public String getLemma(int token) {
+			return getString(getLemmaId(token));
+		}
+
+		public String getStem(int token) {
+			return getString(getStemId(token));
+		}
+
+		public String getPos(int token) {
+			return getString(getPosId(token));
+		}
+
+		public String getGeneralPos(int token) {
+			return getString(getGeneralPosId(token));
+		}
+
+		public Token getToken(int token) {
+			return new Token(getWord(token), getGeneralPos(token), getPos(token), getLemma(token), getStem(token),
+					getBeginPosition(token), getEndPosition(token), getIndex(token));
+		}
+
+		public Sentence toSentence() {
+			List<Token> tokens = new ArrayList<>(numTokens);
+			for (int i = 0; i < numTokens; i++) {
+				tokens.add(getToken(i));
+			}
+			return new Sentence(String.valueOf(sentence), tokens);
+		}
+	}
+
+}
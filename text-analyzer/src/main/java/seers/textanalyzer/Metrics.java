@@ -0,0 +1,93 @@
+package seers.textanalyzer;
+
+import java.util.List;
+
+import seers.textanalyzer.MetricsListener.Cache;
+import seers.textanalyzer.MetricsListener.Stage;
+import seers.textanalyzer.entity.Sentence;
+
+/**
+ * Reports to the current {@link MetricsListener}. When there is none, every
+ * call only reads a volatile field, so the instrumentation can stay in the
+ * processing code.
+ * <p>
+ * Usage: {@code long start = Metrics.start(); ...;
+ * Metrics.stageCompleted(Stage.STEM, start);}
+ */
+final class Metrics {
+
+	private static volatile MetricsListener listener = PipelineMetrics.fromSystemProperties();
+
+	private Metrics() {
+	}
+
+	static void setListener(MetricsListener listener) {
+		Metrics.listener = listener;
+	}
+
+	static MetricsListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * @return the current time, or 0 if there is no listener
+	 */
+	static long start() {
+		return listener == null ? 0 : System.nanoTime();
+	}
+
+	/**
+	 * @param stage
+	 * @param start
+	 * @return the duration of the stage, or 0 if it was not reported
+	 */
+	static long stageCompleted(Stage stage, long start) {
+		MetricsListener current = listener;
+		// the listener may have been set after the start
+		if (current != null && start != 0) {
+			long nanos = System.nanoTime() - start;
+			current.stageCompleted(stage, nanos);
+			return nanos;
+		}
+		return 0;
+	}
+
+	/**
+	 * Reports a stage without the stages nested in it
+	 *
+	 * @param stage
+	 * @param start
+	 * @param nestedNanos
+	 *            sum of the durations of the nested stages
+	 */
+	static void stageCompleted(Stage stage, long start, long nestedNanos) {
+		// as if it had started later
+		stageCompleted(stage, start == 0 ? 0 : start + nestedNanos);
+	}
+
+	static void documentProcessed(List<Sentence> sentences, long start) {
+		MetricsListener current = listener;
+		if (current != null && start != 0) {
+			int numTokens = 0;
+			for (Sentence sentence : sentences) {
+				numTokens += sentence.getTokens().size();
+			}
+			documentProcessed(sentences.size(), numTokens, start);
+		}
+	}
+
+	static void documentProcessed(int numSentences, int numTokens, long start) {
+		MetricsListener current = listener;
+		if (current != null && start != 0) {
+			current.documentProcessed(numSentences, numTokens, System.nanoTime() - start);
+		}
+	}
+
+	static void cacheAccessed(Cache cache, boolean hit) {
+		MetricsListener current = listener;
+		if (current != null) {
+			current.cacheAccessed(cache, hit);
+		}
+	}
+
+}
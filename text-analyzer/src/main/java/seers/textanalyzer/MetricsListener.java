@@ -0,0 +1,72 @@
+package seers.textanalyzer;
+
+/**
+ * Receives the timings and counts of the processing done by
+ * {@link TextProcessor}, see
+ * {@link TextProcessor#setMetricsListener(MetricsListener)}. The methods are
+ * called by the processing threads, so they should be thread-safe and fast.
+ * <p>
+ * {@link PipelineMetrics} aggregates them and exposes them through JMX.
+ */
+public interface MetricsListener {
+
+	enum Stage {
+		/**
+		 * CoreNLP annotation of a text (or chunk)
+		 */
+		ANNOTATE,
+		/**
+		 * Re-annotation of the camel case tokens of a sentence, if enabled in
+		 * the preprocessing options
+		 */
+		CAMEL_CASE,
+		/**
+		 * Preprocessing filters (punctuation, numbers, stop words, etc.) of the
+		 * tokens of a sentence
+		 */
+		FILTER,
+		/**
+		 * Stemming of the tokens of a sentence
+		 */
+		STEM,
+		/**
+		 * Conversion of the annotations of a text into sentences, excluding
+		 * the camel case, filter and stem stages
+		 */
+		BUILD
+	}
+
+	enum Cache {
+		/**
+		 * {@link ResultCache}
+		 */
+		RESULT,
+		/**
+		 * {@link AnnotationCache}
+		 */
+		ANNOTATION
+	}
+
+	/**
+	 * @param stage
+	 * @param nanos
+	 *            duration of the stage
+	 */
+	default void stageCompleted(Stage stage, long nanos) {
+	}
+
+	/**
+	 * Called once per processed text, including the ones found in the caches
+	 *
+	 * @param numSentences
+	 * @param numTokens
+	 * @param nanos
+	 *            total processing time
+	 */
+	default void documentProcessed(int numSentences, int numTokens, long nanos) {
+	}
+
+	default void cacheAccessed(Cache cache, boolean hit) {
+	}
+
+}
@@ -0,0 +1,231 @@
+package seers.textanalyzer;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import seers.appcore.utils.ExceptionUtils;
+
+/**
+ * {@link MetricsListener} that keeps a {@link LatencyHistogram} per stage and
+ * per document, the number of processed documents, sentences and tokens, and
+ * the cache hit rates.
+ * <p>
+ * {@link #register()} exposes them as MBeans named
+ * {@code seers.textanalyzer:type=PipelineMetrics} and
+ * {@code seers.textanalyzer:type=PipelineMetrics,stage=<STAGE or DOCUMENT>}.
+ */
+public class PipelineMetrics implements MetricsListener, PipelineMetricsMXBean {
+
+	/**
+	 * If true, {@link TextProcessor} reports to a {@link PipelineMetrics}
+	 * registered in the platform MBean server
+	 */
+	public static final String JMX_PROPERTY = "textanalyzer.metrics.jmx";
+
+	public static final String DOMAIN = "seers.textanalyzer";
+	private static final String DOCUMENT = "DOCUMENT";
+
+	private final Map<Stage, LatencyHistogram> stages;
+	private final LatencyHistogram documents;
+	private final LongAdder sentences = new LongAdder();
+	private final LongAdder tokens = new LongAdder();
+	private final LongAdder[] cacheHits;
+	private final LongAdder[] cacheMisses;
+	private volatile long startNanos;
+
+	public PipelineMetrics() {
+		stages = new EnumMap<>(Stage.class);
+		for (Stage stage : Stage.values()) {
+			stages.put(stage, new LatencyHistogram());
+		}
+		documents = new LatencyHistogram();
+
+		cacheHits = new LongAdder[Cache.values().length];
+		cacheMisses = new LongAdder[Cache.values().length];
+		for (int i = 0; i < cacheHits.length; i++) {
+			cacheHits[i] = new LongAdder();
+			cacheMisses[i] = new LongAdder();
+		}
+		startNanos = System.nanoTime();
+	}
+
+	/**
+	 * @return registered metrics if {@link #JMX_PROPERTY} is true, or null
+	 */
+	static PipelineMetrics fromSystemProperties() {
+		if (!Boolean.parseBoolean(System.getProperty(JMX_PROPERTY, "false").trim())) {
+			return null;
+		}
+		PipelineMetrics metrics = new PipelineMetrics();
+		metrics.register();
+		return metrics;
+	}
+
+	@Override
+	public void stageCompleted(Stage stage, long nanos) {
+		stages.get(stage).record(nanos);
+	}
+
+	@Override
+	public void documentProcessed(int numSentences, int numTokens, long nanos) {
+		documents.record(nanos);
+		sentences.add(numSentences);
+		tokens.add(numTokens);
+	}
+
+	@Override
+	public void cacheAccessed(Cache cache, boolean hit) {
+		(hit ? cacheHits : cacheMisses)[cache.ordinal()].increment();
+	}
+
+	public LatencyHistogram getStage(Stage stage) {
+		return stages.get(stage);
+	}
+
+	/**
+	 * @return the total processing time of the documents
+	 */
+	public LatencyHistogram getDocumentHistogram() {
+		return documents;
+	}
+
+	@Override
+	public long getDocuments() {
+		return documents.getCount();
+	}
+
+	@Override
+	public long getSentences() {
+		return sentences.sum();
+	}
+
+	@Override
+	public long getTokens() {
+		return tokens.sum();
+	}
+
+	@Override
+	public double getDocumentsPerSecond() {
+		return perSecond(getDocuments());
+	}
+
+	@Override
+	public double getTokensPerSecond() {
+		return perSecond(getTokens());
+	}
+
+	private double perSecond(long value) {
+		double seconds = (System.nanoTime() - startNanos) / 1e9;
+		return seconds <= 0 ? 0 : value / seconds;
+	}
+
+	public long getCacheHits(Cache cache) {
+		return cacheHits[cache.ordinal()].sum();
+	}
+
+	public long getCacheMisses(Cache cache) {
+		return cacheMisses[cache.ordinal()].sum();
+	}
+
+	public double getCacheHitRate(Cache cache) {
+		long hits = getCacheHits(cache);
+		long requests = hits + getCacheMisses(cache);
+		return requests == 0 ? 0 : (double) hits / requests;
+	}
+
+	@Override
+	public double getResultCacheHitRate() {
+		return getCacheHitRate(Cache.RESULT);
+	}
+
+	@Override
+	public double getAnnotationCacheHitRate() {
+		return getCacheHitRate(Cache.ANNOTATION);
+	}
+
+	@Override
+	public double getStemCacheHitRate() {
+		BoundedCache<String, String> stemCache = GeneralStemmer.getStemCache();
+		return stemCache == null ? 0 : stemCache.getHitRate();
+	}
+
+	@Override
+	public void reset() {
+		for (LatencyHistogram histogram : stages.values()) {
+			histogram.reset();
+		}
+		documents.reset();
+		sentences.reset();
+		tokens.reset();
+		for (int i = 0; i < cacheHits.length; i++) {
+			cacheHits[i].reset();
+			cacheMisses[i].reset();
+		}
+		startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Registers the metrics in the platform MBean server, replacing the ones
+	 * registered before
+	 */
+	public void register() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			register(server, getObjectName(null), this);
+			register(server, getObjectName(DOCUMENT), documents);
+			for (Map.Entry<Stage, LatencyHistogram> stage : stages.entrySet()) {
+				register(server, getObjectName(stage.getKey().name()), stage.getValue());
+			}
+		} catch (JMException e) {
+			throw ExceptionUtils.getRuntimeException(e);
+		}
+	}
+
+	private static void register(MBeanServer server, ObjectName name, Object mbean) throws JMException {
+		if (server.isRegistered(name)) {
+			server.unregisterMBean(name);
+		}
+		server.registerMBean(mbean, name);
+	}
+
+	public void unregister() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			unregister(server, getObjectName(null));
+			unregister(server, getObjectName(DOCUMENT));
+			for (Stage stage : stages.keySet()) {
+				unregister(server, getObjectName(stage.name()));
+			}
+		} catch (JMException e) {
+			throw ExceptionUtils.getRuntimeException(e);
+		}
+	}
+
+	private static void unregister(MBeanServer server, ObjectName name) throws JMException {
+		if (server.isRegistered(name)) {
+			server.unregisterMBean(name);
+		}
+	}
+
+	static ObjectName getObjectName(String stage) throws JMException {
+		String name = DOMAIN + ":type=PipelineMetrics";
+		return new ObjectName(stage == null ? name : name + ",stage=" + stage);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("PipelineMetrics [documents=").append(documents)
+				.append(", sentences=").append(getSentences()).append(", tokens=").append(getTokens());
+		for (Map.Entry<Stage, LatencyHistogram> stage : stages.entrySet()) {
+			builder.append(", ").append(stage.getKey()).append("=").append(stage.getValue());
+		}
+		return builder.append("]").toString();
+	}
+
+}
@@ -0,0 +1,41 @@
+package seers.textanalyzer;
+
+/**
+ * JMX view of the {@link PipelineMetrics} counters. The stage timings are
+ * registered as separate {@link LatencyHistogramMXBean}s.
+ */
+public interface PipelineMetricsMXBean {
+
+	long getDocuments();
+
+	long getSentences();
+
+	long getTokens();
+
+	/**
+	 * @return documents processed per second since the start (or the last
+	 *         reset)
+	 */
+	double getDocumentsPerSecond();
+
+	double getTokensPerSecond();
+
+	/**
+	 * @return hit rate of the {@link ResultCache}, 0 if it was not used
+	 */
+	double getResultCacheHitRate();
+
+	/**
+	 * @return hit rate of the {@link AnnotationCache}, 0 if it was not used
+	 */
+	double getAnnotationCacheHitRate();
+
+	/**
+	 * @return hit rate of the stem cache of {@link GeneralStemmer}, 0 if
+	 *         there is none
+	 */
+	double getStemCacheHitRate();
+
+	void reset();
+
+}
@@ -0,0 +1,330 @@
+package seers.textanalyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import edu.stanford.nlp.pipeline.AnnotatorImplementations;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+import seers.appcore.utils.ExceptionUtils;
+
+/**
+ * Pool of CoreNLP pipelines built from the same properties.
+ * <p>
+ * In {@link Mode#BORROW} mode, at most {@code size} pipelines are created
+ * (lazily) and callers block until one is returned to the pool. In
+ * {@link Mode#PER_THREAD} mode, every thread gets its own pipeline and the size
+ * only bounds the helper threads of {@link #map(List, Function)}.
+ * <p>
+ * When {@code sharedModels} is true, the pipelines share the annotators of the
+ * CoreNLP default annotator pool (i.e., the models are loaded once). Otherwise,
+ * each pipeline loads its own annotators, which costs memory but avoids any
+ * contention inside the annotators.
+ */
+public class PipelinePool {
+
+	public enum Mode {
+		BORROW, PER_THREAD
+	}
+
+	public static final String POOL_SIZE_PROPERTY = "textanalyzer.pipeline.pool.size";
+	public static final String POOL_MODE_PROPERTY = "textanalyzer.pipeline.pool.mode";
+	public static final String SHARED_MODELS_PROPERTY = "textanalyzer.pipeline.pool.sharedModels";
+
+	private static final String TOKENIZE_OPTIONS = "untokenizable=noneKeep,invertible=true";
+
+	private static final AtomicInteger HELPER_COUNT = new AtomicInteger();
+	private static final ExecutorService HELPERS = Executors.newCachedThreadPool(r -> {
+		Thread thread = new Thread(r, "pipeline-helper-" + HELPER_COUNT.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final Properties properties;
+	private final int size;
+	private final Mode mode;
+	private final boolean sharedModels;
+
+	private final BlockingQueue<StanfordCoreNLP> idlePipelines;
+	private final AtomicInteger createdPipelines;
+	private final ThreadLocal<StanfordCoreNLP> threadPipeline;
+	private final AtomicInteger threadHelpers;
+
+	/**
+	 * Creates a pool configured through the system properties
+	 * {@value #POOL_SIZE_PROPERTY} (default: number of processors),
+	 * {@value #POOL_MODE_PROPERTY} (default: BORROW) and
+	 * {@value #SHARED_MODELS_PROPERTY} (default: true)
+	 *
+	 * @param properties
+	 */
+	public PipelinePool(Properties properties) {
+		this(properties, getDefaultSize(), getDefaultMode(), getDefaultSharedModels());
+	}
+
+	public PipelinePool(Properties properties, int size, Mode mode, boolean sharedModels) {
+		if (properties == null || mode == null) {
+			throw new NullPointerException();
+		}
+		if (size <= 0) {
+			throw new IllegalArgumentException("The pool size should be greater than 0");
+		}
+
+		this.properties = properties;
+		this.size = size;
+		this.mode = mode;
+		this.sharedModels = sharedModels;
+
+		idlePipelines = new LinkedBlockingQueue<>();
+		createdPipelines = new AtomicInteger();
+		threadPipeline = ThreadLocal.withInitial(this::createPipeline);
+		threadHelpers = new AtomicInteger();
+	}
+
+	/**
+	 * Builds the CoreNLP properties used by this project for the given
+	 * annotators
+	 *
+	 * @param annotators
+	 *            e.g., "tokenize, ssplit, pos, lemma"
+	 * @return
+	 */
+	public static Properties createProperties(String annotators) {
+		Properties props = new Properties();
+		props.setProperty("annotators", annotators);
+		props.setProperty("tokenize.options", TOKENIZE_OPTIONS);
+		return props;
+	}
+
+	public void annotate(Annotation document) {
+		if (Mode.PER_THREAD.equals(mode)) {
+			threadPipeline.get().annotate(document);
+			return;
+		}
+
+		StanfordCoreNLP pipeline = borrow();
+		try {
+			pipeline.annotate(document);
+		} finally {
+			release(pipeline);
+		}
+	}
+
+	/**
+	 * Takes a pipeline from the pool, creating it if the pool is not full yet,
+	 * or waiting for another thread to release one. Every borrowed pipeline
+	 * must be returned with {@link #release(StanfordCoreNLP)}.
+	 *
+	 * @return
+	 */
+	public StanfordCoreNLP borrow() {
+		if (Mode.PER_THREAD.equals(mode)) {
+			return threadPipeline.get();
+		}
+
+		StanfordCoreNLP pipeline = idlePipelines.poll();
+		if (pipeline != null) {
+			return pipeline;
+		}
+
+		if (createdPipelines.incrementAndGet() <= size) {
+			try {
+				return createPipeline();
+			} catch (RuntimeException e) {
+				createdPipelines.decrementAndGet();
+				throw e;
+			}
+		}
+		createdPipelines.decrementAndGet();
+
+		try {
+			return idlePipelines.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw ExceptionUtils.getRuntimeException(e);
+		}
+	}
+
+	/**
+	 * Applies the function, which should annotate with this pool, to all the
+	 * inputs concurrently. The calling thread takes part, and helper threads
+	 * are only added for the pipelines that are not in use (in BORROW mode) or
+	 * up to {@code size - 1} helpers running for this pool at a time (in
+	 * PER_THREAD mode, where each helper thread gets its own pipeline), so the
+	 * pool is not oversubscribed when the caller is already one of many
+	 * threads. The helpers never wait for other tasks, so this method can be
+	 * called from any thread without deadlocks, but the function should not
+	 * call it again.
+	 *
+	 * @param inputs
+	 * @param function
+	 * @return the results, in input order
+	 */
+	public <T, R> List<R> map(List<T> inputs, Function<? super T, ? extends R> function) {
+		int numInputs = inputs.size();
+		int numHelpers = Mode.BORROW.equals(mode) ? Math.min(numInputs - 1, getAvailablePipelines() - 1)
+				: reserveThreadHelpers(numInputs - 1);
+		if (numHelpers <= 0) {
+			List<R> results = new ArrayList<>(numInputs);
+			for (T input : inputs) {
+				results.add(function.apply(input));
+			}
+			return results;
+		}
+
+		Object[] results = new Object[numInputs];
+		AtomicInteger nextInput = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(numInputs);
+		AtomicReference<Throwable> error = new AtomicReference<>();
+
+		Runnable worker = () -> {
+			for (int i = nextInput.getAndIncrement(); i < numInputs; i = nextInput.getAndIncrement()) {
+				try {
+					// the remaining inputs are skipped after an error
+					if (error.get() == null) {
+						results[i] = function.apply(inputs.get(i));
+					}
+				} catch (Throwable e) {
+					error.compareAndSet(null, e);
+				} finally {
+					done.countDown();
+				}
+			}
+		};
+		Runnable helper = Mode.BORROW.equals(mode) ? worker : () -> {
+			try {
+				worker.run();
+			} finally {
+				threadHelpers.decrementAndGet();
+			}
+		};
+		for (int i = 0; i < numHelpers; i++) {
+			HELPERS.execute(helper);
+		}
+		worker.run();
+
+		try {
+			// only waits for the inputs taken by running helpers
+			done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw ExceptionUtils.getRuntimeException(e);
+		}
+		Throwable e = error.get();
+		if (e instanceof RuntimeException) {
+			throw (RuntimeException) e;
+		} else if (e instanceof Error) {
+			throw (Error) e;
+		} else if (e != null) {
+			throw ExceptionUtils.getRuntimeException(e);
+		}
+
+		@SuppressWarnings("unchecked")
+		List<R> resultList = (List<R>) Arrays.asList(results);
+		return resultList;
+	}
+
+	/**
+	 * Reserves up to {@code size - 1} helpers among all the calls to
+	 * {@link #map(List, Function)} in PER_THREAD mode, each helper must be
+	 * released by decrementing {@link #threadHelpers}
+	 *
+	 * @param wanted
+	 * @return number of reserved helpers
+	 */
+	private int reserveThreadHelpers(int wanted) {
+		while (true) {
+			int current = threadHelpers.get();
+			int reserved = Math.min(wanted, size - 1 - current);
+			if (reserved <= 0) {
+				return 0;
+			}
+			if (threadHelpers.compareAndSet(current, current + reserved)) {
+				return reserved;
+			}
+		}
+	}
+
+	/**
+	 * @return number of pipelines that can be borrowed without waiting
+	 */
+	private int getAvailablePipelines() {
+		return idlePipelines.size() + Math.max(0, size - createdPipelines.get());
+	}
+
+	public void release(StanfordCoreNLP pipeline) {
+		if (pipeline == null || Mode.PER_THREAD.equals(mode)) {
+			return;
+		}
+		idlePipelines.offer(pipeline);
+	}
+
+	private StanfordCoreNLP createPipeline() {
+		if (sharedModels) {
+			return new StanfordCoreNLP(properties);
+		}
+		boolean enforceRequirements = Boolean.valueOf(properties.getProperty("enforceRequirements", "true"));
+		return new StanfordCoreNLP(properties, enforceRequirements,
+				StanfordCoreNLP.constructAnnotatorPool(properties, new AnnotatorImplementations()));
+	}
+
+	public String getAnnotators() {
+		return properties.getProperty("annotators");
+	}
+
+	public Properties getProperties() {
+		Properties copy = new Properties();
+		copy.putAll(properties);
+		return copy;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public boolean isSharedModels() {
+		return sharedModels;
+	}
+
+	/**
+	 * @return the number of pipelines created so far in BORROW mode
+	 */
+	public int getCreatedPipelines() {
+		return createdPipelines.get();
+	}
+
+	private static int getDefaultSize() {
+		String size = System.getProperty(POOL_SIZE_PROPERTY);
+		if (size == null) {
+			return Runtime.getRuntime().availableProcessors();
+		}
+		return Integer.valueOf(size.trim());
+	}
+
+	private static Mode getDefaultMode() {
+		String mode = System.getProperty(POOL_MODE_PROPERTY);
+		if (mode == null) {
+			return Mode.BORROW;
+		}
+		return Mode.valueOf(mode.trim().toUpperCase());
+	}
+
+	private static boolean getDefaultSharedModels() {
+		return Boolean.valueOf(System.getProperty(SHARED_MODELS_PROPERTY, "true"));
+	}
+
+}
@@ -29,12 +29,7 @@ public class PorterStemmer {
 	 */
 
 	public void add(char ch) {
-		if (i == b.length) {
-			char[] new_b = new char[i + INC];
-			for (int c = 0; c < i; c++)
-				new_b[c] = b[c];
-			b = new_b;
-		}
+		ensureCapacity(i + 1);
 		b[i++] = ch;
 	}
 
@@ -44,14 +39,86 @@ public class PorterStemmer {
 	 */
 
 	public void add(char[] w, int wLen) {
-		if (i + wLen >= b.length) {
-			char[] new_b = new char[i + wLen + INC];
-			for (int c = 0; c < i; c++)
-				new_b[c] = b[c];
+		add(w, 0, wLen);
+	}
+
+	/**
+	 * Adds the characters w[off, off + len) to the word being stemmed.
+	 */
+	public void add(char[] w, int off, int len) {
+		ensureCapacity(i + len);
+		System.arraycopy(w, off, b, i, len);
+		i += len;
+	}
+
+	/**
+	 * Adds the characters s[off, off + len) to the word being stemmed.
+	 */
+	public void add(CharSequence s, int off, int len) {
+		ensureCapacity(i + len);
+		if (s instanceof String) {
+			((String) s).getChars(off, off + len, b, i);
+			i += len;
+		} else {
+			for (int c = off; c < off + len; c++)
+				b[i++] = s.charAt(c);
+		}
+	}
+
+	/* the buffer keeps one spare char, as some steps write past the word */
+	private void ensureCapacity(int length) {
+		if (length >= b.length) {
+			char[] new_b = new char[length + INC];
+			System.arraycopy(b, 0, new_b, 0, i);
 			b = new_b;
 		}
-		for (int c = 0; c < wLen; c++)
-			b[i++] = w[c];
+	}
+
+	/**
+	 * Discards the characters added so far, keeping the buffer for the next
+	 * word.
+	 */
+	public void reset() {
+		i = 0;
+		i_end = 0;
+	}
+
+	/**
+	 * Stems s[off, off + len), discarding any characters added before. Returns
+	 * the length of the result.
+	 */
+	public int stem(CharSequence s, int off, int len) {
+		reset();
+		add(s, off, len);
+		stem();
+		return i_end;
+	}
+
+	/**
+	 * Stems w[off, off + len), discarding any characters added before. Returns
+	 * the length of the result.
+	 */
+	public int stem(char[] w, int off, int len) {
+		reset();
+		add(w, off, len);
+		stem();
+		return i_end;
+	}
+
+	/**
+	 * Appends the result of the last stemming to the given builder.
+	 */
+	public StringBuilder getResult(StringBuilder sb) {
+		return sb.append(b, 0, i_end);
+	}
+
+	/**
+	 * Copies the result of the last stemming to dst, starting at off. Returns
+	 * the length of the result.
+	 */
+	public int getResult(char[] dst, int off) {
+		System.arraycopy(b, 0, dst, off, i_end);
+		return i_end;
 	}
 
 	/**
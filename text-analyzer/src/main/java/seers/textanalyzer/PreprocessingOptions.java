@@ -0,0 +1,144 @@
+package seers.textanalyzer;
+
+import org.apache.commons.cli.ParseException;
+
+import seers.appcore.utils.ExceptionUtils;
+
+/**
+ * Immutable, already parsed preprocessing options (see
+ * {@link PreprocessingOptionsParser}). Instances obtained through
+ * {@link #of(String)} are cached by option string, so they can be requested
+ * for every document at no cost.
+ */
+public final class PreprocessingOptions {
+
+	private static final int CACHE_SIZE = 1024;
+	private static final BoundedCache<String, PreprocessingOptions> CACHE = new BoundedCache<>(CACHE_SIZE);
+
+	private final boolean removePunctuation;
+	private final boolean removeNumbers;
+	private final boolean removeShortTokens;
+	private final int tokenMinLength;
+	private final boolean removeSpecialCharTokens;
+	private final boolean splitCamelCase;
+
+	public PreprocessingOptions(boolean removePunctuation, boolean removeNumbers, boolean removeShortTokens,
+			int tokenMinLength, boolean removeSpecialCharTokens, boolean splitCamelCase) {
+		if (removeShortTokens && tokenMinLength <= 0) {
+			throw new RuntimeException("The minimum value shold be greater than 0");
+		}
+		this.removePunctuation = removePunctuation;
+		this.removeNumbers = removeNumbers;
+		this.removeShortTokens = removeShortTokens;
+		this.tokenMinLength = tokenMinLength;
+		this.removeSpecialCharTokens = removeSpecialCharTokens;
+		this.splitCamelCase = splitCamelCase;
+	}
+
+	/**
+	 * Parses the options, e.g., "-p -n -s 3 -c", or returns the cached ones
+	 *
+	 * @param preprocessingOptions
+	 * @return
+	 */
+	public static PreprocessingOptions of(String preprocessingOptions) {
+		return CACHE.get(preprocessingOptions, PreprocessingOptions::parse);
+	}
+
+	/**
+	 * @param preprocessingOptions
+	 *            options without prefix, e.g., {"p", "n"}
+	 * @return
+	 */
+	public static PreprocessingOptions of(String... preprocessingOptions) {
+		return of(PreprocessingOptionsParser.buildStringOptions(preprocessingOptions));
+	}
+
+	private static PreprocessingOptions parse(String preprocessingOptions) {
+		try {
+			return new PreprocessingOptionsParser(preprocessingOptions).compile();
+		} catch (ParseException e) {
+			throw ExceptionUtils.getRuntimeException(e);
+		}
+	}
+
+	public boolean removePunctuation() {
+		return removePunctuation;
+	}
+
+	public boolean removeNumbers() {
+		return removeNumbers;
+	}
+
+	public boolean removeShortTokens() {
+		return removeShortTokens;
+	}
+
+	public int getTokenMinLength() {
+		return tokenMinLength;
+	}
+
+	public boolean removeSpecialCharTokens() {
+		return removeSpecialCharTokens;
+	}
+
+	public boolean splitCamelCase() {
+		return splitCamelCase;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (removeNumbers ? 1231 : 1237);
+		result = prime * result + (removePunctuation ? 1231 : 1237);
+		result = prime * result + (removeShortTokens ? 1231 : 1237);
+		result = prime * result + (removeSpecialCharTokens ? 1231 : 1237);
+		result = prime * result + (splitCamelCase ? 1231 : 1237);
+		result = prime * result + tokenMinLength;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		PreprocessingOptions other = (PreprocessingOptions) obj;
+		return removeNumbers == other.removeNumbers && removePunctuation == other.removePunctuation
+				&& removeShortTokens == other.removeShortTokens
+				&& removeSpecialCharTokens == other.removeSpecialCharTokens && splitCamelCase == other.splitCamelCase
+				&& tokenMinLength == other.tokenMinLength;
+	}
+
+	/**
+	 * @return the options as a string that {@link #of(String)} parses back
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		if (removePunctuation) {
+			builder.append(PreprocessingOptionsParser.OPTION_PREFIX + PreprocessingOptionsParser.PUNCTUATION_REMOVAL + " ");
+		}
+		if (removeNumbers) {
+			builder.append(PreprocessingOptionsParser.OPTION_PREFIX + PreprocessingOptionsParser.NUMBERS_REMOVAL + " ");
+		}
+		if (removeShortTokens) {
+			builder.append(PreprocessingOptionsParser.OPTION_PREFIX + PreprocessingOptionsParser.SHORT_TOKENS_REMOVAL
+					+ " " + tokenMinLength + " ");
+		}
+		if (removeSpecialCharTokens) {
+			builder.append(
+					PreprocessingOptionsParser.OPTION_PREFIX + PreprocessingOptionsParser.SPECIAL_CHARS_REMOVAL + " ");
+		}
+		if (splitCamelCase) {
+			builder.append(
+					PreprocessingOptionsParser.OPTION_PREFIX + PreprocessingOptionsParser.CAMEL_CASE_SPLITTING + " ");
+		}
+		return builder.toString().trim();
+	}
+
+}
@@ -84,6 +84,16 @@ public class PreprocessingOptionsParser {
 		return cmd.hasOption(CAMEL_CASE_SPLITTING);
 	}
 
+	/**
+	 * @return the parsed options as an immutable value
+	 */
+	public PreprocessingOptions compile() {
+		boolean removeShortTokens = removeShortTokens();
+		int tokenMinLength = removeShortTokens ? getTokenMinLength() : Integer.valueOf(DEFAULT_MININUM_TOKEN_LENGTH);
+		return new PreprocessingOptions(removePunctuation(), removeNumbers(), removeShortTokens, tokenMinLength,
+				removeSpecialCharTokens(), splitCamelCase());
+	}
+
 	public static String getDefaultOptionsNoCamelCase() {
 		StringBuilder builder = new StringBuilder();
 
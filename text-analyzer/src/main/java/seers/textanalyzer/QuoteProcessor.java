@@ -7,12 +7,14 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
-
-import org.apache.commons.lang3.StringUtils;
+import java.util.regex.Pattern;
 
 public class QuoteProcessor {
 
 	public static final String QUOTE_PREFIX = "QUT";
+	private static final char[] QUOTE_MARKS = { '\'', '"', '`' };
+	private static final Pattern QUOTE_TOKEN = Pattern.compile(QUOTE_PREFIX + "\\d+");
+
 	private int quotesIdx;
 
 	public QuoteProcessor() {
@@ -20,38 +22,39 @@ public class QuoteProcessor {
 	}
 
 	public Quotes processSentence(String txt) {
-		return processSentence2(txt, false);
+		return processSentence(txt, false);
 	}
 
-	private Quotes processSentence2(String originalTxt, boolean checkSurroundingQuotes) {
-		String[] quoteMarks = { "'", "\"", "`" };
-
+	private Quotes processSentence(String originalTxt, boolean checkSurroundingQuotes) {
 		String processedText = originalTxt;
 		HashMap<String, Quotes> quotesMap = new LinkedHashMap<>();
 
-		for (String quoteMark : quoteMarks) {
+		for (char quoteMark : QUOTE_MARKS) {
 
 			String txtToProcess = originalTxt;
-			if (checkSurroundingQuotes && originalTxt.startsWith(quoteMark) && originalTxt.endsWith(quoteMark)) {
+			if (checkSurroundingQuotes && originalTxt.charAt(0) == quoteMark
+					&& originalTxt.charAt(originalTxt.length() - 1) == quoteMark) {
 				txtToProcess = originalTxt.substring(1, originalTxt.length() - 1);
 			}
 
 			List<String> valuesInQuotes = getValues(quoteMark, txtToProcess);
 
-			if (valuesInQuotes == null) {
+			if (valuesInQuotes.isEmpty()) {
 				continue;
 			}
 
+			QuoteReplacer replacer = new QuoteReplacer(processedText, quoteMark, valuesInQuotes);
 			for (String value : valuesInQuotes) {
 				String quoteKey = QUOTE_PREFIX + quotesIdx++;
 				String quote = quoteMark + value + quoteMark;
 
-				processedText = processedText.replace(quote, quoteKey);
+				replacer.replace(value, quoteKey);
 
-				Quotes childrenQuotes = processSentence2(quote, true);
+				Quotes childrenQuotes = processSentence(quote, true);
 				quotesMap.put(quoteKey, childrenQuotes);
 
 			}
+			processedText = replacer.getText();
 		}
 
 		Quotes quotes = new Quotes(originalTxt, processedText, quotesMap);
@@ -59,52 +62,200 @@ public class QuoteProcessor {
 		return quotes;
 	}
 
-	private List<String> getValues(String quoteMark, String txtToProcess) {
-
-		String[] tokens = txtToProcess.split(" ");
-
+	/**
+	 * Finds the quoted values in one pass over the tokens of the text (split
+	 * by spaces): a token starting with the quote mark opens a quote, which is
+	 * closed by the next token that ends with the quote mark (or with the quote
+	 * mark and punctuation). The value is the text between the opening quote
+	 * mark and the next one.
+	 */
+	private static List<String> getValues(char quoteMark, String txt) {
 		List<String> values = new ArrayList<>();
-		for (int i = 0; i < tokens.length;) {
-			String token = tokens[i];
-
-			if (token.startsWith(quoteMark)) {
-				int j = i;
-				if (token.equals(quoteMark))
-					j = i + 1;
-				for (; j < tokens.length; j++) {
-					String token2 = tokens[j];
-
-					if (token2.endsWith(quoteMark) || token2.matches(".+\\" + quoteMark + "\\p{Punct}+$")) {
-						String value = getSubstring(tokens, i, j + 1, quoteMark);
-						if (value!=null) {
-							values.add(value);
-						}
-						i = j;
-						break;
-					}
 
-				}
+		int numTokens = 1;
+		for (int i = 0; i < txt.length(); i++) {
+			if (txt.charAt(i) == ' ') {
+				numTokens++;
 			}
+		}
+		int[] starts = new int[numTokens + 1];
+		for (int i = 0, token = 1; i < txt.length(); i++) {
+			if (txt.charAt(i) == ' ') {
+				starts[token++] = i + 1;
+			}
+		}
+		// so that the token ends at starts[i + 1] - 1
+		starts[numTokens] = txt.length() + 1;
+
+		// next closing token from every token, to scan unclosed quotes once
+		int[] nextClosing = new int[numTokens + 1];
+		nextClosing[numTokens] = -1;
+		for (int i = numTokens - 1; i >= 0; i--) {
+			nextClosing[i] = isClosing(txt, starts[i], starts[i + 1] - 1, quoteMark) ? i : nextClosing[i + 1];
+		}
 
-			i++;
+		for (int i = 0; i < numTokens; i++) {
+			int start = starts[i];
+			int end = starts[i + 1] - 1;
+			if (start == end || txt.charAt(start) != quoteMark) {
+				continue;
+			}
 
+			int closing = nextClosing[end - start == 1 ? i + 1 : i];
+			if (closing != -1) {
+				// the closing token contains a quote mark
+				values.add(txt.substring(start + 1, txt.indexOf(quoteMark, start + 1)));
+				i = closing;
+			}
 		}
 
 		return values;
 	}
 
-	private String getSubstring(String[] tokens, int ini, int end, String quoteMark) {
-		String[] subArray = Arrays.copyOfRange(tokens, ini, end);
-		String subString = StringUtils.join(subArray, " ").trim();
-		// subString = subString.replaceFirst("\\" + quoteMark + "\\p{Punct}+$",
-		// "");
-		// subString = subString.replace(quoteMark, "");
+	/**
+	 * Same as {@code token.endsWith(quoteMark)} or
+	 * {@code token.matches(".+\\" + quoteMark + "\\p{Punct}+$")}
+	 */
+	private static boolean isClosing(String txt, int start, int end, char quoteMark) {
+		if (start == end) {
+			return false;
+		}
+		if (txt.charAt(end - 1) == quoteMark) {
+			return true;
+		}
+
+		int punctuation = end;
+		while (punctuation > start && isPunctuation(txt.charAt(punctuation - 1))) {
+			punctuation--;
+		}
+		for (int i = Math.max(punctuation, start + 1); i < end - 1; i++) {
+			if (txt.charAt(i) == quoteMark) {
+				// "." does not match line terminators
+				for (int j = start; j < i; j++) {
+					if (isLineTerminator(txt.charAt(j))) {
+						return false;
+					}
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Same as \p{Punct}, which only matches ASCII punctuation
+	 */
+	private static boolean isPunctuation(char c) {
+		return (c >= '!' && c <= '/') || (c >= ':' && c <= '@') || (c >= '[' && c <= '`') || (c >= '{' && c <= '~');
+	}
+
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+	/**
+	 * Replaces the quotes of a quote mark in a text, with the same result as
+	 * calling {@link String#replace(CharSequence, CharSequence)} for every
+	 * quote, in linear time.
+	 * <p>
+	 * A quote can only occur between two consecutive quote marks of the text,
+	 * so the segments between quote marks are indexed by their content.
+	 * Replacing a segment removes its quote marks, which merges the segments
+	 * around it: the merged segments contain the quote key, so they are only
+	 * compared (with {@link String#replace(CharSequence, CharSequence)}) to
+	 * values that contain {@link #QUOTE_PREFIX}.
+	 */
+	private static class QuoteReplacer {
+
+		private final char quoteMark;
+		private final int maxValueLength;
+
+		private String text;
+		private int[] quoteMarks;
+		private int numQuoteMarks;
+		private boolean[] removed;
+		private String[] keys;
+		private boolean replaced;
+		private HashMap<String, List<Integer>> segments;
+
+		private QuoteReplacer(String text, char quoteMark, List<String> values) {
+			this.quoteMark = quoteMark;
+			int maxValueLength = 0;
+			for (String value : values) {
+				maxValueLength = Math.max(maxValueLength, value.length());
+			}
+			this.maxValueLength = maxValueLength;
+			setText(text);
+		}
+
+		private void setText(String text) {
+			this.text = text;
+			this.segments = null;
+			this.replaced = false;
+		}
+
+		private void indexSegments() {
+			numQuoteMarks = 0;
+			quoteMarks = new int[16];
+			for (int i = text.indexOf(quoteMark); i != -1; i = text.indexOf(quoteMark, i + 1)) {
+				if (numQuoteMarks == quoteMarks.length) {
+					quoteMarks = Arrays.copyOf(quoteMarks, numQuoteMarks * 2);
+				}
+				quoteMarks[numQuoteMarks++] = i;
+			}
+			removed = new boolean[numQuoteMarks];
+			keys = new String[numQuoteMarks];
+
+			segments = new HashMap<>();
+			for (int i = 0; i < numQuoteMarks - 1; i++) {
+				if (quoteMarks[i + 1] - quoteMarks[i] - 1 <= maxValueLength) {
+					String segment = text.substring(quoteMarks[i] + 1, quoteMarks[i + 1]);
+					segments.computeIfAbsent(segment, s -> new ArrayList<>(1)).add(i);
+				}
+			}
+		}
 
-		String[] subs = StringUtils.substringsBetween(subString, quoteMark, quoteMark);
-		if (subs != null) {
-			return subs[0];
+		private void replace(String value, String key) {
+			if (value.contains(QUOTE_PREFIX)) {
+				setText(getText().replace(quoteMark + value + quoteMark, key));
+				return;
+			}
+
+			if (segments == null) {
+				indexSegments();
+			}
+			// the occurrences left are removed or overlap a replaced one
+			List<Integer> occurrences = segments.remove(value);
+			if (occurrences == null) {
+				return;
+			}
+			for (int i : occurrences) {
+				if (!removed[i] && !removed[i + 1]) {
+					removed[i] = true;
+					removed[i + 1] = true;
+					keys[i] = key;
+					replaced = true;
+				}
+			}
+		}
+
+		private String getText() {
+			if (!replaced) {
+				return text;
+			}
+
+			StringBuilder builder = new StringBuilder(text.length());
+			int last = 0;
+			for (int i = 0; i < numQuoteMarks - 1; i++) {
+				if (keys[i] != null) {
+					builder.append(text, last, quoteMarks[i]).append(keys[i]);
+					last = quoteMarks[i + 1] + 1;
+				}
+			}
+			builder.append(text, last, text.length());
+			setText(builder.toString());
+			return text;
 		}
-		return null;
 	}
 
 	public class Quotes {
@@ -161,7 +312,7 @@ public class QuoteProcessor {
 	}
 
 	public static boolean isQuoteToken(String word) {
-		return word.matches(QUOTE_PREFIX+"\\d+");
+		return QUOTE_TOKEN.matcher(word).matches();
 	}
 
 }
@@ -0,0 +1,206 @@
+package seers.textanalyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.function.Function;
+
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import seers.textanalyzer.BoundedCache.Eviction;
+import seers.textanalyzer.MetricsListener.Cache;
+import seers.textanalyzer.entity.Sentence;
+import seers.textanalyzer.entity.Token;
+
+/**
+ * In-memory cache of processed texts, for workloads with many repeated texts
+ * (e.g., duplicate titles, log lines or quoted identifiers). The entries are
+ * weighed by their number of tokens and the least recently used ones are
+ * evicted.
+ * <p>
+ * The sentences are copied when cached and when returned, so callers can
+ * modify them freely. The dependency graphs are copied too. The entries are
+ * kept in a single LRU list, so any text that fits in the cache is cached.
+ */
+public class ResultCache {
+
+	/**
+	 * Maximum number of tokens cached by {@link TextProcessor}, 0 (the
+	 * default) disables the cache
+	 */
+	public static final String MAX_TOKENS_PROPERTY = "textanalyzer.result.cache.maxTokens";
+	private static final String DEFAULT_MAX_TOKENS = "0";
+
+	private final BoundedCache<Key, List<Sentence>> cache;
+
+	public ResultCache(long maxTokens) {
+		cache = new BoundedCache<>(maxTokens, ResultCache::getWeight, Eviction.LRU);
+	}
+
+	/**
+	 * @return the cache configured with {@link #MAX_TOKENS_PROPERTY}, or null if
+	 *         it is disabled
+	 */
+	static ResultCache fromSystemProperties() {
+		long maxTokens = Long.parseLong(System.getProperty(MAX_TOKENS_PROPERTY, DEFAULT_MAX_TOKENS));
+		return maxTokens <= 0 ? null : new ResultCache(maxTokens);
+	}
+
+	/**
+	 * Returns a copy of the cached sentences of the text, or processes the
+	 * text and caches (a copy of) the result
+	 *
+	 * @param text
+	 * @param configuration
+	 *            method, annotators and options that determine the result
+	 * @param stopWords
+	 *            compared by identity, null if not used. A {@link StopWords}
+	 *            list may be modified (the entries cached before are not
+	 *            used), any other list should not be modified after the
+	 *            call.
+	 * @param processor
+	 * @return
+	 */
+	public List<Sentence> get(String text, String configuration, List<String> stopWords,
+			Function<String, List<Sentence>> processor) {
+		Key key = new Key(text, configuration, stopWords);
+		List<Sentence> sentences = cache.get(key);
+		Metrics.cacheAccessed(Cache.RESULT, sentences != null);
+		if (sentences != null) {
+			return copy(sentences);
+		}
+
+		sentences = processor.apply(text);
+		cache.put(key, copy(sentences));
+		return sentences;
+	}
+
+	public void clear() {
+		cache.clear();
+	}
+
+	public int size() {
+		return cache.size();
+	}
+
+	/**
+	 * @return number of cached tokens (plus one per sentence and per entry)
+	 */
+	public long getWeight() {
+		return cache.getWeight();
+	}
+
+	public long getMaxWeight() {
+		return cache.getMaxWeight();
+	}
+
+	public void resetStats() {
+		cache.resetStats();
+	}
+
+	public long getHits() {
+		return cache.getHits();
+	}
+
+	public long getMisses() {
+		return cache.getMisses();
+	}
+
+	public long getEvictions() {
+		return cache.getEvictions();
+	}
+
+	public double getHitRate() {
+		return cache.getHitRate();
+	}
+
+	@Override
+	public String toString() {
+		return "ResultCache [size=" + size() + ", weight=" + getWeight() + ", max=" + getMaxWeight() + ", hits="
+				+ getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions() + "]";
+	}
+
+	private static int getWeight(List<Sentence> sentences) {
+		int weight = 1;
+		for (Sentence sentence : sentences) {
+			weight += 1 + sentence.getTokens().size();
+			if (sentence.hasQuotes()) {
+				for (List<Sentence> quoteSentences : sentence.getQuotes().values()) {
+					weight += getWeight(quoteSentences);
+				}
+			}
+		}
+		return weight;
+	}
+
+	/**
+	 * Deep copy of the sentences, their tokens, dependencies and quotes
+	 *
+	 * @param sentences
+	 * @return
+	 */
+	static List<Sentence> copy(List<Sentence> sentences) {
+		List<Sentence> copies = new ArrayList<>(sentences.size());
+		for (Sentence sentence : sentences) {
+			copies.add(copy(sentence));
+		}
+		return copies;
+	}
+
+	private static Sentence copy(Sentence sentence) {
+		List<Token> tokens = sentence.getTokens();
+		List<Token> tokenCopies = new ArrayList<>(tokens.size());
+		for (Token token : tokens) {
+			tokenCopies.add(new Token(token.getWord(), token.getGeneralPos(), token.getPos(), token.getLemma(),
+					token.getStem(), token.getBeginPosition(), token.getEndPosition(), token.getIndex()));
+		}
+
+		Sentence copy = new Sentence(sentence.getId(), tokenCopies, sentence.getText());
+		if (sentence.getCompactDependencies() != null) {
+			// immutable, no need to copy
+			copy.setCompactDependencies(sentence.getCompactDependencies());
+		} else if (sentence.getDependencies() != null) {
+			copy.setDependencies(new SemanticGraph(sentence.getDependencies()));
+		}
+		if (sentence.hasQuotes()) {
+			for (Entry<String, List<Sentence>> quote : sentence.getQuotes().entrySet()) {
+				copy.addQuote(quote.getKey(), copy(quote.getValue()));
+			}
+		}
+		return copy;
+	}
+
+	private static final class Key {
+
+		private final String text;
+		private final String configuration;
+		private final List<String> stopWords;
+		private final int stopWordsVersion;
+		private final int hash;
+
+		private Key(String text, String configuration, List<String> stopWords) {
+			this.text = text;
+			this.configuration = configuration;
+			this.stopWords = stopWords;
+			this.stopWordsVersion = stopWords instanceof StopWords ? ((StopWords) stopWords).getVersion() : 0;
+			this.hash = 31 * (31 * (31 * text.hashCode() + configuration.hashCode())
+					+ System.identityHashCode(stopWords)) + stopWordsVersion;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return hash == other.hash && stopWords == other.stopWords && stopWordsVersion == other.stopWordsVersion
+					&& text.equals(other.text) && configuration.equals(other.configuration);
+		}
+	}
+
+}
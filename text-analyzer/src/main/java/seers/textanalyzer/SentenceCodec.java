@@ -0,0 +1,530 @@
+package seers.textanalyzer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import edu.stanford.nlp.international.Language;
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.ling.IndexedWord;
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import edu.stanford.nlp.semgraph.SemanticGraphEdge;
+import edu.stanford.nlp.trees.GrammaticalRelation;
+import seers.textanalyzer.entity.DocumentResult;
+import seers.textanalyzer.entity.Sentence;
+import seers.textanalyzer.entity.Token;
+
+/**
+ * Compact, versioned binary format for processed documents: their sentences,
+ * tokens, dependency graphs and (nested) quotes.
+ * <p>
+ * A stream holds a header and any number of documents, which are written and
+ * read one at a time ({@link DocumentWriter}, {@link DocumentReader}). The
+ * integers are variable-length, the token positions are relative to the
+ * previous token, and the strings (besides the sentence texts) are coded
+ * with a dictionary shared by all the documents of the stream, so every
+ * distinct word, lemma or tag is stored once.
+ * <p>
+ * The dependency graphs are rebuilt with the vertices (index, word, lemma,
+ * tag, positions) and typed edges that {@link DependenciesUtils} relies on;
+ * other CoreNLP annotations are not kept.
+ */
+public class SentenceCodec {
+
+	private static final int MAGIC = 0x54415343;
+	public static final int VERSION = 2;
+
+	/**
+	 * Maximum number of strings in the dictionary of a stream, the rest are
+	 * written in full
+	 */
+	public static final int MAX_DICTIONARY_SIZE = 1 << 20;
+
+	private static final int END_OF_STREAM = 0;
+	private static final int DOCUMENT = 1;
+
+	// string codes, followed by the ids of the dictionary strings
+	private static final int NULL_STRING = 0;
+	private static final int LITERAL = 1;
+	private static final int NEW_STRING = 2;
+	private static final int STRING_ID_BASE = 3;
+
+	private static final int EXTRA_EDGE = 1;
+	private static final int WEIGHTED_EDGE = 2;
+	private static final double DEFAULT_WEIGHT = Double.NEGATIVE_INFINITY;
+
+	private SentenceCodec() {
+	}
+
+	/**
+	 * Writes a stream with a single document, without closing the output
+	 *
+	 * @param sentences
+	 * @param outputStream
+	 * @throws IOException
+	 */
+	public static void write(List<Sentence> sentences, OutputStream outputStream) throws IOException {
+		DocumentWriter writer = new DocumentWriter(outputStream);
+		writer.write(null, sentences);
+		writer.finish();
+	}
+
+	/**
+	 * Reads the first document of a stream, without closing the input
+	 *
+	 * @param inputStream
+	 * @return
+	 * @throws IOException
+	 */
+	public static List<Sentence> read(InputStream inputStream) throws IOException {
+		DocumentReader reader = new DocumentReader(inputStream);
+		DocumentResult document = reader.read();
+		if (document == null) {
+			throw new EOFException("The stream has no documents");
+		}
+		return document.getSentences();
+	}
+
+	/**
+	 * Writes documents to a stream. {@link #finish()} or {@link #close()} must
+	 * be called after the last document.
+	 */
+	public static class DocumentWriter implements Closeable {
+
+		private final OutputStream out;
+		private final Map<String, Integer> dictionary;
+		private boolean finished;
+
+		public DocumentWriter(OutputStream outputStream) throws IOException {
+			out = outputStream instanceof BufferedOutputStream ? outputStream
+					: new BufferedOutputStream(outputStream);
+			dictionary = new HashMap<>();
+
+			writeFixedInt(MAGIC);
+			writeFixedInt(VERSION);
+		}
+
+		/**
+		 * @param id
+		 *            document id, may be null
+		 * @param sentences
+		 * @throws IOException
+		 */
+		public void write(String id, List<Sentence> sentences) throws IOException {
+			writeVarint(DOCUMENT);
+			writeString(id);
+			writeSentences(sentences);
+		}
+
+		/**
+		 * Marks the end of the stream and flushes it, without closing it
+		 *
+		 * @throws IOException
+		 */
+		public void finish() throws IOException {
+			if (!finished) {
+				writeVarint(END_OF_STREAM);
+				finished = true;
+			}
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				finish();
+			} finally {
+				out.close();
+			}
+		}
+
+		private void writeSentences(List<Sentence> sentences) throws IOException {
+			writeVarint(sentences.size());
+			int previousEnd = 0;
+			for (Sentence sentence : sentences) {
+				previousEnd = writeSentence(sentence, previousEnd);
+			}
+		}
+
+		private int writeSentence(Sentence sentence, int previousEnd) throws IOException {
+			writeString(sentence.getId());
+			writeLiteral(sentence.getText());
+
+			List<Token> tokens = sentence.getTokens();
+			writeVarint(tokens.size());
+			for (int i = 0; i < tokens.size(); i++) {
+				Token token = tokens.get(i);
+				writeString(token.getWord());
+				writeString(token.getGeneralPos());
+				writeString(token.getPos());
+				writeString(token.getLemma());
+				writeString(token.getStem());
+				writeSignedVarint(token.getBeginPosition() - previousEnd);
+				writeSignedVarint(token.getEndPosition() - token.getBeginPosition());
+				// usually the 1-based position in the sentence, or -1
+				writeSignedVarint(token.getIndex() - (i + 1));
+				previousEnd = token.getEndPosition();
+			}
+
+			SemanticGraph dependencies = sentence.getDependencies();
+			writeVarint(dependencies == null ? 0 : 1);
+			if (dependencies != null) {
+				writeDependencies(dependencies);
+			}
+
+			if (!sentence.hasQuotes()) {
+				writeVarint(0);
+			} else {
+				Map<String, List<Sentence>> quotes = sentence.getQuotes();
+				writeVarint(quotes.size());
+				for (Entry<String, List<Sentence>> quote : quotes.entrySet()) {
+					writeString(quote.getKey());
+					writeSentences(quote.getValue());
+				}
+			}
+			return previousEnd;
+		}
+
+		private void writeDependencies(SemanticGraph dependencies) throws IOException {
+			List<IndexedWord> vertices = dependencies.vertexListSorted();
+			Map<IndexedWord, Integer> ordinals = new HashMap<>();
+
+			writeVarint(vertices.size());
+			int previousEnd = 0;
+			for (IndexedWord vertex : vertices) {
+				ordinals.put(vertex, ordinals.size());
+				writeVarint(vertex.index());
+				writeVarint(vertex.copyCount());
+				writeSignedVarint(vertex.sentIndex());
+				writeString(vertex.word());
+				writeString(vertex.value());
+				writeString(vertex.lemma());
+				writeString(vertex.tag());
+				writeSignedVarint(vertex.beginPosition() - previousEnd);
+				writeSignedVarint(vertex.endPosition() - vertex.beginPosition());
+				previousEnd = vertex.endPosition();
+			}
+
+			writeVarint(dependencies.getRoots().size());
+			for (IndexedWord root : dependencies.getRoots()) {
+				writeVarint(getOrdinal(ordinals, root));
+			}
+
+			writeVarint(dependencies.edgeCount());
+			for (SemanticGraphEdge edge : dependencies.edgeListSorted()) {
+				GrammaticalRelation relation = edge.getRelation();
+				writeVarint(getOrdinal(ordinals, edge.getGovernor()));
+				writeVarint(getOrdinal(ordinals, edge.getDependent()));
+				writeString(relation.getLanguage().name());
+				writeString(relation.toString());
+
+				double weight = edge.getWeight();
+				boolean weighted = Double.compare(weight, DEFAULT_WEIGHT) != 0;
+				writeVarint((edge.isExtra() ? EXTRA_EDGE : 0) | (weighted ? WEIGHTED_EDGE : 0));
+				if (weighted) {
+					long bits = Double.doubleToRawLongBits(weight);
+					writeFixedInt((int) (bits >>> 32));
+					writeFixedInt((int) bits);
+				}
+			}
+		}
+
+		private int getOrdinal(Map<IndexedWord, Integer> ordinals, IndexedWord vertex) throws IOException {
+			Integer ordinal = ordinals.get(vertex);
+			if (ordinal == null) {
+				throw new IOException("The dependency graph references a vertex out of the graph: " + vertex);
+			}
+			return ordinal;
+		}
+
+		private void writeString(String string) throws IOException {
+			if (string == null) {
+				writeVarint(NULL_STRING);
+				return;
+			}
+
+			Integer id = dictionary.get(string);
+			if (id != null) {
+				writeVarint(STRING_ID_BASE + id);
+			} else if (dictionary.size() < MAX_DICTIONARY_SIZE) {
+				dictionary.put(string, dictionary.size());
+				writeVarint(NEW_STRING);
+				writeBytes(string);
+			} else {
+				writeVarint(LITERAL);
+				writeBytes(string);
+			}
+		}
+
+		/**
+		 * Writes a string that is not added to the dictionary
+		 */
+		private void writeLiteral(String string) throws IOException {
+			if (string == null) {
+				writeVarint(NULL_STRING);
+				return;
+			}
+			writeVarint(LITERAL);
+			writeBytes(string);
+		}
+
+		private void writeBytes(String string) throws IOException {
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			writeVarint(bytes.length);
+			out.write(bytes);
+		}
+
+		private void writeSignedVarint(int value) throws IOException {
+			// zigzag, so that small negative values take few bytes
+			writeVarint((value << 1) ^ (value >> 31));
+		}
+
+		private void writeVarint(int value) throws IOException {
+			while ((value & ~0x7F) != 0) {
+				out.write((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.write(value);
+		}
+
+		private void writeFixedInt(int value) throws IOException {
+			out.write(value >>> 24);
+			out.write(value >>> 16);
+			out.write(value >>> 8);
+			out.write(value);
+		}
+	}
+
+	/**
+	 * Reads the documents of a stream written by a {@link DocumentWriter}
+	 */
+	public static class DocumentReader implements Closeable {
+
+		private final InputStream in;
+		private final List<String> dictionary;
+		private long position;
+		private boolean ended;
+
+		public DocumentReader(InputStream inputStream) throws IOException {
+			in = inputStream instanceof BufferedInputStream ? inputStream : new BufferedInputStream(inputStream);
+			dictionary = new ArrayList<>();
+
+			if (readFixedInt() != MAGIC) {
+				throw new IOException("Not a sentence stream");
+			}
+			int version = readFixedInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported sentence stream version: " + version);
+			}
+		}
+
+		/**
+		 * @return the next document, with its id and position in the stream,
+		 *         or null at the end of the stream
+		 * @throws IOException
+		 */
+		public DocumentResult read() throws IOException {
+			if (ended) {
+				return null;
+			}
+
+			int marker = readVarint();
+			if (marker == END_OF_STREAM) {
+				ended = true;
+				return null;
+			}
+			if (marker != DOCUMENT) {
+				throw new IOException("Corrupted sentence stream, unexpected marker: " + marker);
+			}
+
+			String id = readString();
+			List<Sentence> sentences = readSentences();
+			return new DocumentResult(id, position++, sentences, null);
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+
+		private List<Sentence> readSentences() throws IOException {
+			int numSentences = readVarint();
+			List<Sentence> sentences = new ArrayList<>(numSentences);
+			int previousEnd = 0;
+			for (int i = 0; i < numSentences; i++) {
+				Sentence sentence = readSentence(previousEnd);
+				sentences.add(sentence);
+
+				List<Token> tokens = sentence.getTokens();
+				if (!tokens.isEmpty()) {
+					previousEnd = tokens.get(tokens.size() - 1).getEndPosition();
+				}
+			}
+			return sentences;
+		}
+
+		private Sentence readSentence(int previousEnd) throws IOException {
+			String id = readString();
+			String text = readString();
+
+			int numTokens = readVarint();
+			List<Token> tokens = new ArrayList<>(numTokens);
+			for (int i = 0; i < numTokens; i++) {
+				String word = readString();
+				String generalPos = readString();
+				String pos = readString();
+				String lemma = readString();
+				String stem = readString();
+				int beginPosition = previousEnd + readSignedVarint();
+				int endPosition = beginPosition + readSignedVarint();
+				int index = i + 1 + readSignedVarint();
+				tokens.add(new Token(word, generalPos, pos, lemma, stem, beginPosition, endPosition, index));
+				previousEnd = endPosition;
+			}
+
+			Sentence sentence = new Sentence(id, tokens, text);
+			if (readVarint() != 0) {
+				sentence.setDependencies(readDependencies());
+			}
+
+			int numQuotes = readVarint();
+			for (int i = 0; i < numQuotes; i++) {
+				String quoteKey = readString();
+				sentence.addQuote(quoteKey, readSentences());
+			}
+			return sentence;
+		}
+
+		private SemanticGraph readDependencies() throws IOException {
+			SemanticGraph dependencies = new SemanticGraph();
+
+			int numVertices = readVarint();
+			IndexedWord[] vertices = new IndexedWord[numVertices];
+			int previousEnd = 0;
+			for (int i = 0; i < numVertices; i++) {
+				CoreLabel label = new CoreLabel();
+				label.setIndex(readVarint());
+				int copyCount = readVarint();
+				label.setSentIndex(readSignedVarint());
+				label.setWord(readString());
+				label.setValue(readString());
+				label.setLemma(readString());
+				label.setTag(readString());
+				int beginPosition = previousEnd + readSignedVarint();
+				int endPosition = beginPosition + readSignedVarint();
+				label.setBeginPosition(beginPosition);
+				label.setEndPosition(endPosition);
+				previousEnd = endPosition;
+
+				IndexedWord vertex = new IndexedWord(label);
+				if (copyCount > 0) {
+					vertex.setCopyCount(copyCount);
+				}
+				vertices[i] = vertex;
+				dependencies.addVertex(vertex);
+			}
+
+			int numRoots = readVarint();
+			for (int i = 0; i < numRoots; i++) {
+				dependencies.addRoot(getVertex(vertices, readVarint()));
+			}
+
+			int numEdges = readVarint();
+			for (int i = 0; i < numEdges; i++) {
+				IndexedWord governor = getVertex(vertices, readVarint());
+				IndexedWord dependent = getVertex(vertices, readVarint());
+				Language language = Language.valueOf(readString());
+				GrammaticalRelation relation = GrammaticalRelation.valueOf(language, readString());
+
+				int flags = readVarint();
+				double weight = DEFAULT_WEIGHT;
+				if ((flags & WEIGHTED_EDGE) != 0) {
+					long bits = ((long) readFixedInt() << 32) | (readFixedInt() & 0xFFFFFFFFL);
+					weight = Double.longBitsToDouble(bits);
+				}
+				dependencies.addEdge(governor, dependent, relation, weight, (flags & EXTRA_EDGE) != 0);
+			}
+			return dependencies;
+		}
+
+		private IndexedWord getVertex(IndexedWord[] vertices, int ordinal) throws IOException {
+			if (ordinal >= vertices.length) {
+				throw new IOException("Corrupted sentence stream, unknown vertex: " + ordinal);
+			}
+			return vertices[ordinal];
+		}
+
+		private String readString() throws IOException {
+			int code = readVarint();
+			switch (code) {
+			case NULL_STRING:
+				return null;
+			case LITERAL:
+				return readBytes();
+			case NEW_STRING:
+				String string = readBytes();
+				dictionary.add(string);
+				return string;
+			default:
+				int id = code - STRING_ID_BASE;
+				if (id >= dictionary.size()) {
+					throw new IOException("Corrupted sentence stream, unknown string: " + id);
+				}
+				return dictionary.get(id);
+			}
+		}
+
+		private String readBytes() throws IOException {
+			byte[] bytes = new byte[readVarint()];
+			int read = 0;
+			while (read < bytes.length) {
+				int n = in.read(bytes, read, bytes.length - read);
+				if (n == -1) {
+					throw new EOFException();
+				}
+				read += n;
+			}
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		private int readSignedVarint() throws IOException {
+			int value = readVarint();
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+		private int readVarint() throws IOException {
+			int value = 0;
+			for (int shift = 0; shift < 35; shift += 7) {
+				int b = readByte();
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new IOException("Corrupted sentence stream, malformed varint");
+		}
+
+		private int readFixedInt() throws IOException {
+			return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+		}
+
+		private int readByte() throws IOException {
+			int b = in.read();
+			if (b == -1) {
+				throw new EOFException();
+			}
+			return b;
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+package seers.textanalyzer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.ling.CoreAnnotations.CharacterOffsetBeginAnnotation;
+import edu.stanford.nlp.ling.CoreAnnotations.SentencesAnnotation;
+import edu.stanford.nlp.ling.CoreAnnotations.TokensAnnotation;
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.semgraph.SemanticGraphCoreAnnotations.EnhancedPlusPlusDependenciesAnnotation;
+import edu.stanford.nlp.util.CoreMap;
+import seers.textanalyzer.MetricsListener.Stage;
+import seers.textanalyzer.entity.Sentence;
+
+/**
+ * Iterates over the sentences of a (possibly huge) text, reading and annotating
+ * it in chunks of about {@code chunkSize} characters.
+ * <p>
+ * The last sentence of every chunk may be incomplete, so it is carried over
+ * and annotated again with the next chunk. A sentence longer than
+ * {@value #MAX_CHUNK_FACTOR} chunks is emitted as split by the chunk boundary.
+ * The token positions are relative to the beginning of the whole text, and the
+ * sentence ids are consecutive across chunks.
+ */
+public class SentenceIterator implements Iterator<Sentence>, Closeable {
+
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+	public static final int MAX_CHUNK_FACTOR = 4;
+
+	private final Reader reader;
+	private final Set<TokenField> fields;
+	private final boolean checkForIdentifiers;
+	private final int chunkSize;
+
+	private final char[] readBuffer;
+	private final StringBuilder chunk;
+	private int chunkOffset;
+	private boolean endOfText;
+
+	private final ArrayDeque<Sentence> pendingSentences;
+	private int nextId;
+
+	public SentenceIterator(Reader reader, Set<TokenField> fields, boolean checkForIdentifiers) {
+		this(reader, fields, checkForIdentifiers, DEFAULT_CHUNK_SIZE);
+	}
+
+	public SentenceIterator(Reader reader, Set<TokenField> fields, boolean checkForIdentifiers, int chunkSize) {
+		if (reader == null || fields == null) {
+			throw new NullPointerException();
+		}
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("The chunk size should be greater than 0");
+		}
+		this.reader = reader;
+		this.fields = fields;
+		this.checkForIdentifiers = checkForIdentifiers;
+		this.chunkSize = chunkSize;
+
+		readBuffer = new char[Math.min(chunkSize, 8192)];
+		chunk = new StringBuilder();
+		pendingSentences = new ArrayDeque<>();
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (pendingSentences.isEmpty() && (!endOfText || chunk.length() > 0)) {
+			processNextChunk();
+		}
+		return !pendingSentences.isEmpty();
+	}
+
+	@Override
+	public Sentence next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return pendingSentences.poll();
+	}
+
+	private void processNextChunk() {
+		fillChunk(chunk.length() + chunkSize);
+
+		Annotation document = new Annotation(chunk.toString());
+		long start = Metrics.start();
+		TextProcessor.getPipelinePool(fields).annotate(document);
+		Metrics.stageCompleted(Stage.ANNOTATE, start);
+		List<CoreMap> sentences = document.get(SentencesAnnotation.class);
+
+		// the only sentence may be incomplete, it is split only if it is too long
+		boolean emitAll = endOfText
+				|| (sentences.size() <= 1 && chunk.length() >= chunkSize * MAX_CHUNK_FACTOR);
+		if (!emitAll && sentences.size() <= 1) {
+			// the next pass reads more
+			return;
+		}
+
+		int numSentences = emitAll ? sentences.size() : sentences.size() - 1;
+		for (int i = 0; i < numSentences; i++) {
+			pendingSentences.add(parseSentence(sentences.get(i)));
+		}
+
+		int consumed = emitAll ? chunk.length()
+				: sentences.get(numSentences).get(CharacterOffsetBeginAnnotation.class);
+		chunk.delete(0, consumed);
+		chunkOffset += consumed;
+	}
+
+	private Sentence parseSentence(CoreMap sentence) {
+		List<CoreLabel> tokenList = sentence.get(TokensAnnotation.class);
+
+		String sentenceText = sentence.get(CoreAnnotations.TextAnnotation.class);
+		Sentence parsedSentence = new Sentence(String.valueOf(nextId++), sentenceText);
+
+		TextProcessor.addParsedTokens(parsedSentence, tokenList, checkForIdentifiers, chunkOffset);
+
+		if (fields.contains(TokenField.DEPENDENCIES)) {
+			parsedSentence.setDependencies(sentence.get(EnhancedPlusPlusDependenciesAnnotation.class));
+		}
+		return parsedSentence;
+	}
+
+	private void fillChunk(int length) {
+		try {
+			while (!endOfText && chunk.length() < length) {
+				int read = reader.read(readBuffer, 0, Math.min(readBuffer.length, length - chunk.length()));
+				if (read == -1) {
+					endOfText = true;
+				} else {
+					chunk.append(readBuffer, 0, read);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+}
@@ -0,0 +1,199 @@
+package seers.textanalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Compiled list of stop words, with constant-time, case-insensitive lookup.
+ * <p>
+ * An entry is either a lemma (e.g., "the") or a lemma and a POS tag separated
+ * by {@value #POS_SEPARATOR} (e.g., "like$$VB"). The latter only matches the
+ * lemma when it has that tag or that general tag (see
+ * {@link TextProcessor#getGeneralPos(String)}).
+ * <p>
+ * Being a list of the entries, it can be passed to any method that takes the
+ * stop words as a {@code List<String>}, and modified like one (e.g., to add
+ * the stop words of a domain), which updates the lookup. It is not
+ * thread-safe: it should not be modified while it is being used. The lemmas
+ * are looked up with {@link #isStopWord(String, String)}.
+ */
+public class StopWords extends AbstractList<String> implements RandomAccess {
+
+	public static final String POS_SEPARATOR = "$$";
+
+	private final List<String> entries;
+	private final Set<String> entrySet;
+	private final Set<String> lemmas;
+	private final Map<String, Set<String>> lemmasWithPos;
+	private int version;
+
+	private StopWords(List<String> entries) {
+		this.entries = entries;
+		this.entrySet = new HashSet<>();
+		this.lemmas = new HashSet<>();
+		this.lemmasWithPos = new HashMap<>();
+		reindex();
+	}
+
+	private void index(String entry) {
+		entrySet.add(entry);
+
+		String lowerEntry = entry.toLowerCase();
+		int sepIdx = lowerEntry.indexOf(POS_SEPARATOR);
+		if (sepIdx == -1) {
+			lemmas.add(lowerEntry);
+			return;
+		}
+
+		String lemma = lowerEntry.substring(0, sepIdx);
+		String pos = lowerEntry.substring(sepIdx + POS_SEPARATOR.length()).toUpperCase();
+		lemmasWithPos.computeIfAbsent(lemma, l -> new HashSet<>()).add(pos);
+	}
+
+	/**
+	 * Rebuilds the lookup after an entry is replaced or removed, which is rare
+	 */
+	private void reindex() {
+		entrySet.clear();
+		lemmas.clear();
+		lemmasWithPos.clear();
+		for (String entry : entries) {
+			index(entry);
+		}
+	}
+
+	/**
+	 * Compiles the stop words, which are trimmed and lower-cased
+	 *
+	 * @param stopWords
+	 * @return
+	 */
+	public static StopWords of(Collection<String> stopWords) {
+		if (stopWords instanceof StopWords) {
+			return (StopWords) stopWords;
+		}
+
+		List<String> entries = new ArrayList<>(stopWords.size());
+		for (String stopWord : stopWords) {
+			entries.add(stopWord.trim().toLowerCase());
+		}
+		return new StopWords(entries);
+	}
+
+	/**
+	 * Reads the stop words from a file, one entry per line, trimmed and
+	 * lower-cased
+	 *
+	 * @param stopWordsPath
+	 * @return
+	 * @throws IOException
+	 */
+	public static StopWords read(String stopWordsPath) throws IOException {
+		List<String> lines = FileUtils.readLines(new File(stopWordsPath), Charset.defaultCharset());
+		return of(lines);
+	}
+
+	/**
+	 * Checks whether the entry is in the list, in constant time
+	 */
+	@Override
+	public boolean contains(Object o) {
+		return entrySet.contains(o);
+	}
+
+	/**
+	 * @param lemma
+	 *            in any case
+	 * @param pos
+	 *            null to match only the entries without POS tag
+	 * @return
+	 */
+	public boolean isStopWord(String lemma, String pos) {
+		String lowerLemma = lemma.toLowerCase();
+		if (lemmas.contains(lowerLemma)) {
+			return true;
+		}
+
+		if (pos == null || lemmasWithPos.isEmpty()) {
+			return false;
+		}
+
+		Set<String> tags = lemmasWithPos.get(lowerLemma);
+		if (tags == null) {
+			return false;
+		}
+		return tags.contains(pos) || tags.contains(TextProcessor.getGeneralPos(pos));
+	}
+
+	@Override
+	public String get(int index) {
+		return entries.get(index);
+	}
+
+	@Override
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Adds the entry as is, it is lower-cased only for the lookup
+	 */
+	@Override
+	public void add(int index, String element) {
+		if (element == null) {
+			throw new NullPointerException();
+		}
+		entries.add(index, element);
+		index(element);
+		modCount++;
+		version++;
+	}
+
+	@Override
+	public String set(int index, String element) {
+		if (element == null) {
+			throw new NullPointerException();
+		}
+		String previous = entries.set(index, element);
+		reindex();
+		version++;
+		return previous;
+	}
+
+	@Override
+	public String remove(int index) {
+		String previous = entries.remove(index);
+		reindex();
+		modCount++;
+		version++;
+		return previous;
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		entries.subList(fromIndex, toIndex).clear();
+		reindex();
+		modCount++;
+		version++;
+	}
+
+	/**
+	 * @return a number that changes whenever the entries change
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+}
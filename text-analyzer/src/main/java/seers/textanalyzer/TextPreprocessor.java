@@ -82,24 +82,16 @@ public class TextPreprocessor {
 	}
 
 	public static List<String> removeStopWords(List<String> tokens, List<String> stopWords) {
+		StopWords stopWordSet = StopWords.of(stopWords);
 		List<String> validTokens = new ArrayList<>();
 		for (String token : tokens) {
-			if (!isStopWord(token, stopWords)) {
+			if (!stopWordSet.isStopWord(token, null)) {
 				validTokens.add(token);
 			}
 		}
 		return validTokens;
 	}
 
-	private static boolean isStopWord(String token, List<String> stopWords) {
-		for (String stopWord : stopWords) {
-			if (stopWord.equalsIgnoreCase(token)) {
-				return true;
-			}
-		}
-		return false;
-	}
-
 	public static List<String> toLowerCase(List<String> tokens) {
 		List<String> validTokens = new ArrayList<>();
 		for (String token : tokens) {
@@ -1,22 +1,31 @@
 package seers.textanalyzer;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import org.apache.commons.cli.ParseException;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import edu.stanford.nlp.ling.CoreAnnotations;
@@ -27,13 +36,14 @@ import edu.stanford.nlp.ling.CoreAnnotations.TextAnnotation;
 import edu.stanford.nlp.ling.CoreAnnotations.TokensAnnotation;
 import edu.stanford.nlp.ling.CoreLabel;
 import edu.stanford.nlp.pipeline.Annotation;
-import edu.stanford.nlp.pipeline.StanfordCoreNLP;
 import edu.stanford.nlp.semgraph.SemanticGraph;
 import edu.stanford.nlp.semgraph.SemanticGraphCoreAnnotations.EnhancedPlusPlusDependenciesAnnotation;
+import edu.stanford.nlp.util.ArrayCoreMap;
 import edu.stanford.nlp.util.CoreMap;
-import seers.appcore.utils.ExceptionUtils;
+import seers.textanalyzer.MetricsListener.Stage;
 import seers.textanalyzer.QuoteProcessor.Quotes;
 import seers.textanalyzer.entity.Sentence;
+import seers.textanalyzer.entity.StringDictionary;
 import seers.textanalyzer.entity.Token;
 
 /**
@@ -41,21 +51,28 @@ import seers.textanalyzer.entity.Token;
  */
 public class TextProcessor {
 
-    private static StanfordCoreNLP defaultPipeline;
-    private static StanfordCoreNLP fullPipeline;
+    public static final String DEFAULT_ANNOTATORS = "tokenize, ssplit, pos, lemma";
+    public static final String FULL_ANNOTATORS = "tokenize, ssplit, pos, lemma, depparse";
+    public static final String TOKENIZE_ANNOTATORS = "tokenize, ssplit";
+
+    private static PipelinePool defaultPipeline;
+    private static PipelinePool fullPipeline;
+    private static PipelinePool tokenizePipeline;
+    private static PipelinePool camelCaseTokenizer;
+    private static PipelinePool camelCaseTagger;
+
+    private static volatile AnnotationCache annotationCache = AnnotationCache.fromSystemProperties();
+    private static volatile ResultCache resultCache = ResultCache.fromSystemProperties();
 
     private synchronized static void initFullPipeline() {
 
         if (fullPipeline != null) {
             return;
         }
-        Properties props2 = new Properties();
-        props2.setProperty("annotators", "tokenize, ssplit, pos, lemma, depparse");
         // props2.setProperty("annotators", "tokenize, ssplit, pos, lemma,
         // depparse, ner, mention, coref");
         // props2.setProperty("coref.algorithm", "statistical");
-        props2.setProperty("tokenize.options", "untokenizable=noneKeep,invertible=true");
-        fullPipeline = new StanfordCoreNLP(props2);
+        fullPipeline = new PipelinePool(PipelinePool.createProperties(FULL_ANNOTATORS));
     }
 
     private synchronized static void initDefaultPipeline() {
@@ -64,10 +81,204 @@ public class TextProcessor {
             return;
         }
 
-        Properties props = new Properties();
-        props.setProperty("annotators", "tokenize, ssplit, pos, lemma");
-        props.setProperty("tokenize.options", "untokenizable=noneKeep,invertible=true");
-        defaultPipeline = new StanfordCoreNLP(props);
+        defaultPipeline = new PipelinePool(PipelinePool.createProperties(DEFAULT_ANNOTATORS));
+    }
+
+    private synchronized static void initTokenizePipeline() {
+
+        if (tokenizePipeline != null) {
+            return;
+        }
+
+        tokenizePipeline = new PipelinePool(PipelinePool.createProperties(TOKENIZE_ANNOTATORS));
+    }
+
+    /**
+     * Creates the camel-case pipelines with the properties, size and mode of
+     * the default pool, which annotated the split tokens before
+     */
+    private synchronized static void initCamelCasePipelines() {
+
+        if (camelCaseTokenizer != null) {
+            return;
+        }
+
+        PipelinePool pool = getDefaultPipelinePool();
+
+        Properties props = pool.getProperties();
+        props.setProperty("annotators", TOKENIZE_ANNOTATORS);
+        camelCaseTokenizer = new PipelinePool(props, pool.getSize(), pool.getMode(), pool.isSharedModels());
+
+        // runs over already tokenized and split sentences
+        props = pool.getProperties();
+        props.setProperty("annotators", "pos, lemma");
+        props.setProperty("enforceRequirements", "false");
+        camelCaseTagger = new PipelinePool(props, pool.getSize(), pool.getMode(), pool.isSharedModels());
+    }
+
+    private synchronized static PipelinePool getCamelCaseTokenizer() {
+        initCamelCasePipelines();
+        return camelCaseTokenizer;
+    }
+
+    private synchronized static PipelinePool getCamelCaseTagger() {
+        initCamelCasePipelines();
+        return camelCaseTagger;
+    }
+
+    /**
+     * Replaces the pool used by {@link #processText(String, boolean)} and
+     * {@link #preprocessText(String, List, String)}. The pool should load (at
+     * least) the {@link #DEFAULT_ANNOTATORS}. The camel-case splitting uses
+     * pipelines with the same properties, size and mode.
+     *
+     * @param pool
+     */
+    public synchronized static void setDefaultPipelinePool(PipelinePool pool) {
+        defaultPipeline = pool;
+        camelCaseTokenizer = null;
+        camelCaseTagger = null;
+    }
+
+    /**
+     * Replaces the pool used by {@link #processTextFullPipeline(String, boolean)}
+     * and {@link #processTextFullPipelineAndQuotes(String, boolean)}. The pool
+     * should load (at least) the {@link #FULL_ANNOTATORS}.
+     *
+     * @param pool
+     */
+    public synchronized static void setFullPipelinePool(PipelinePool pool) {
+        fullPipeline = pool;
+    }
+
+    /**
+     * Replaces the pool used by {@link #tokenizeText(String)}. The pool should
+     * load (at least) the {@link #TOKENIZE_ANNOTATORS}.
+     *
+     * @param pool
+     */
+    public synchronized static void setTokenizePipelinePool(PipelinePool pool) {
+        tokenizePipeline = pool;
+    }
+
+    /**
+     * Sets the persistent cache of {@link #processText(String, boolean)},
+     * {@link #processText(String, Set)} and
+     * {@link #processTextFullPipeline(String, boolean)}, by default the one
+     * configured with {@link AnnotationCache#DIRECTORY_PROPERTY}, if any.
+     *
+     * @param cache
+     *            null disables the cache
+     */
+    public static void setAnnotationCache(AnnotationCache cache) {
+        annotationCache = cache;
+    }
+
+    public static AnnotationCache getAnnotationCache() {
+        return annotationCache;
+    }
+
+    /**
+     * Sets the in-memory cache of {@link #processText(String, boolean)},
+     * {@link #processText(String, Set)},
+     * {@link #preprocessText(String, List, PreprocessingOptions)} and
+     * {@link #processTextFullPipeline(String, boolean)} (also used for the
+     * quotes), by default the one configured with
+     * {@link ResultCache#MAX_TOKENS_PROPERTY}, if any. It is checked before the
+     * {@link #setAnnotationCache(AnnotationCache) persistent cache}.
+     *
+     * @param cache
+     *            null disables the cache
+     */
+    public static void setResultCache(ResultCache cache) {
+        resultCache = cache;
+    }
+
+    public static ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Sets the listener of the processing metrics (stage timings, processed
+     * documents and cache accesses), by default a {@link PipelineMetrics} if
+     * {@link PipelineMetrics#JMX_PROPERTY} is true.
+     *
+     * @param listener
+     *            null disables the metrics
+     */
+    public static void setMetricsListener(MetricsListener listener) {
+        Metrics.setListener(listener);
+    }
+
+    public static MetricsListener getMetricsListener() {
+        return Metrics.getListener();
+    }
+
+    private static List<Sentence> processCached(String text, Supplier<String> configuration,
+                                                Function<String, List<Sentence>> processor) {
+        ResultCache results = resultCache;
+        AnnotationCache annotations = annotationCache;
+        if (results == null && annotations == null) {
+            return processor.apply(text);
+        }
+
+        String config = configuration.get();
+        Function<String, List<Sentence>> annotator = annotations == null ? processor
+                : t -> annotations.get(t, config, processor);
+        if (results == null) {
+            return annotator.apply(text);
+        }
+        return results.get(text, config, null, annotator);
+    }
+
+    /**
+     * Identifies the results of a processing method: the method, the pipeline
+     * properties (known without loading the pipeline) and the options
+     */
+    private static String getConfiguration(String method, PipelinePool pool, String annotators, Object options) {
+        Properties props = pool != null ? pool.getProperties() : PipelinePool.createProperties(annotators);
+        return method + " " + new TreeMap<>(props) + " " + options;
+    }
+
+    private static String getConfiguration(Set<TokenField> fields) {
+        // sorted, so that the configuration does not depend on the set type
+        Set<TokenField> sortedFields = new TreeSet<>(fields);
+        if (fields.contains(TokenField.DEPENDENCIES)) {
+            return getConfiguration("processTextFields", fullPipeline, FULL_ANNOTATORS, sortedFields);
+        }
+        if (TokenField.needTagging(fields)) {
+            return getConfiguration("processTextFields", defaultPipeline, DEFAULT_ANNOTATORS, sortedFields);
+        }
+        return getConfiguration("processTextFields", tokenizePipeline, TOKENIZE_ANNOTATORS, sortedFields);
+    }
+
+    public synchronized static PipelinePool getTokenizePipelinePool() {
+        initTokenizePipeline();
+        return tokenizePipeline;
+    }
+
+    /**
+     * @param fields
+     * @return the pool with the fewest annotators that fill the given fields
+     */
+    public static PipelinePool getPipelinePool(Set<TokenField> fields) {
+        if (fields.contains(TokenField.DEPENDENCIES)) {
+            return getFullPipelinePool();
+        }
+        if (TokenField.needTagging(fields)) {
+            return getDefaultPipelinePool();
+        }
+        return getTokenizePipelinePool();
+    }
+
+    public synchronized static PipelinePool getDefaultPipelinePool() {
+        initDefaultPipeline();
+        return defaultPipeline;
+    }
+
+    public synchronized static PipelinePool getFullPipelinePool() {
+        initFullPipeline();
+        return fullPipeline;
     }
 
     public static final String[] PARENTHESIS = {"-LCB-", "-RCB-", "-LRB-", "-RRB-", "-LSB-", "-RSB-"};
@@ -128,11 +339,24 @@ public class TextProcessor {
     }
 
     public static List<Sentence> processText(String text, boolean checkForIdentifiers) {
+        long start = Metrics.start();
+        List<Sentence> sentences = processCached(text,
+                () -> getConfiguration("processText", defaultPipeline, DEFAULT_ANNOTATORS, checkForIdentifiers),
+                t -> annotateText(t, checkForIdentifiers));
+        Metrics.documentProcessed(sentences, start);
+        return sentences;
+    }
+
+    private static List<Sentence> annotateText(String text, boolean checkForIdentifiers) {
         initDefaultPipeline();
 
         Annotation document = new Annotation(text);
+        long start = Metrics.start();
         defaultPipeline.annotate(document);
+        Metrics.stageCompleted(Stage.ANNOTATE, start);
 
+        start = Metrics.start();
+        long nestedNanos = 0;
         List<CoreMap> sentences = document.get(SentencesAnnotation.class);
 
         List<Sentence> parsedSentences = new ArrayList<>();
@@ -145,18 +369,115 @@ public class TextProcessor {
             String sentenceText = sentence.get(CoreAnnotations.TextAnnotation.class);
             Sentence parsedSentence = new Sentence(id.toString(), sentenceText);
 
-            for (CoreLabel token : tokenList) {
-                Token parsedToken = parseToken(token, checkForIdentifiers);
+            nestedNanos += addParsedTokens(parsedSentence, tokenList, checkForIdentifiers, 0);
+
+            parsedSentences.add(parsedSentence);
+            id++;
+        }
+        Metrics.stageCompleted(Stage.BUILD, start, nestedNanos);
+
+        return parsedSentences;
+
+    }
+
+    /**
+     * Tokenization and sentence splitting only: the tokens have word, stem and
+     * positions, but no POS or lemma (i.e., null).
+     *
+     * @param text
+     * @return
+     */
+    public static List<Sentence> tokenizeText(String text) {
+        return processText(text, TokenField.SURFACE);
+    }
+
+    /**
+     * Processes the text with the annotators needed for the given fields. The
+     * token fields that were not requested may be null (e.g., POS and lemma
+     * when only {@link TokenField#SURFACE} fields are requested).
+     *
+     * @param text
+     * @param fields
+     * @return
+     */
+    public static List<Sentence> processText(String text, Set<TokenField> fields) {
+        long start = Metrics.start();
+        List<Sentence> sentences = processCached(text, () -> getConfiguration(fields), t -> annotateText(t, fields));
+        Metrics.documentProcessed(sentences, start);
+        return sentences;
+    }
+
+    private static List<Sentence> annotateText(String text, Set<TokenField> fields) {
+        PipelinePool pipeline = getPipelinePool(fields);
+        boolean parse = fields.contains(TokenField.DEPENDENCIES);
+
+        Annotation document = new Annotation(text);
+        long start = Metrics.start();
+        pipeline.annotate(document);
+        Metrics.stageCompleted(Stage.ANNOTATE, start);
+
+        start = Metrics.start();
+        long nestedNanos = 0;
+        List<CoreMap> sentences = document.get(SentencesAnnotation.class);
+
+        List<Sentence> parsedSentences = new ArrayList<>();
+        Integer id = 0;
+
+        for (CoreMap sentence : sentences) {
+
+            List<CoreLabel> tokenList = sentence.get(TokensAnnotation.class);
+
+            String sentenceText = sentence.get(CoreAnnotations.TextAnnotation.class);
+            Sentence parsedSentence = new Sentence(id.toString(), sentenceText);
 
-                parsedSentence.addToken(parsedToken);
+            nestedNanos += addParsedTokens(parsedSentence, tokenList, false, 0);
+
+            if (parse) {
+                parsedSentence.setDependencies(sentence.get(EnhancedPlusPlusDependenciesAnnotation.class));
             }
 
             parsedSentences.add(parsedSentence);
             id++;
         }
+        Metrics.stageCompleted(Stage.BUILD, start, nestedNanos);
 
         return parsedSentences;
+    }
 
+    /**
+     * Streams the sentences of the text, which is read and annotated in chunks
+     * (see {@link SentenceIterator}), with the fields of
+     * {@link #processText(String, boolean)}. Closing the stream closes the
+     * reader.
+     *
+     * @param reader
+     * @param checkForIdentifiers
+     * @return
+     */
+    public static Stream<Sentence> streamText(Reader reader, boolean checkForIdentifiers) {
+        return streamText(reader, TokenField.TAGGED, checkForIdentifiers, SentenceIterator.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param reader
+     * @param fields
+     * @param checkForIdentifiers
+     * @param chunkSize
+     *            approximate number of characters annotated at a time
+     * @return
+     */
+    public static Stream<Sentence> streamText(Reader reader, Set<TokenField> fields, boolean checkForIdentifiers,
+                                              int chunkSize) {
+        SentenceIterator iterator = new SentenceIterator(reader, fields, checkForIdentifiers, chunkSize);
+        Spliterator<Sentence> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                iterator.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
     }
 
     public static List<Sentence> preprocessText(String text, List<String> stopWords) {
@@ -178,24 +499,49 @@ public class TextProcessor {
      * @return
      */
     public static List<Sentence> preprocessText(String text, List<String> stopWords, String preprocessingOptions) {
+        return preprocessText(text, stopWords, PreprocessingOptions.of(preprocessingOptions));
+    }
 
-        List<Sentence> parsedSentences = new ArrayList<>();
-        if (text == null)
-            return parsedSentences;
+    /**
+     * Tokenization + lemmatization + stemming by default
+     *
+     * @param text
+     * @param stopWords
+     * @param options
+     * @return
+     */
+    public static List<Sentence> preprocessText(String text, List<String> stopWords, PreprocessingOptions options) {
 
-        PreprocessingOptionsParser parser;
-        try {
-            parser = new PreprocessingOptionsParser(preprocessingOptions);
-        } catch (ParseException e) {
-            throw ExceptionUtils.getRuntimeException(e);
+        if (text == null)
+            return new ArrayList<>();
+
+        long start = Metrics.start();
+        List<Sentence> sentences;
+        // the stop words are not hashed, so this is not persistently cached
+        ResultCache results = resultCache;
+        if (results == null) {
+            sentences = annotateAndPreprocess(text, stopWords, options);
+        } else {
+            String configuration = getConfiguration("preprocessText", defaultPipeline, DEFAULT_ANNOTATORS, options);
+            sentences = results.get(text, configuration, stopWords, t -> annotateAndPreprocess(t, stopWords, options));
         }
+        Metrics.documentProcessed(sentences, start);
+        return sentences;
+    }
 
-        // -------------------------
+    private static List<Sentence> annotateAndPreprocess(String text, List<String> stopWords,
+                                                        PreprocessingOptions options) {
+        List<Sentence> parsedSentences = new ArrayList<>();
 
         initDefaultPipeline();
 
         Annotation document = new Annotation(text);
+        long start = Metrics.start();
         defaultPipeline.annotate(document);
+        Metrics.stageCompleted(Stage.ANNOTATE, start);
+
+        start = Metrics.start();
+        long nestedNanos = 0;
         List<CoreMap> sentences = document.get(SentencesAnnotation.class);
 
         Integer id = 0;
@@ -207,14 +553,12 @@ public class TextProcessor {
             String sentenceText = sentence.get(CoreAnnotations.TextAnnotation.class);
             Sentence parsedSentence = new Sentence(id.toString(), sentenceText);
 
-            for (CoreLabel token : tokenList) {
-
-                if (parser.splitCamelCase()) {
-                    splitCamelCaseAndAddTokens(parser, stopWords, parsedSentence, token);
-                } else {
-                    addToken(parser, stopWords, parsedSentence, token);
-                }
+            if (options.splitCamelCase()) {
+                long camelCaseStart = Metrics.start();
+                tokenList = splitCamelCase(tokenList);
+                nestedNanos += Metrics.stageCompleted(Stage.CAMEL_CASE, camelCaseStart);
             }
+            nestedNanos += addTokens(options, stopWords, parsedSentence, tokenList);
 
             if (parsedSentence.isEmpty()) {
                 continue;
@@ -223,28 +567,181 @@ public class TextProcessor {
             parsedSentences.add(parsedSentence);
             id++;
         }
+        Metrics.stageCompleted(Stage.BUILD, start, nestedNanos);
 
         return parsedSentences;
 
     }
 
-    private static void splitCamelCaseAndAddTokens(PreprocessingOptionsParser parser, List<String> stopWords,
-                                                   Sentence parsedSentence, CoreLabel token) {
+    /**
+     * Id-based counterpart of
+     * {@link #preprocessText(String, List, PreprocessingOptions)}, for corpora
+     * processed into id sequences: the ids of a field of the preprocessed
+     * tokens of all the sentences, in order, as
+     * {@link Vocabulary#getIdsFromSentences(TokenField, List)} would give for
+     * the sentences. No tokens or sentences are created, and the tokens are
+     * stemmed only for the {@link TokenField#STEM} ids. The result cache is
+     * not used.
+     *
+     * @param text
+     * @param stopWords
+     * @param options
+     * @param vocabulary
+     *            new terms get their ids in it
+     * @param field
+     *            one of WORD, STEM, LEMMA or POS
+     * @return
+     */
+    public static int[] preprocessTextToIds(String text, List<String> stopWords, PreprocessingOptions options,
+                                            Vocabulary vocabulary, TokenField field) {
+        StringDictionary dictionary = vocabulary.getDictionary(field);
+        if (text == null) {
+            return new int[0];
+        }
 
-        String word = token.get(TextAnnotation.class);
-        String tokenCC = splitByCharacterTypeCamelCase(word);
+        long documentStart = Metrics.start();
+        PipelinePool pipeline = getDefaultPipelinePool();
 
-        Annotation tokenAnnot = new Annotation(tokenCC);
-        defaultPipeline.annotate(tokenAnnot);
+        Annotation document = new Annotation(text);
+        long start = Metrics.start();
+        pipeline.annotate(document);
+        Metrics.stageCompleted(Stage.ANNOTATE, start);
 
-        List<CoreMap> sentences = tokenAnnot.get(SentencesAnnotation.class);
+        start = Metrics.start();
+        long nestedNanos = 0;
+        List<CoreMap> sentences = document.get(SentencesAnnotation.class);
+
+        int[] ids = new int[document.get(TokensAnnotation.class).size()];
+        int size = 0;
+        int numSentences = 0;
         for (CoreMap sentence : sentences) {
 
             List<CoreLabel> tokenList = sentence.get(TokensAnnotation.class);
-            for (CoreLabel newToken : tokenList) {
-                addToken(parser, stopWords, parsedSentence, newToken);
+            if (options.splitCamelCase()) {
+                long camelCaseStart = Metrics.start();
+                tokenList = splitCamelCase(tokenList);
+                nestedNanos += Metrics.stageCompleted(Stage.CAMEL_CASE, camelCaseStart);
+            }
+
+            long filterStart = Metrics.start();
+            List<CoreLabel> keptTokens = filterTokens(options, stopWords, tokenList);
+            nestedNanos += Metrics.stageCompleted(Stage.FILTER, filterStart);
+            if (keptTokens.isEmpty()) {
+                continue;
+            }
+
+            if (size + keptTokens.size() > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(2 * ids.length, size + keptTokens.size()));
+            }
+            long stemStart = field == TokenField.STEM ? Metrics.start() : 0;
+            for (CoreLabel token : keptTokens) {
+                ids[size++] = dictionary.getId(getValue(field, token));
+            }
+            if (field == TokenField.STEM) {
+                nestedNanos += Metrics.stageCompleted(Stage.STEM, stemStart);
+            }
+            numSentences++;
+        }
+        Metrics.stageCompleted(Stage.BUILD, start, nestedNanos);
+
+        Metrics.documentProcessed(numSentences, size, documentStart);
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * @param field
+     * @param token
+     * @return the value of the field, as in the tokens of
+     *         {@link #preprocessText(String, List, PreprocessingOptions)}
+     */
+    private static String getValue(TokenField field, CoreLabel token) {
+        switch (field) {
+        case WORD:
+            return token.get(TextAnnotation.class);
+        case STEM:
+            return stem(token.get(TextAnnotation.class));
+        case LEMMA:
+            return token.get(LemmaAnnotation.class).toLowerCase();
+        case POS:
+            return token.get(PartOfSpeechAnnotation.class);
+        default:
+            throw new IllegalArgumentException("The vocabulary has no " + field + " ids");
+        }
+    }
+
+    /**
+     * Splits every token of the sentence in camel case and annotates the
+     * resulting sub-tokens.
+     * <p>
+     * Each split token is tokenized on its own, as before, but the POS tagger
+     * and lemmatizer run once for all the sub-tokens of the sentence. The
+     * positions of the sub-tokens are relative to their split token. A
+     * letter-or-digit token that is not split is not tokenized again, as the
+     * tokenizer would give it back as is.
+     *
+     * @return the annotated sub-tokens
+     */
+    private static List<CoreLabel> splitCamelCase(List<CoreLabel> tokenList) {
+
+        PipelinePool tokenizer = getCamelCaseTokenizer();
+        PipelinePool tagger = getCamelCaseTagger();
+
+        List<CoreMap> sentences = new ArrayList<>();
+        List<CoreLabel> newTokens = new ArrayList<>();
+        for (CoreLabel token : tokenList) {
+
+            String word = token.get(TextAnnotation.class);
+            String tokenCC = splitByCharacterTypeCamelCase(word);
+
+            if (tokenCC.equals(word) && StringUtils.isAlphanumeric(word)) {
+                CoreMap tokenSentence = createTokenSentence(word);
+                sentences.add(tokenSentence);
+                newTokens.addAll(tokenSentence.get(TokensAnnotation.class));
+                continue;
             }
+
+            Annotation tokenAnnot = new Annotation(tokenCC);
+            tokenizer.annotate(tokenAnnot);
+
+            sentences.addAll(tokenAnnot.get(SentencesAnnotation.class));
+            newTokens.addAll(tokenAnnot.get(TokensAnnotation.class));
         }
+
+        Annotation tokensAnnot = new Annotation("");
+        tokensAnnot.set(SentencesAnnotation.class, sentences);
+        tokensAnnot.set(TokensAnnotation.class, newTokens);
+        tagger.annotate(tokensAnnot);
+        return newTokens;
+    }
+
+    /**
+     * @return the sentence (and token) that the tokenizer would give for the
+     *         word alone
+     */
+    private static CoreMap createTokenSentence(String word) {
+        CoreLabel token = new CoreLabel();
+        token.setWord(word);
+        token.setValue(word);
+        token.setOriginalText(word);
+        token.setBefore("");
+        token.setAfter("");
+        token.setBeginPosition(0);
+        token.setEndPosition(word.length());
+        token.setIndex(1);
+        token.setSentIndex(0);
+
+        List<CoreLabel> tokens = new ArrayList<>(1);
+        tokens.add(token);
+
+        CoreMap sentence = new ArrayCoreMap();
+        sentence.set(TextAnnotation.class, word);
+        sentence.set(CoreAnnotations.CharacterOffsetBeginAnnotation.class, 0);
+        sentence.set(CoreAnnotations.CharacterOffsetEndAnnotation.class, word.length());
+        sentence.set(TokensAnnotation.class, tokens);
+        sentence.set(CoreAnnotations.TokenBeginAnnotation.class, 0);
+        sentence.set(CoreAnnotations.TokenEndAnnotation.class, 1);
+        sentence.set(CoreAnnotations.SentenceIndexAnnotation.class, 0);
+        return sentence;
     }
 
     public static String splitByCharacterTypeCamelCase(String word) {
@@ -253,48 +750,89 @@ public class TextProcessor {
         return tokenCC;
     }
 
-    private static void addToken(PreprocessingOptionsParser parser, List<String> stopWords, Sentence parsedSentence,
-                                 CoreLabel token) {
-        String word = token.get(TextAnnotation.class);
-        String lemma = token.get(LemmaAnnotation.class).toLowerCase();
-        String pos = token.get(PartOfSpeechAnnotation.class);
+    /**
+     * Filters the tokens of a sentence and adds the rest, stemmed. The filters
+     * and the stemming are timed once per sentence.
+     *
+     * @return the duration of the filter and stem stages
+     */
+    private static long addTokens(PreprocessingOptions options, List<String> stopWords, Sentence parsedSentence,
+                                  List<CoreLabel> tokens) {
+        long start = Metrics.start();
+        List<CoreLabel> keptTokens = filterTokens(options, stopWords, tokens);
+        long nanos = Metrics.stageCompleted(Stage.FILTER, start);
+
+        start = Metrics.start();
+        String[] stems = new String[keptTokens.size()];
+        for (int i = 0; i < stems.length; i++) {
+            stems[i] = stem(keptTokens.get(i).get(TextAnnotation.class));
+        }
+        nanos += Metrics.stageCompleted(Stage.STEM, start);
+
+        for (int i = 0; i < stems.length; i++) {
+            CoreLabel token = keptTokens.get(i);
+            String word = token.get(TextAnnotation.class);
+            String lemma = token.get(LemmaAnnotation.class).toLowerCase();
+            String pos = token.get(PartOfSpeechAnnotation.class);
+            String generalPos = getGeneralPos(pos);
+
+            final int beginPosition = token.beginPosition();
+            final int endPosition = token.endPosition();
 
-        if (parser.removePunctuation()) {
+            Token parsedToken = new Token(word, generalPos, pos, lemma, stems[i], beginPosition, endPosition,
+                    token.index());
+            parsedSentence.addToken(parsedToken);
+        }
+        return nanos;
+    }
+
+    private static List<CoreLabel> filterTokens(PreprocessingOptions options, List<String> stopWords,
+                                                List<CoreLabel> tokens) {
+        List<CoreLabel> keptTokens = new ArrayList<>(tokens.size());
+        for (CoreLabel token : tokens) {
+            String lemma = token.get(LemmaAnnotation.class).toLowerCase();
+            if (!isFiltered(options, stopWords, lemma, token.get(PartOfSpeechAnnotation.class))) {
+                keptTokens.add(token);
+            }
+        }
+        return keptTokens;
+    }
+
+    private static String stem(String word) {
+        return GeneralStemmer.stemmingPorter(word).toLowerCase();
+    }
+
+    private static boolean isFiltered(PreprocessingOptions options, List<String> stopWords, String lemma,
+                                      String pos) {
+        if (options.removePunctuation()) {
             if (isPunctuation(lemma)) {
-                return;
+                return true;
             }
 
             if (matchesPOS(pos, "LS")) {
-                return;
+                return true;
             }
         }
 
-        if (parser.removeNumbers() && isNumber(lemma)) {
-            return;
+        if (options.removeNumbers() && isNumber(lemma)) {
+            return true;
         }
 
-        if (parser.removeShortTokens() && isShortTerm(lemma, pos, parser.getTokenMinLength())) {
-            return;
+        if (options.removeShortTokens() && isShortTerm(lemma, pos, options.getTokenMinLength())) {
+            return true;
         }
 
-        if (parser.removeSpecialCharTokens() && isSpecialChar(lemma)
+        if (options.removeSpecialCharTokens() && isSpecialChar(lemma)
             //containsSpecialChars(lemma, pos)
                 ) {
-            return;
+            return true;
         }
 
         if (stopWords != null && stopWords.size() > 0 && isStopWord(stopWords, lemma, pos)) {
-            return;
+            return true;
         }
 
-        String generalPos = getGeneralPos(pos);
-        String stem = GeneralStemmer.stemmingPorter(word).toLowerCase();
-
-        final int beginPosition = token.beginPosition();
-        final int endPosition = token.endPosition();
-
-        Token parsedToken = new Token(word, generalPos, pos, lemma, stem, beginPosition, endPosition, token.index());
-        parsedSentence.addToken(parsedToken);
+        return false;
     }
 
     public static boolean isShortTerm(String lemma, String pos, int length) {
@@ -309,6 +847,9 @@ public class TextProcessor {
     }
 
     public static boolean isStopWord(List<String> stopWords, String lemma, String pos) {
+        if (stopWords instanceof StopWords) {
+            return ((StopWords) stopWords).isStopWord(lemma, pos);
+        }
         return stopWords.contains(lemma);
     }
 
@@ -362,44 +903,48 @@ public class TextProcessor {
         return b;
     }
 
+    /**
+     * Checks whether the string has special characters, in the sense that
+     * {@code str.split("[^a-zA-Z0-9]").length != 1}
+     *
+     * @param str
+     * @return
+     */
     public static boolean isSpecialChar(String str) {
-        String[] split = str.split("[^a-zA-Z0-9]");
-        boolean b = split.length != 1;
-        return b;
+        return TokenScanner.hasSpecialCharSplit(str);
     }
 
+    /**
+     * Checks whether the token is a sequence of integers separated by spaces
+     * (e.g., "4544 456454") or can be parsed with {@link Double#valueOf(String)}
+     *
+     * @param token
+     * @return
+     */
     public static boolean isNumber(String token) {
-        boolean isInt = token.matches("\\d+((\\h|\\s)+\\d+)+");
-        if (isInt) {
-            return true;
-        }
-
-        try {
-            Double.valueOf(token);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
-
+        return TokenScanner.isDigitGroups(token) || TokenScanner.isJavaDouble(token);
     }
 
+    /**
+     * Checks whether the token is a single punctuation mark or symbol, or a
+     * parenthesis (see {@link #isParenthesis(String)})
+     *
+     * @param token
+     * @return
+     */
     public static boolean isPunctuation(String token) {
-        return token.matches("[\\p{P}\\p{S}]") || isParenthesis(token);
+        return TokenScanner.isPunctuationOrSymbol(token) || isParenthesis(token);
     }
 
+    /**
+     * Checks, ignoring case, whether the token contains one of
+     * {@link #PARENTHESIS} or is one of {@link #PARENTHESIS2}
+     *
+     * @param token
+     * @return
+     */
     public static boolean isParenthesis(String token) {
-        for (String parenthesis : PARENTHESIS) {
-            if (token.toLowerCase().contains(parenthesis.toLowerCase())) {
-                return true;
-            }
-        }
-
-        for (String parenthesis : PARENTHESIS2) {
-            if (token.toLowerCase().equals(parenthesis.toLowerCase())) {
-                return true;
-            }
-        }
-        return false;
+        return TokenScanner.isBracketToken(token);
     }
 
     public static String getStringFromSentences(List<Sentence> sentences) {
@@ -457,13 +1002,18 @@ public class TextProcessor {
 
     }
 
-    public static List<String> readStopWords(String stopWordsPath) throws IOException {
-        List<String> lines = FileUtils.readLines(new File(stopWordsPath), Charset.defaultCharset());
-        List<String> stopWords = new ArrayList<>();
-        for (String line : lines) {
-            stopWords.add(line.trim().toLowerCase());
-        }
-        return stopWords;
+    /**
+     * Reads the stop words, one per line, trimmed and lower-cased. The list can
+     * be modified, and passed as is to
+     * {@link #preprocessText(String, List, String)} and alike, which look up
+     * the lemmas in constant time.
+     *
+     * @param stopWordsPath
+     * @return
+     * @throws IOException
+     */
+    public static StopWords readStopWords(String stopWordsPath) throws IOException {
+        return StopWords.read(stopWordsPath);
     }
 
     public static String getStringFromLemmas(Sentence sentence) {
@@ -485,63 +1035,109 @@ public class TextProcessor {
         return buffer.toString().trim();
     }
 
+    /**
+     * Processes the text with the full pipeline, replacing the quotes with
+     * keys (see {@link QuoteProcessor}). Every sentence has all the quotes of
+     * its text, processed the same way. The distinct texts of the quotes are
+     * processed once, concurrently on the full pipeline pool.
+     *
+     * @param text
+     * @param checkForIdentifiers
+     * @return
+     */
     public static List<Sentence> processTextFullPipelineAndQuotes(String text, boolean checkForIdentifiers) {
 
+        long start = Metrics.start();
         QuoteProcessor processor = new QuoteProcessor();
 
         Quotes quotes = processor.processSentence(text);
 
-        List<Sentence> sentences = processSentencesWithQuotes(quotes, checkForIdentifiers);
+        Map<String, List<Sentence>> processedTexts = new HashMap<>();
+        addTexts(quotes, processedTexts);
+        List<String> texts = new ArrayList<>(processedTexts.keySet());
+        if (texts.size() == 1) {
+            processedTexts.put(quotes.txt, processFullPipeline(quotes.txt, checkForIdentifiers));
+        } else {
+            // the longest texts first, to balance the threads
+            texts.sort(Comparator.comparingInt(String::length).reversed());
+            List<List<Sentence>> results = getFullPipelinePool().map(texts,
+                    t -> processFullPipeline(t, checkForIdentifiers));
+            for (int i = 0; i < texts.size(); i++) {
+                processedTexts.put(texts.get(i), results.get(i));
+            }
+        }
+
+        Set<List<Sentence>> usedSentences = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Sentence> sentences = addQuotes(quotes, processedTexts, usedSentences);
+        Metrics.documentProcessed(sentences, start);
 
         return sentences;
 
     }
 
-    private static List<Sentence> processSentencesWithQuotes(Quotes quotes, boolean checkForIdentifiers) {
-        initFullPipeline();
-
-        String text = quotes.txt;
-        Annotation document = new Annotation(text);
-        fullPipeline.annotate(document);
-        List<CoreMap> sentences = document.get(SentencesAnnotation.class);
-
-        List<Sentence> parsedSentences = new ArrayList<>();
-        Integer id = 0;
-
-        for (CoreMap sentence : sentences) {
-
-            List<CoreLabel> tokenList = sentence.get(TokensAnnotation.class);
+    private static void addTexts(Quotes quotes, Map<String, List<Sentence>> texts) {
+        texts.put(quotes.txt, null);
+        for (Quotes quote : quotes.quotesMap.values()) {
+            addTexts(quote, texts);
+        }
+    }
 
-            String sentenceText = sentence.get(CoreAnnotations.TextAnnotation.class);
-            Sentence parsedSentence = new Sentence(id.toString(), sentenceText);
+    /**
+     * Adds the processed quotes to the sentences of the text, copying the
+     * sentences that are used more than once
+     */
+    private static List<Sentence> addQuotes(Quotes quotes, Map<String, List<Sentence>> processedTexts,
+                                            Set<List<Sentence>> usedSentences) {
 
-            for (CoreLabel token : tokenList) {
-                Token parsedToken = parseToken(token, checkForIdentifiers);
-                parsedSentence.addToken(parsedToken);
-            }
+        List<Sentence> parsedSentences = processedTexts.get(quotes.txt);
+        if (!usedSentences.add(parsedSentences)) {
+            parsedSentences = ResultCache.copy(parsedSentences);
+        }
 
-            SemanticGraph dependencies = sentence.get(EnhancedPlusPlusDependenciesAnnotation.class);
-            parsedSentence.setDependencies(dependencies);
+        if (quotes.quotesMap.isEmpty()) {
+            return parsedSentences;
+        }
 
-            Set<Entry<String, Quotes>> quotesMap = quotes.quotesMap.entrySet();
-            for (Entry<String, Quotes> quote : quotesMap) {
+        Map<String, List<Sentence>> quoteSentences = new LinkedHashMap<>();
+        for (Entry<String, Quotes> quote : quotes.quotesMap.entrySet()) {
+            quoteSentences.put(quote.getKey(), addQuotes(quote.getValue(), processedTexts, usedSentences));
+        }
 
-                List<Sentence> qSentences = processSentencesWithQuotes(quote.getValue(), checkForIdentifiers);
+        for (int i = 0; i < parsedSentences.size(); i++) {
+            Sentence parsedSentence = parsedSentences.get(i);
+            for (Entry<String, List<Sentence>> quote : quoteSentences.entrySet()) {
+                // every sentence has its own copy, as when they were processed per sentence
+                List<Sentence> qSentences = i == 0 ? quote.getValue() : ResultCache.copy(quote.getValue());
                 parsedSentence.addQuote(quote.getKey(), qSentences);
             }
-
-            parsedSentences.add(parsedSentence);
-            id++;
         }
 
         return parsedSentences;
     }
 
     public static List<Sentence> processTextFullPipeline(String text, boolean checkForIdentifiers) {
+        long start = Metrics.start();
+        List<Sentence> sentences = processFullPipeline(text, checkForIdentifiers);
+        Metrics.documentProcessed(sentences, start);
+        return sentences;
+    }
+
+    private static List<Sentence> processFullPipeline(String text, boolean checkForIdentifiers) {
+        return processCached(text,
+                () -> getConfiguration("processTextFullPipeline", fullPipeline, FULL_ANNOTATORS, checkForIdentifiers),
+                t -> annotateFullPipeline(t, checkForIdentifiers));
+    }
+
+    private static List<Sentence> annotateFullPipeline(String text, boolean checkForIdentifiers) {
         initFullPipeline();
 
         Annotation document = new Annotation(text);
+        long start = Metrics.start();
         fullPipeline.annotate(document);
+        Metrics.stageCompleted(Stage.ANNOTATE, start);
+
+        start = Metrics.start();
+        long nestedNanos = 0;
         List<CoreMap> sentences = document.get(SentencesAnnotation.class);
 
         List<Sentence> parsedSentences = new ArrayList<>();
@@ -554,10 +1150,7 @@ public class TextProcessor {
             String sentenceText = sentence.get(CoreAnnotations.TextAnnotation.class);
             Sentence parsedSentence = new Sentence(id.toString(), sentenceText);
 
-            for (CoreLabel token : tokenList) {
-                Token parsedToken = parseToken(token, checkForIdentifiers);
-                parsedSentence.addToken(parsedToken);
-            }
+            nestedNanos += addParsedTokens(parsedSentence, tokenList, checkForIdentifiers, 0);
 
             SemanticGraph dependencies = sentence.get(EnhancedPlusPlusDependenciesAnnotation.class);
             parsedSentence.setDependencies(dependencies);
@@ -581,13 +1174,70 @@ public class TextProcessor {
             parsedSentences.add(parsedSentence);
             id++;
         }
+        Metrics.stageCompleted(Stage.BUILD, start, nestedNanos);
 
         return parsedSentences;
     }
 
+    /**
+     * Builds a token from the CoreNLP one. The lemma and POS are null if the
+     * token was not tagged.
+     *
+     * @param token
+     * @param checkForIdentifiers
+     * @return
+     */
     public static Token parseToken(CoreLabel token, boolean checkForIdentifiers) {
+        return parseToken(token, checkForIdentifiers, 0);
+    }
+
+    /**
+     * @param token
+     * @param checkForIdentifiers
+     * @param positionOffset
+     *            added to the token positions, e.g., the position of the
+     *            annotated chunk in the whole text
+     * @return
+     */
+    public static Token parseToken(CoreLabel token, boolean checkForIdentifiers, int positionOffset) {
+        long start = Metrics.start();
+        String stem = stem(token.get(TextAnnotation.class));
+        Metrics.stageCompleted(Stage.STEM, start);
+        return createToken(token, checkForIdentifiers, positionOffset, stem);
+    }
+
+    /**
+     * Adds the tokens to the sentence (see
+     * {@link #parseToken(CoreLabel, boolean, int)}), stemmed in one stage
+     *
+     * @param parsedSentence
+     * @param tokens
+     * @param checkForIdentifiers
+     * @param positionOffset
+     * @return the duration of the stem stage
+     */
+    static long addParsedTokens(Sentence parsedSentence, List<CoreLabel> tokens, boolean checkForIdentifiers,
+                                int positionOffset) {
+        long start = Metrics.start();
+        String[] stems = new String[tokens.size()];
+        for (int i = 0; i < stems.length; i++) {
+            stems[i] = stem(tokens.get(i).get(TextAnnotation.class));
+        }
+        long nanos = Metrics.stageCompleted(Stage.STEM, start);
+
+        for (int i = 0; i < stems.length; i++) {
+            parsedSentence.addToken(createToken(tokens.get(i), checkForIdentifiers, positionOffset, stems[i]));
+        }
+        return nanos;
+    }
+
+    private static Token createToken(CoreLabel token, boolean checkForIdentifiers, int positionOffset,
+                                     String stem) {
         String word = token.get(TextAnnotation.class);
-        String lemma = token.get(LemmaAnnotation.class).toLowerCase();
+        String lemma = token.get(LemmaAnnotation.class);
+        if (lemma != null) {
+            lemma = lemma.toLowerCase();
+        }
         String pos = token.get(PartOfSpeechAnnotation.class);
         if (checkForIdentifiers) {
             // match identifiers like "org.Class"
@@ -598,9 +1248,8 @@ public class TextProcessor {
         }
 
         String generalPos = getGeneralPos(pos);
-        String stem = GeneralStemmer.stemmingPorter(word).toLowerCase();
-        final int beginPosition = token.beginPosition();
-        final int endPosition = token.endPosition();
+        final int beginPosition = token.beginPosition() + positionOffset;
+        final int endPosition = token.endPosition() + positionOffset;
 
         return new Token(word, generalPos, pos, lemma, stem, beginPosition, endPosition, token.index());
     }
@@ -0,0 +1,31 @@
+package seers.textanalyzer;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Output fields that can be requested from
+ * {@link TextProcessor#processText(String, Set)}, which loads only the
+ * annotators needed to fill them
+ */
+public enum TokenField {
+
+	WORD, STEM, OFFSETS, POS, LEMMA, DEPENDENCIES;
+
+	/**
+	 * Fields that only need tokenization and sentence splitting
+	 */
+	public static final Set<TokenField> SURFACE = Collections.unmodifiableSet(EnumSet.of(WORD, STEM, OFFSETS));
+
+	/**
+	 * Fields filled by {@link TextProcessor#processText(String, boolean)}
+	 */
+	public static final Set<TokenField> TAGGED = Collections
+			.unmodifiableSet(EnumSet.of(WORD, STEM, OFFSETS, POS, LEMMA));
+
+	public static boolean needTagging(Set<TokenField> fields) {
+		return fields.contains(POS) || fields.contains(LEMMA) || fields.contains(DEPENDENCIES);
+	}
+
+}
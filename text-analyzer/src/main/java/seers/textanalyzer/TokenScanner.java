@@ -0,0 +1,292 @@
+package seers.textanalyzer;
+
+/**
+ * Single-pass character scanners behind the token filters of
+ * {@link TextProcessor}. Each method documents the regular expression (or
+ * library call) whose semantics it reproduces.
+ */
+final class TokenScanner {
+
+	private TokenScanner() {
+	}
+
+	/**
+	 * Same as {@code token.matches("\\d+((\\h|\\s)+\\d+)+")}
+	 */
+	static boolean isDigitGroups(String token) {
+		int n = token.length();
+		int i = skipDigits(token, 0);
+		if (i == 0) {
+			return false;
+		}
+
+		int groups = 1;
+		while (i < n) {
+			int wsEnd = i;
+			while (wsEnd < n && isHorizontalOrWhitespace(token.charAt(wsEnd))) {
+				wsEnd++;
+			}
+			int digitsEnd = skipDigits(token, wsEnd);
+			if (wsEnd == i || digitsEnd == wsEnd) {
+				return false;
+			}
+			i = digitsEnd;
+			groups++;
+		}
+		return groups > 1;
+	}
+
+	/**
+	 * Same as {@code Double.valueOf(token)} not throwing a
+	 * {@link NumberFormatException}
+	 */
+	static boolean isJavaDouble(String token) {
+		int n = token.length();
+		int i = 0;
+		// String.trim()
+		while (i < n && token.charAt(i) <= ' ') {
+			i++;
+		}
+		while (n > i && token.charAt(n - 1) <= ' ') {
+			n--;
+		}
+		if (i == n) {
+			return false;
+		}
+
+		char c = token.charAt(i);
+		if (c == '+' || c == '-') {
+			i++;
+		}
+		if (i == n) {
+			return false;
+		}
+
+		c = token.charAt(i);
+		if (c == 'N') {
+			return token.startsWith("NaN", i) && i + 3 == n;
+		}
+		if (c == 'I') {
+			return token.startsWith("Infinity", i) && i + 8 == n;
+		}
+		if (c == '0' && i + 1 < n && (token.charAt(i + 1) == 'x' || token.charAt(i + 1) == 'X')) {
+			return isHexDouble(token, i + 2, n);
+		}
+
+		int intEnd = skipDigits(token, i);
+		int digits = intEnd - i;
+		i = intEnd;
+		if (i < n && token.charAt(i) == '.') {
+			int fracEnd = skipDigits(token, i + 1);
+			digits += fracEnd - i - 1;
+			i = fracEnd;
+		}
+		if (digits == 0) {
+			return false;
+		}
+
+		if (i < n && (token.charAt(i) == 'e' || token.charAt(i) == 'E')) {
+			i = skipExponent(token, i + 1, n);
+			if (i < 0) {
+				return false;
+			}
+		}
+
+		return isEndOrTypeSuffix(token, i, n);
+	}
+
+	/**
+	 * Matches {@code (\p{XDigit}+\.?|\p{XDigit}*\.\p{XDigit}+)[pP][-+]?\d+[fFdD]?}
+	 * on token[i, n), i.e., what follows "0x" in a hexadecimal double
+	 */
+	private static boolean isHexDouble(String token, int i, int n) {
+		int intEnd = skipHexDigits(token, i);
+		int digits = intEnd - i;
+		i = intEnd;
+		if (i < n && token.charAt(i) == '.') {
+			int fracEnd = skipHexDigits(token, i + 1);
+			digits += fracEnd - i - 1;
+			i = fracEnd;
+		}
+		if (digits == 0) {
+			return false;
+		}
+
+		if (i == n || (token.charAt(i) != 'p' && token.charAt(i) != 'P')) {
+			return false;
+		}
+		i = skipExponent(token, i + 1, n);
+		if (i < 0) {
+			return false;
+		}
+		return isEndOrTypeSuffix(token, i, n);
+	}
+
+	/**
+	 * Skips {@code [-+]?\d+} and returns the index after it, or -1 if it is not
+	 * there
+	 */
+	private static int skipExponent(String token, int i, int n) {
+		if (i < n && (token.charAt(i) == '+' || token.charAt(i) == '-')) {
+			i++;
+		}
+		int expEnd = skipDigits(token, i);
+		return expEnd == i ? -1 : expEnd;
+	}
+
+	private static boolean isEndOrTypeSuffix(String token, int i, int n) {
+		if (i == n) {
+			return true;
+		}
+		if (i != n - 1) {
+			return false;
+		}
+		char c = token.charAt(i);
+		return c == 'f' || c == 'F' || c == 'd' || c == 'D';
+	}
+
+	private static int skipDigits(String token, int i) {
+		int n = token.length();
+		while (i < n && isDigit(token.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	private static int skipHexDigits(String token, int i) {
+		int n = token.length();
+		while (i < n) {
+			char c = token.charAt(i);
+			if (!isDigit(c) && !(c >= 'a' && c <= 'f') && !(c >= 'A' && c <= 'F')) {
+				break;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Same as {@code \h|\s}
+	 */
+	private static boolean isHorizontalOrWhitespace(char c) {
+		switch (c) {
+		case ' ':
+		case '\t':
+		case '\n':
+		case '\u000B':
+		case '\f':
+		case '\r':
+		case '\u00A0':
+		case '\u1680':
+		case '\u180E':
+		case '\u202F':
+		case '\u205F':
+		case '\u3000':
+			return true;
+		default:
+			return c >= '\u2000' && c <= '\u200A';
+		}
+	}
+
+	/**
+	 * Same as {@code token.matches("[\\p{P}\\p{S}]")}
+	 */
+	static boolean isPunctuationOrSymbol(String token) {
+		int n = token.length();
+		if (n == 0 || n > 2) {
+			return false;
+		}
+
+		int codePoint = token.codePointAt(0);
+		if (Character.charCount(codePoint) != n) {
+			return false;
+		}
+
+		switch (Character.getType(codePoint)) {
+		case Character.CONNECTOR_PUNCTUATION:
+		case Character.DASH_PUNCTUATION:
+		case Character.START_PUNCTUATION:
+		case Character.END_PUNCTUATION:
+		case Character.INITIAL_QUOTE_PUNCTUATION:
+		case Character.FINAL_QUOTE_PUNCTUATION:
+		case Character.OTHER_PUNCTUATION:
+		case Character.MATH_SYMBOL:
+		case Character.CURRENCY_SYMBOL:
+		case Character.MODIFIER_SYMBOL:
+		case Character.OTHER_SYMBOL:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Checks whether the lower-cased token contains one of
+	 * {@link TextProcessor#PARENTHESIS} or is one of
+	 * {@link TextProcessor#PARENTHESIS2}, i.e., "-lrb-", "rsb", etc.
+	 */
+	static boolean isBracketToken(String token) {
+		int n = token.length();
+		if (n == 3) {
+			return isBracketName(token, 0);
+		}
+
+		for (int i = 0; i + 5 <= n; i++) {
+			if (Character.toLowerCase(token.charAt(i)) == '-' && isBracketName(token, i + 1)
+					&& Character.toLowerCase(token.charAt(i + 4)) == '-') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether token[i, i + 3) is one of {l,r}{c,r,s}b, ignoring case
+	 */
+	private static boolean isBracketName(String token, int i) {
+		char side = Character.toLowerCase(token.charAt(i));
+		if (side != 'l' && side != 'r') {
+			return false;
+		}
+		char type = Character.toLowerCase(token.charAt(i + 1));
+		if (type != 'c' && type != 'r' && type != 's') {
+			return false;
+		}
+		return Character.toLowerCase(token.charAt(i + 2)) == 'b';
+	}
+
+	/**
+	 * Same as {@code token.split("[^a-zA-Z0-9]").length != 1}: true when the
+	 * token starts with a special character, or when there are letters or
+	 * digits after its first special character
+	 */
+	static boolean hasSpecialCharSplit(String token) {
+		int n = token.length();
+		int i = 0;
+		while (i < n && isAsciiLetterOrDigit(token.charAt(i))) {
+			i++;
+		}
+		if (i == n) {
+			return false;
+		}
+		if (i == 0) {
+			return true;
+		}
+
+		for (i++; i < n; i++) {
+			if (isAsciiLetterOrDigit(token.charAt(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isAsciiLetterOrDigit(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+	}
+
+}
@@ -0,0 +1,200 @@
+package seers.textanalyzer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import seers.textanalyzer.entity.Sentence;
+import seers.textanalyzer.entity.StringDictionary;
+import seers.textanalyzer.entity.Token;
+
+/**
+ * Thread-safe corpus vocabulary: assigns stable int ids to the words, stems,
+ * lemmas and POS tags of the processed tokens, one {@link StringDictionary}
+ * per field, so documents can be turned into id sequences without further
+ * string work.
+ * <p>
+ * The vocabulary can be saved to and loaded from a binary file; the ids are
+ * kept.
+ */
+public class Vocabulary {
+
+	private static final int MAGIC = 0x54564F43;
+	private static final int VERSION = 1;
+
+	/**
+	 * Fields with ids, in the order in which they are saved
+	 */
+	private static final TokenField[] FIELDS = { TokenField.WORD, TokenField.STEM, TokenField.LEMMA,
+			TokenField.POS };
+
+	private final Map<TokenField, StringDictionary> dictionaries;
+
+	public Vocabulary() {
+		dictionaries = new EnumMap<>(TokenField.class);
+		for (TokenField field : FIELDS) {
+			dictionaries.put(field, new StringDictionary());
+		}
+	}
+
+	/**
+	 * @param field
+	 *            one of WORD, STEM, LEMMA or POS
+	 * @return
+	 */
+	public StringDictionary getDictionary(TokenField field) {
+		StringDictionary dictionary = dictionaries.get(field);
+		if (dictionary == null) {
+			throw new IllegalArgumentException("The vocabulary has no " + field + " ids");
+		}
+		return dictionary;
+	}
+
+	public int getId(TokenField field, Token token) {
+		return getDictionary(field).getId(getValue(field, token));
+	}
+
+	public String getTerm(TokenField field, int id) {
+		return getDictionary(field).getString(id);
+	}
+
+	/**
+	 * Returns the ids of the given field of the tokens, assigning ids to the
+	 * new terms
+	 *
+	 * @param field
+	 * @param tokens
+	 * @return
+	 */
+	public int[] getIds(TokenField field, List<Token> tokens) {
+		StringDictionary dictionary = getDictionary(field);
+		int[] ids = new int[tokens.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = dictionary.getId(getValue(field, tokens.get(i)));
+		}
+		return ids;
+	}
+
+	/**
+	 * Id-based counterpart of, e.g., {@link TextProcessor#getStringFromLemmas(List)}:
+	 * the ids of the tokens of all the sentences, in order
+	 *
+	 * @param field
+	 * @param sentences
+	 * @return
+	 */
+	public int[] getIdsFromSentences(TokenField field, List<Sentence> sentences) {
+		StringDictionary dictionary = getDictionary(field);
+		int numTokens = 0;
+		for (Sentence sentence : sentences) {
+			numTokens += sentence.getTokens().size();
+		}
+
+		int[] ids = new int[numTokens];
+		int i = 0;
+		for (Sentence sentence : sentences) {
+			for (Token token : sentence.getTokens()) {
+				ids[i++] = dictionary.getId(getValue(field, token));
+			}
+		}
+		return ids;
+	}
+
+	private static String getValue(TokenField field, Token token) {
+		switch (field) {
+		case WORD:
+			return token.getWord();
+		case STEM:
+			return token.getStem();
+		case LEMMA:
+			return token.getLemma();
+		case POS:
+			return token.getPos();
+		default:
+			throw new IllegalArgumentException("The vocabulary has no " + field + " ids");
+		}
+	}
+
+	public void save(File file) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+			write(out);
+		}
+	}
+
+	public static Vocabulary load(File file) throws IOException {
+		try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+			return read(in);
+		}
+	}
+
+	/**
+	 * Writes the terms of every field in id order, as length-prefixed UTF-8
+	 *
+	 * @param outputStream
+	 * @throws IOException
+	 */
+	public void write(OutputStream outputStream) throws IOException {
+		DataOutputStream out = new DataOutputStream(outputStream);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+
+		for (TokenField field : FIELDS) {
+			StringDictionary dictionary = dictionaries.get(field);
+			int size = dictionary.size();
+			out.writeInt(size);
+			for (int id = 0; id < size; id++) {
+				byte[] bytes = dictionary.getString(id).getBytes(StandardCharsets.UTF_8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+		}
+		out.flush();
+	}
+
+	public static Vocabulary read(InputStream inputStream) throws IOException {
+		DataInputStream in = new DataInputStream(inputStream);
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a vocabulary file");
+		}
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported vocabulary version: " + version);
+		}
+
+		Vocabulary vocabulary = new Vocabulary();
+		for (TokenField field : FIELDS) {
+			StringDictionary dictionary = vocabulary.dictionaries.get(field);
+			int size = in.readInt();
+			for (int id = 0; id < size; id++) {
+				byte[] bytes = new byte[in.readInt()];
+				in.readFully(bytes);
+				dictionary.getId(new String(bytes, StandardCharsets.UTF_8));
+			}
+		}
+		return vocabulary;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("Vocabulary [");
+		for (TokenField field : FIELDS) {
+			if (field != FIELDS[0]) {
+				builder.append(", ");
+			}
+			builder.append(field).append('=').append(dictionaries.get(field).size());
+		}
+		return builder.append(']').toString();
+	}
+
+}
@@ -0,0 +1,333 @@
+package seers.textanalyzer.entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import edu.stanford.nlp.international.Language;
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.ling.IndexedWord;
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import edu.stanford.nlp.semgraph.SemanticGraphEdge;
+import edu.stanford.nlp.trees.GrammaticalRelation;
+
+/**
+ * Immutable dependency graph stored in parallel int arrays (governor,
+ * dependent, relation and specific of every edge; word, lemma and tag of every
+ * vertex), a few bytes per edge instead of the CoreNLP objects of a
+ * {@link SemanticGraph}, which retain the annotations of the whole sentence
+ * (see {@link Sentence#compactDependencies(StringDictionary)}).
+ * <p>
+ * The vertices are ints ({@link #getVertex(int, int)}) ordered by token index
+ * and copy count, and the edges are sorted by governor and dependent, so the
+ * children of a vertex are consecutive edges. The relation names and specifics
+ * are ids of a dictionary shared by all the instances, and the words, lemmas
+ * and tags are ids of the given {@link StringDictionary}, owned by the caller:
+ * it only grows, so a long-running process should use one per batch of
+ * sentences (or a {@link seers.textanalyzer.Vocabulary} dictionary) rather
+ * than one for all. Vertex positions, edge weights and extra flags are not
+ * kept.
+ * <p>
+ * The queries are in the DependenciesUtils overloads; {@link #toGraph()}
+ * rebuilds a graph for the code that needs one.
+ */
+public class CompactDependencies {
+
+	public static final int NO_EDGE = -1;
+
+	private static final int COPY_BITS = 8;
+	private static final int MAX_COPY_COUNT = (1 << COPY_BITS) - 1;
+
+	private static final StringDictionary RELATIONS = new StringDictionary(256);
+
+	private final StringDictionary dictionary;
+	private final Language language;
+	private final int sentIndex;
+
+	private final int[] vertices;
+	private final int[] words;
+	private final int[] lemmas;
+	private final int[] tags;
+	private final int[] roots;
+
+	private final int[] governors;
+	private final int[] dependents;
+	private final int[] relations;
+	// null if no edge has a specific
+	private final int[] specifics;
+
+	/**
+	 * @param graph
+	 * @param dictionary
+	 *            of the words, lemmas and tags, the new ones are added to it
+	 */
+	public CompactDependencies(SemanticGraph graph, StringDictionary dictionary) {
+		if (graph == null || dictionary == null) {
+			throw new NullPointerException();
+		}
+		this.dictionary = dictionary;
+
+		List<IndexedWord> vertexList = graph.vertexListSorted();
+		int numVertices = vertexList.size();
+		vertices = new int[numVertices];
+		words = new int[numVertices];
+		lemmas = new int[numVertices];
+		tags = new int[numVertices];
+		for (int i = 0; i < numVertices; i++) {
+			IndexedWord vertex = vertexList.get(i);
+			vertices[i] = getVertex(vertex);
+			words[i] = dictionary.getId(vertex.word());
+			lemmas[i] = dictionary.getId(vertex.lemma());
+			tags[i] = dictionary.getId(vertex.tag());
+		}
+		sentIndex = numVertices == 0 ? -1 : vertexList.get(0).sentIndex();
+
+		// stable, the edges between the same vertices keep the order of the graph
+		List<SemanticGraphEdge> edges = new ArrayList<>(graph.edgeListSorted());
+		edges.sort(Comparator.comparingInt((SemanticGraphEdge e) -> getVertex(e.getGovernor()))
+				.thenComparingInt(e -> getVertex(e.getDependent())));
+		int numEdges = edges.size();
+
+		governors = new int[numEdges];
+		dependents = new int[numEdges];
+		relations = new int[numEdges];
+		int[] edgeSpecifics = null;
+		Language edgeLanguage = null;
+		for (int i = 0; i < numEdges; i++) {
+			SemanticGraphEdge edge = edges.get(i);
+			GrammaticalRelation relation = edge.getRelation();
+			governors[i] = getVertex(edge.getGovernor());
+			dependents[i] = getVertex(edge.getDependent());
+			relations[i] = RELATIONS.getId(relation.getShortName());
+			if (relation.getSpecific() != null) {
+				if (edgeSpecifics == null) {
+					edgeSpecifics = new int[numEdges];
+					Arrays.fill(edgeSpecifics, StringDictionary.NULL_ID);
+				}
+				edgeSpecifics[i] = RELATIONS.getId(relation.getSpecific());
+			}
+			if (edgeLanguage == null) {
+				edgeLanguage = relation.getLanguage();
+			}
+		}
+		specifics = edgeSpecifics;
+		language = edgeLanguage == null ? Language.UniversalEnglish : edgeLanguage;
+
+		roots = new int[graph.getRoots().size()];
+		int i = 0;
+		for (IndexedWord root : graph.getRoots()) {
+			roots[i++] = getVertex(root);
+		}
+		Arrays.sort(roots);
+	}
+
+	/**
+	 * @param tokenIndex
+	 *            {@link Token#getIndex()}
+	 * @param copyCount
+	 *            0, except for the copies of enhanced dependencies
+	 * @return
+	 */
+	public static int getVertex(int tokenIndex, int copyCount) {
+		if (tokenIndex < 0 || tokenIndex >= 1 << (31 - COPY_BITS) || copyCount < 0 || copyCount > MAX_COPY_COUNT) {
+			throw new IllegalArgumentException("Vertex out of range: " + tokenIndex + ", copy " + copyCount);
+		}
+		return (tokenIndex << COPY_BITS) | copyCount;
+	}
+
+	public static int getVertex(Token token) {
+		return getVertex(token.getIndex(), 0);
+	}
+
+	public static int getVertex(IndexedWord word) {
+		return getVertex(word.index(), word.copyCount());
+	}
+
+	public static int getTokenIndex(int vertex) {
+		return vertex >>> COPY_BITS;
+	}
+
+	public static int getCopyCount(int vertex) {
+		return vertex & MAX_COPY_COUNT;
+	}
+
+	/**
+	 * @param name
+	 *            short name or specific of a relation, e.g., "nsubj"
+	 * @return its id, or {@value StringDictionary#NULL_ID} if no edge has it
+	 */
+	public static int getRelationId(String name) {
+		return RELATIONS.lookup(name);
+	}
+
+	public static String getRelationName(int id) {
+		return RELATIONS.getString(id);
+	}
+
+	/**
+	 * @return the dictionary of the relation names and specifics
+	 */
+	public static StringDictionary getRelationDictionary() {
+		return RELATIONS;
+	}
+
+	public StringDictionary getDictionary() {
+		return dictionary;
+	}
+
+	public int getNumVertices() {
+		return vertices.length;
+	}
+
+	/**
+	 * @return the vertices, sorted
+	 */
+	public int[] getVertices() {
+		return vertices.clone();
+	}
+
+	/**
+	 * @param position
+	 *            from 0 to {@link #getNumVertices()} - 1
+	 * @return the vertex at the position of {@link #getVertices()}
+	 */
+	public int getVertexAt(int position) {
+		return vertices[position];
+	}
+
+	public int getNumEdges() {
+		return governors.length;
+	}
+
+	public int getGovernor(int edge) {
+		return governors[edge];
+	}
+
+	public int getDependent(int edge) {
+		return dependents[edge];
+	}
+
+	public int getRelationId(int edge) {
+		return relations[edge];
+	}
+
+	/**
+	 * @param edge
+	 * @return the short name of the relation, e.g., "nmod"
+	 */
+	public String getRelation(int edge) {
+		return RELATIONS.getString(relations[edge]);
+	}
+
+	public int getSpecificId(int edge) {
+		return specifics == null ? StringDictionary.NULL_ID : specifics[edge];
+	}
+
+	/**
+	 * @param edge
+	 * @return the specific of the relation, e.g., "on" for "nmod:on", or null
+	 */
+	public String getSpecific(int edge) {
+		return RELATIONS.getString(getSpecificId(edge));
+	}
+
+	public int[] getRoots() {
+		return roots.clone();
+	}
+
+	/**
+	 * @param vertex
+	 * @return the first edge of which the vertex is the governor, or the edge
+	 *         where it would be
+	 */
+	public int getFirstChildEdge(int vertex) {
+		int low = 0;
+		int high = governors.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (governors[middle] < vertex) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @param vertex
+	 * @return the position of the vertex in {@link #getVertices()}, or a
+	 *         negative number if it is not in the graph
+	 */
+	public int getVertexPosition(int vertex) {
+		return Arrays.binarySearch(vertices, vertex);
+	}
+
+	public String getWord(int vertex) {
+		return getString(words, vertex);
+	}
+
+	public String getLemma(int vertex) {
+		return getString(lemmas, vertex);
+	}
+
+	public String getTag(int vertex) {
+		return getString(tags, vertex);
+	}
+
+	public int getLemmaId(int vertex) {
+		int position = getVertexPosition(vertex);
+		return position < 0 ? StringDictionary.NULL_ID : lemmas[position];
+	}
+
+	public int getTagId(int vertex) {
+		int position = getVertexPosition(vertex);
+		return position < 0 ? StringDictionary.NULL_ID : tags[position];
+	}
+
+	private String getString(int[] ids, int vertex) {
+		int position = getVertexPosition(vertex);
+		return position < 0 ? null : dictionary.getString(ids[position]);
+	}
+
+	/**
+	 * Rebuilds the graph with the vertices (index, word, lemma, tag) and typed
+	 * edges, a new one on every call
+	 *
+	 * @return
+	 */
+	public SemanticGraph toGraph() {
+		SemanticGraph graph = new SemanticGraph();
+		IndexedWord[] graphVertices = new IndexedWord[vertices.length];
+		for (int i = 0; i < vertices.length; i++) {
+			CoreLabel label = new CoreLabel();
+			label.setIndex(getTokenIndex(vertices[i]));
+			label.setSentIndex(sentIndex);
+			label.setWord(dictionary.getString(words[i]));
+			label.setValue(label.word());
+			label.setLemma(dictionary.getString(lemmas[i]));
+			label.setTag(dictionary.getString(tags[i]));
+
+			IndexedWord vertex = new IndexedWord(label);
+			if (getCopyCount(vertices[i]) > 0) {
+				vertex.setCopyCount(getCopyCount(vertices[i]));
+			}
+			graphVertices[i] = vertex;
+			graph.addVertex(vertex);
+		}
+
+		for (int root : roots) {
+			graph.addRoot(graphVertices[getVertexPosition(root)]);
+		}
+		for (int i = 0; i < governors.length; i++) {
+			String specific = getSpecific(i);
+			String relation = specific == null ? getRelation(i) : getRelation(i) + ":" + specific;
+			graph.addEdge(graphVertices[getVertexPosition(governors[i])],
+					graphVertices[getVertexPosition(dependents[i])], GrammaticalRelation.valueOf(language, relation),
+					Double.NEGATIVE_INFINITY, false);
+		}
+		return graph;
+	}
+
+}
@@ -0,0 +1,178 @@
+package seers.textanalyzer.entity;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Read-only sentence that stores its tokens in parallel int arrays: the word,
+ * general POS, POS, lemma and stem of every token are ids of a
+ * {@link StringDictionary} shared by many sentences, so repeated strings are
+ * stored once.
+ * <p>
+ * {@link #getTokens()} is a view that creates {@link Token}s on demand, hence
+ * changes made to them (e.g., {@link Token#setLemma(String)}) are not kept.
+ * The dependencies (compact or not) and the quotes of the original sentence
+ * are kept as they are, not compacted.
+ */
+public class CompactSentence extends Sentence {
+
+	private final StringDictionary dictionary;
+
+	private final int[] words;
+	private final int[] generalPos;
+	private final int[] pos;
+	private final int[] lemmas;
+	private final int[] stems;
+	private final int[] beginPositions;
+	private final int[] endPositions;
+	private final int[] indexes;
+
+	public CompactSentence(Sentence sentence, StringDictionary dictionary) {
+		super(sentence.getId(), Collections.emptyList(), sentence.getText());
+		this.dictionary = dictionary;
+
+		List<Token> tokens = sentence.getTokens();
+		int size = tokens.size();
+		words = new int[size];
+		generalPos = new int[size];
+		pos = new int[size];
+		lemmas = new int[size];
+		stems = new int[size];
+		beginPositions = new int[size];
+		endPositions = new int[size];
+		indexes = new int[size];
+
+		for (int i = 0; i < size; i++) {
+			Token token = tokens.get(i);
+			words[i] = dictionary.getId(token.getWord());
+			generalPos[i] = dictionary.getId(token.getGeneralPos());
+			pos[i] = dictionary.getId(token.getPos());
+			lemmas[i] = dictionary.getId(token.getLemma());
+			stems[i] = dictionary.getId(token.getStem());
+			beginPositions[i] = token.getBeginPosition();
+			endPositions[i] = token.getEndPosition();
+			indexes[i] = token.getIndex();
+		}
+
+		if (sentence.getCompactDependencies() != null) {
+			setCompactDependencies(sentence.getCompactDependencies());
+		} else {
+			setDependencies(sentence.getDependencies());
+		}
+		if (sentence.hasQuotes()) {
+			getQuotes().putAll(sentence.getQuotes());
+		}
+	}
+
+	/**
+	 * Compacts all the sentences with the same dictionary
+	 *
+	 * @param sentences
+	 * @param dictionary
+	 * @return
+	 */
+	public static List<Sentence> compact(List<Sentence> sentences, StringDictionary dictionary) {
+		List<Sentence> compactSentences = new ArrayList<>(sentences.size());
+		for (Sentence sentence : sentences) {
+			compactSentences.add(new CompactSentence(sentence, dictionary));
+		}
+		return compactSentences;
+	}
+
+	public int size() {
+		return words.length;
+	}
+
+	public Token getToken(int i) {
+		return new Token(getWord(i), getGeneralPos(i), getPos(i), getLemma(i), getStem(i), beginPositions[i],
+				endPositions[i], indexes[i]);
+	}
+
+	@Override
+	public List<Token> getTokens() {
+		return new TokenView();
+	}
+
+	@Override
+	public void addToken(Token token) {
+		throw new UnsupportedOperationException("Compact sentences are read-only");
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return words.length == 0;
+	}
+
+	public String getWord(int i) {
+		return dictionary.getString(words[i]);
+	}
+
+	public String getGeneralPos(int i) {
+		return dictionary.getString(generalPos[i]);
+	}
+
+	public String getPos(int i) {
+		return dictionary.getString(pos[i]);
+	}
+
+	public String getLemma(int i) {
+		return dictionary.getString(lemmas[i]);
+	}
+
+	public String getStem(int i) {
+		return dictionary.getString(stems[i]);
+	}
+
+	public int getWordId(int i) {
+		return words[i];
+	}
+
+	public int getGeneralPosId(int i) {
+		return generalPos[i];
+	}
+
+	public int getPosId(int i) {
+		return pos[i];
+	}
+
+	public int getLemmaId(int i) {
+		return lemmas[i];
+	}
+
+	public int getStemId(int i) {
+		return stems[i];
+	}
+
+	public int getBeginPosition(int i) {
+		return beginPositions[i];
+	}
+
+	public int getEndPosition(int i) {
+		return endPositions[i];
+	}
+
+	public int getIndex(int i) {
+		return indexes[i];
+	}
+
+	public StringDictionary getDictionary() {
+		return dictionary;
+	}
+
+	private class TokenView extends AbstractList<Token> implements RandomAccess {
+
+		@Override
+		public Token get(int index) {
+			return getToken(index);
+		}
+
+		@Override
+		public int size() {
+			return words.length;
+		}
+	}
+
+}
@@ -0,0 +1,107 @@
+package seers.textanalyzer.entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.stanford.nlp.ling.IndexedWord;
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import edu.stanford.nlp.semgraph.SemanticGraphEdge;
+import edu.stanford.nlp.trees.GrammaticalRelation;
+import edu.stanford.nlp.util.Pair;
+
+/**
+ * Immutable index of a dependency graph, built once (see
+ * {@link Sentence#getDependencyIndex()}) and queried many times by the
+ * DependenciesUtils methods: the edges are bucketed by the short name of their
+ * relation, and the children and parents of every vertex are precomputed.
+ * <p>
+ * The lists keep the order of the graph (e.g., of
+ * {@link SemanticGraph#childPairs(IndexedWord)}), so the queries give the same
+ * results as on the graph. The graph should not be modified after indexing.
+ */
+public class DependencyIndex {
+
+	private final SemanticGraph graph;
+	private final Map<String, List<SemanticGraphEdge>> edgesByRelation;
+	private final Map<IndexedWord, List<Pair<GrammaticalRelation, IndexedWord>>> children;
+	private final Map<IndexedWord, List<Pair<GrammaticalRelation, IndexedWord>>> sortedChildren;
+	private final Map<IndexedWord, List<Pair<GrammaticalRelation, IndexedWord>>> parents;
+
+	public DependencyIndex(SemanticGraph graph) {
+		if (graph == null) {
+			throw new NullPointerException();
+		}
+		this.graph = graph;
+
+		edgesByRelation = new HashMap<>();
+		for (SemanticGraphEdge edge : graph.edgeIterable()) {
+			edgesByRelation.computeIfAbsent(edge.getRelation().getShortName(), r -> new ArrayList<>(2)).add(edge);
+		}
+
+		int numVertices = graph.size();
+		children = new HashMap<>(numVertices * 2);
+		sortedChildren = new HashMap<>(numVertices * 2);
+		parents = new HashMap<>(numVertices * 2);
+		for (IndexedWord vertex : graph.vertexSet()) {
+			List<Pair<GrammaticalRelation, IndexedWord>> vertexChildren = graph.childPairs(vertex);
+			if (!vertexChildren.isEmpty()) {
+				children.put(vertex, Collections.unmodifiableList(vertexChildren));
+
+				// stable, as the sort of the query methods
+				List<Pair<GrammaticalRelation, IndexedWord>> sorted = new ArrayList<>(vertexChildren);
+				sorted.sort((c1, c2) -> Integer.compare(c1.second.index(), c2.second.index()));
+				sortedChildren.put(vertex, Collections.unmodifiableList(sorted));
+			}
+
+			List<Pair<GrammaticalRelation, IndexedWord>> vertexParents = graph.parentPairs(vertex);
+			if (!vertexParents.isEmpty()) {
+				parents.put(vertex, Collections.unmodifiableList(vertexParents));
+			}
+		}
+	}
+
+	public SemanticGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @param relation
+	 *            short name, e.g., "nsubj"
+	 * @return the edges of the relation, in the order of
+	 *         {@link SemanticGraph#edgeIterable()}
+	 */
+	public List<SemanticGraphEdge> getEdges(String relation) {
+		List<SemanticGraphEdge> edges = edgesByRelation.get(relation);
+		return edges == null ? Collections.emptyList() : Collections.unmodifiableList(edges);
+	}
+
+	/**
+	 * @param vertex
+	 * @return the children, in the order of
+	 *         {@link SemanticGraph#childPairs(IndexedWord)}
+	 */
+	public List<Pair<GrammaticalRelation, IndexedWord>> getChildren(IndexedWord vertex) {
+		return children.getOrDefault(vertex, Collections.emptyList());
+	}
+
+	/**
+	 * @param vertex
+	 * @return the children, sorted by their index
+	 */
+	public List<Pair<GrammaticalRelation, IndexedWord>> getSortedChildren(IndexedWord vertex) {
+		return sortedChildren.getOrDefault(vertex, Collections.emptyList());
+	}
+
+	/**
+	 * @param vertex
+	 * @return the parents, in the order of
+	 *         {@link SemanticGraph#parentPairs(IndexedWord)}
+	 */
+	public List<Pair<GrammaticalRelation, IndexedWord>> getParents(IndexedWord vertex) {
+		return parents.getOrDefault(vertex, Collections.emptyList());
+	}
+
+}
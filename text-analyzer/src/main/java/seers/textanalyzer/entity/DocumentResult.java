@@ -0,0 +1,51 @@
+package seers.textanalyzer.entity;
+
+import java.util.List;
+
+/**
+ * Result of processing one {@link TextDocument} in a batch: either the parsed
+ * sentences or the error raised while processing the document
+ */
+public class DocumentResult {
+
+	private final String id;
+	private final long position;
+	private final List<Sentence> sentences;
+	private final Exception error;
+
+	public DocumentResult(String id, long position, List<Sentence> sentences, Exception error) {
+		this.id = id;
+		this.position = position;
+		this.sentences = sentences;
+		this.error = error;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * @return position of the document in the input
+	 */
+	public long getPosition() {
+		return position;
+	}
+
+	public List<Sentence> getSentences() {
+		return sentences;
+	}
+
+	public Exception getError() {
+		return error;
+	}
+
+	public boolean isSuccessful() {
+		return error == null;
+	}
+
+	@Override
+	public String toString() {
+		return "res [id=" + id + ", pos=" + position + (error == null ? "" : ", err=" + error) + "]";
+	}
+
+}
@@ -12,31 +12,26 @@ public class Sentence {
 	private String id;
 	private List<Token> tokens;
 	private SemanticGraph dependencies;
+	private volatile DependencyIndex dependencyIndex;
+	private CompactDependencies compactDependencies;
 	private String text;
 	private HashMap<String, List<Sentence>> quotes;
 
 	public Sentence(String id) {
-		if (id == null) {
-			throw new NullPointerException();
-		}
-		this.setId(id);
-		tokens = new ArrayList<>();
-		quotes = new LinkedHashMap<>();
+		this(id, new ArrayList<>());
 	}
 
 	public Sentence(String id, String text) {
 		this(id);
 		this.text = text;
-		quotes = new LinkedHashMap<>();
 	}
 
 	public Sentence(String id, List<Token> tokens) {
-		this(id);
-		if (tokens == null) {
+		if (id == null || tokens == null) {
 			throw new NullPointerException();
 		}
+		this.setId(id);
 		this.tokens = tokens;
-		quotes = new LinkedHashMap<>();
 	}
 
 	public Sentence(String id, List<Token> tokens, String text) {
@@ -82,20 +77,85 @@ public class Sentence {
 	}
 
 	public boolean isEmpty() {
-		return tokens.isEmpty();
+		return getTokens().isEmpty();
 	}
 
 	@Override
 	public String toString() {
-		return "s [id=" + getId() + ", tk=" + tokens + "]";
+		return "s [id=" + getId() + ", tk=" + getTokens() + "]";
 	}
 
+	/**
+	 * @return the dependencies, rebuilt on every call if they were compacted
+	 *         (see {@link #compactDependencies(StringDictionary)})
+	 */
 	public SemanticGraph getDependencies() {
+		if (dependencies == null && compactDependencies != null) {
+			return compactDependencies.toGraph();
+		}
 		return dependencies;
 	}
 
 	public void setDependencies(SemanticGraph dependencies) {
 		this.dependencies = dependencies;
+		this.dependencyIndex = null;
+		this.compactDependencies = null;
+	}
+
+	/**
+	 * @return the compact dependencies, or null if they were not compacted
+	 */
+	public CompactDependencies getCompactDependencies() {
+		return compactDependencies;
+	}
+
+	/**
+	 * Replaces the dependency graph, if any, with the compact dependencies
+	 *
+	 * @param compactDependencies
+	 */
+	public void setCompactDependencies(CompactDependencies compactDependencies) {
+		this.compactDependencies = compactDependencies;
+		this.dependencies = null;
+		this.dependencyIndex = null;
+	}
+
+	/**
+	 * Replaces the dependency graph, if any, with {@link CompactDependencies},
+	 * so the CoreNLP objects can be garbage collected. The DependenciesUtils
+	 * overloads on {@link #getCompactDependencies()} query them without
+	 * rebuilding the graph.
+	 *
+	 * @param dictionary
+	 *            of the words, lemmas and tags, e.g., one for all the
+	 *            sentences of a batch
+	 * @return the compact dependencies, or null if there are no dependencies
+	 */
+	public CompactDependencies compactDependencies(StringDictionary dictionary) {
+		if (dependencies != null) {
+			setCompactDependencies(new CompactDependencies(dependencies, dictionary));
+		}
+		return compactDependencies;
+	}
+
+	/**
+	 * @return the index of the dependencies, built on the first call, or null
+	 *         if there are no dependencies. If they were compacted, it is built
+	 *         on a rebuilt graph, which is kept with the index.
+	 */
+	public DependencyIndex getDependencyIndex() {
+		DependencyIndex index = dependencyIndex;
+		if (index == null) {
+			SemanticGraph graph = dependencies != null ? dependencies
+					: compactDependencies != null ? compactDependencies.toGraph() : null;
+			if (graph == null) {
+				return null;
+			}
+			// two threads may build it, with the same result
+			index = new DependencyIndex(graph);
+			dependencyIndex = index;
+		}
+		return index;
 	}
 
 	public String getText() {
@@ -103,11 +163,19 @@ public class Sentence {
 	}
 
 	public HashMap<String, List<Sentence>> getQuotes() {
+		// most sentences have no quotes, the map is created when needed
+		if (quotes == null) {
+			quotes = new LinkedHashMap<>();
+		}
 		return quotes;
 	}
 
+	public boolean hasQuotes() {
+		return quotes != null && !quotes.isEmpty();
+	}
+
 	public void addQuote(String quoteKey, List<Sentence> sentences) {
-		this.quotes.put(quoteKey, sentences);
+		getQuotes().put(quoteKey, sentences);
 	}
 
 	public void setId(String id) {
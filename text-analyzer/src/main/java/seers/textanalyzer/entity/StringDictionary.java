@@ -0,0 +1,88 @@
+package seers.textanalyzer.entity;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe mapping between strings and consecutive int ids (0, 1, 2, ...).
+ * Ids never change once assigned. The null string has the id
+ * {@value #NULL_ID}.
+ */
+public class StringDictionary {
+
+	public static final int NULL_ID = -1;
+
+	private final ConcurrentHashMap<String, Integer> ids;
+	private volatile String[] strings;
+	private int size;
+
+	public StringDictionary() {
+		this(1024);
+	}
+
+	public StringDictionary(int initialCapacity) {
+		ids = new ConcurrentHashMap<>(initialCapacity);
+		strings = new String[Math.max(initialCapacity, 16)];
+	}
+
+	/**
+	 * Returns the id of the string, assigning the next id if it is new
+	 *
+	 * @param string
+	 * @return
+	 */
+	public int getId(String string) {
+		if (string == null) {
+			return NULL_ID;
+		}
+		Integer id = ids.get(string);
+		if (id != null) {
+			return id;
+		}
+
+		synchronized (this) {
+			id = ids.get(string);
+			if (id != null) {
+				return id;
+			}
+			if (size == strings.length) {
+				strings = Arrays.copyOf(strings, size * 2);
+			}
+			strings[size] = string;
+			ids.put(string, size);
+			return size++;
+		}
+	}
+
+	/**
+	 * @param string
+	 * @return the id of the string, or {@value #NULL_ID} if it has none
+	 */
+	public int lookup(String string) {
+		if (string == null) {
+			return NULL_ID;
+		}
+		Integer id = ids.get(string);
+		return id == null ? NULL_ID : id;
+	}
+
+	/**
+	 * @param id
+	 * @return the string with the id, null for {@value #NULL_ID}
+	 */
+	public String getString(int id) {
+		if (id == NULL_ID) {
+			return null;
+		}
+		String[] currentStrings = strings;
+		if (id < 0 || id >= currentStrings.length || currentStrings[id] == null) {
+			throw new IllegalArgumentException("Unknown id: " + id);
+		}
+		return currentStrings[id];
+	}
+
+	public int size() {
+		return ids.size();
+	}
+
+}
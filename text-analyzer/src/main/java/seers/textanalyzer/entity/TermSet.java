@@ -0,0 +1,158 @@
+package seers.textanalyzer.entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.stanford.nlp.trees.GrammaticalRelation;
+
+/**
+ * Immutable set of relation names, POS tags or lemmas, compiled once into the
+ * sorted ids of a {@link StringDictionary}, to be reused by many
+ * DependenciesUtils queries: a term is matched with a dictionary lookup (or
+ * none, for the ids of {@link CompactDependencies}) and a binary search,
+ * without allocating.
+ * <p>
+ * The terms are only looked up, never added to the dictionary, so the terms
+ * without an id when the set is compiled are matched by string.
+ * <p>
+ * The relation sets ({@link #ofRelations(String...)}) use the dictionary of
+ * the relations of {@link CompactDependencies}; the POS and lemma sets use the
+ * dictionary of the compact dependencies they are matched against, if given
+ * ({@link #of(StringDictionary, Collection)}), and are matched by string
+ * otherwise.
+ */
+public final class TermSet {
+
+	private final StringDictionary dictionary;
+	private final List<String> terms;
+	private final Set<String> termSet;
+	// sorted
+	private final int[] ids;
+	private final boolean unresolved;
+
+	private TermSet(StringDictionary dictionary, Collection<String> terms) {
+		if (terms == null) {
+			throw new NullPointerException();
+		}
+		this.dictionary = dictionary;
+
+		// distinct, in the given order
+		Set<String> distinct = new LinkedHashSet<>(terms);
+		distinct.remove(null);
+		this.terms = Collections.unmodifiableList(new ArrayList<>(distinct));
+		this.termSet = distinct;
+
+		int[] termIds = new int[distinct.size()];
+		int size = 0;
+		for (String term : distinct) {
+			int id = dictionary == null ? StringDictionary.NULL_ID : dictionary.lookup(term);
+			if (id != StringDictionary.NULL_ID) {
+				termIds[size++] = id;
+			}
+		}
+		this.ids = Arrays.copyOf(termIds, size);
+		Arrays.sort(ids);
+		this.unresolved = dictionary != null && size < distinct.size();
+	}
+
+	/**
+	 * @param relations
+	 *            short names, e.g., "nsubj"
+	 * @return
+	 */
+	public static TermSet ofRelations(String... relations) {
+		return ofRelations(Arrays.asList(relations));
+	}
+
+	public static TermSet ofRelations(Collection<String> relations) {
+		return new TermSet(CompactDependencies.getRelationDictionary(), relations);
+	}
+
+	/**
+	 * @param terms
+	 *            POS tags or lemmas
+	 * @return a set without dictionary, matched by string
+	 */
+	public static TermSet of(String... terms) {
+		return of(Arrays.asList(terms));
+	}
+
+	public static TermSet of(Collection<String> terms) {
+		return new TermSet(null, terms);
+	}
+
+	/**
+	 * @param dictionary
+	 *            of the compact dependencies, the terms are not added to it
+	 * @param terms
+	 *            POS tags or lemmas
+	 * @return
+	 */
+	public static TermSet of(StringDictionary dictionary, Collection<String> terms) {
+		if (dictionary == null) {
+			throw new NullPointerException();
+		}
+		return new TermSet(dictionary, terms);
+	}
+
+	public boolean contains(String term) {
+		return termSet.contains(term);
+	}
+
+	/**
+	 * @param relation
+	 * @return true if the set has the short name of the relation
+	 */
+	public boolean contains(GrammaticalRelation relation) {
+		return contains(relation.getShortName());
+	}
+
+	/**
+	 * @param id
+	 *            of the dictionary of the set
+	 * @return false if the set has no dictionary
+	 */
+	public boolean containsId(int id) {
+		if (id < 0) {
+			return false;
+		}
+		if (Arrays.binarySearch(ids, id) >= 0) {
+			return true;
+		}
+		// the id may have been assigned after the set was compiled
+		return unresolved && id < dictionary.size() && termSet.contains(dictionary.getString(id));
+	}
+
+	/**
+	 * @return the dictionary, or null if the set is matched by string
+	 */
+	public StringDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * @return the distinct terms, in the given order
+	 */
+	public List<String> getTerms() {
+		return terms;
+	}
+
+	public int size() {
+		return terms.size();
+	}
+
+	public boolean isEmpty() {
+		return terms.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return terms.toString();
+	}
+
+}
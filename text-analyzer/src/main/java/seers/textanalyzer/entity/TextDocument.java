@@ -0,0 +1,46 @@
+package seers.textanalyzer.entity;
+
+public class TextDocument {
+
+	private String id;
+	private String text;
+	private Exception error;
+
+	public TextDocument(String id, String text) {
+		this(id, text, null);
+	}
+
+	/**
+	 * @param id
+	 * @param text
+	 * @param error
+	 *            why the document could not be read (e.g., a malformed
+	 *            record), null if it was read
+	 */
+	public TextDocument(String id, String text, Exception error) {
+		if (id == null) {
+			throw new NullPointerException();
+		}
+		this.id = id;
+		this.text = text;
+		this.error = error;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public Exception getError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		return "doc [id=" + id + "]";
+	}
+
+}
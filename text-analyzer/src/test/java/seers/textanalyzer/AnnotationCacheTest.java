@@ -0,0 +1,93 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import seers.textanalyzer.entity.Sentence;
+
+public class AnnotationCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testHitsAcrossInstances() throws Exception {
+		File directory = folder.newFolder();
+		AtomicInteger calls = new AtomicInteger();
+		Function<String, List<Sentence>> processor = text -> {
+			calls.incrementAndGet();
+			return TextProcessor.tokenizeText(text);
+		};
+
+		AnnotationCache cache = new AnnotationCache(directory, 1024 * 1024);
+		List<Sentence> sentences = cache.get("The app crashes.", "tokenize", processor);
+		assertEquals(sentences.toString(), cache.get("The app crashes.", "tokenize", processor).toString());
+		assertEquals(1, calls.get());
+		assertNull(cache.get("The app crashes.", "tokenize, ssplit"));
+
+		AnnotationCache reopenedCache = new AnnotationCache(directory, 1024 * 1024);
+		assertEquals(1, reopenedCache.size());
+		assertEquals(cache.getTotalBytes(), reopenedCache.getTotalBytes());
+		assertEquals(sentences.toString(), reopenedCache.get("The app crashes.", "tokenize", processor).toString());
+		assertEquals(1, calls.get());
+		assertEquals(1, reopenedCache.getHits());
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		AnnotationCache cache = new AnnotationCache(folder.newFolder(), 2000);
+		for (int i = 0; i < 20; i++) {
+			cache.get("The app crashes " + i + " times.", "tokenize", TextProcessor::tokenizeText);
+		}
+
+		assertTrue(cache.getTotalBytes() <= 2000);
+		assertTrue(cache.getEvictions() > 0);
+		assertEquals(20 - cache.getEvictions(), cache.size());
+		// the most recent entry is kept
+		assertTrue(cache.get("The app crashes 19 times.", "tokenize") != null);
+	}
+
+	@Test
+	public void testCorruptedEntry() throws Exception {
+		File directory = folder.newFolder();
+		AnnotationCache cache = new AnnotationCache(directory, 1024 * 1024);
+		cache.get("The app crashes.", "tokenize", TextProcessor::tokenizeText);
+
+		String key = AnnotationCache.getKey("The app crashes.", "tokenize");
+		File file = new File(new File(directory, key.substring(0, 2)), key + ".bin");
+		assertTrue(file.delete());
+		assertTrue(file.createNewFile());
+
+		assertNull(cache.get("The app crashes.", "tokenize"));
+		assertEquals(1, cache.getErrors());
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testTextProcessorCache() throws Exception {
+		AnnotationCache previousCache = TextProcessor.getAnnotationCache();
+		AnnotationCache cache = new AnnotationCache(folder.newFolder(), 1024 * 1024);
+		TextProcessor.setAnnotationCache(cache);
+		try {
+			List<Sentence> sentences = TextProcessor.processText("The app crashes.", true);
+			assertEquals(sentences.toString(), TextProcessor.processText("The app crashes.", true).toString());
+			TextProcessor.processText("The app crashes.", false);
+
+			assertEquals(1, cache.getHits());
+			assertEquals(2, cache.size());
+		} finally {
+			TextProcessor.setAnnotationCache(previousCache);
+		}
+	}
+
+}
@@ -0,0 +1,169 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import seers.textanalyzer.DocumentSource.Format;
+import seers.textanalyzer.entity.DocumentResult;
+import seers.textanalyzer.entity.TextDocument;
+
+public class BatchPreprocessorTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testDocumentSource() throws IOException {
+		File dir = folder.newFolder("docs");
+		File text = new File(dir, "a.txt");
+		FileUtils.writeStringToFile(text, "The app crashes.", StandardCharsets.UTF_8);
+		File jsonl = new File(dir, "b.jsonl");
+		FileUtils.writeStringToFile(jsonl,
+				"{\"id\": 7, \"meta\": {\"tags\": [\"x\", \"}\"]}, \"text\": \"Say \\\"hi\\\"\\n\\u00e9\"}\n\n"
+						+ "{\"text\": \"No id.\", \"id\": null}\n",
+				StandardCharsets.UTF_8);
+		File csv = new File(dir, "c.csv");
+		FileUtils.writeStringToFile(csv, "key,text\nk1,\"One, \"\"two\"\"\nthree\"\nk2,Plain text\n",
+				StandardCharsets.UTF_8);
+
+		List<TextDocument> documents = read(new DocumentSource(Arrays.asList(dir), Format.AUTO, "text", "id",
+				StandardCharsets.UTF_8));
+		assertEquals(5, documents.size());
+		assertDocument(text.getPath(), "The app crashes.", documents.get(0));
+		assertDocument("7", "Say \"hi\"\né", documents.get(1));
+		assertDocument(jsonl.getPath() + ":3", "No id.", documents.get(2));
+		assertDocument(csv.getPath() + ":1", "One, \"two\"\nthree", documents.get(3));
+		assertDocument(csv.getPath() + ":2", "Plain text", documents.get(4));
+
+		documents = read(new DocumentSource(Arrays.asList(csv), Format.CSV, "text", "key", StandardCharsets.UTF_8));
+		assertEquals(2, documents.size());
+		assertDocument("k2", "Plain text", documents.get(1));
+	}
+
+	@Test
+	public void testMalformedRecords() throws IOException {
+		File dir = folder.newFolder("docs");
+		File jsonl = new File(dir, "a.jsonl");
+		FileUtils.writeStringToFile(jsonl,
+				"{\"body\": \"text\"}\n{\"text\": \"The app\n{\"text\": \"It works.\"}\n", StandardCharsets.UTF_8);
+		File csv = new File(dir, "b.csv");
+		FileUtils.writeStringToFile(csv, "id,text\nk1\nk2,It crashes.\n", StandardCharsets.UTF_8);
+		File noColumn = new File(dir, "c.csv");
+		FileUtils.writeStringToFile(noColumn, "id,body\nk1,text\n", StandardCharsets.UTF_8);
+
+		// the bad records do not stop the reading
+		List<TextDocument> documents = read(new DocumentSource(Arrays.asList(dir), Format.AUTO, "text", null,
+				StandardCharsets.UTF_8));
+		assertEquals(6, documents.size());
+		assertFailed(jsonl.getPath() + ":1", documents.get(0));
+		assertFailed(jsonl.getPath() + ":2", documents.get(1));
+		assertDocument(jsonl.getPath() + ":3", "It works.", documents.get(2));
+		assertFailed(csv.getPath() + ":1", documents.get(3));
+		assertDocument(csv.getPath() + ":2", "It crashes.", documents.get(4));
+		assertFailed(noColumn.getPath(), documents.get(5));
+
+		// and give failed results
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		assertEquals(1, BatchPreprocessor.run(new String[] { "--preprocessing=-p", "-t", "2", dir.getPath() },
+				new PrintStream(out), new PrintStream(err)));
+		assertEquals(jsonl.getPath() + ":3\tit work\n" + csv.getPath() + ":2\tit crash\n",
+				new String(out.toByteArray(), StandardCharsets.UTF_8));
+		assertTrue(err.toString(), err.toString().contains("Error in " + jsonl.getPath() + ":1"));
+		assertTrue(err.toString(), err.toString().contains("done 6 documents (4 errors)"));
+	}
+
+	@Test(expected = IOException.class)
+	public void testMissingInput() throws IOException {
+		new DocumentSource(Arrays.asList(new File(folder.getRoot(), "none")), Format.AUTO, "text", null,
+				StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testOutputFormats() throws IOException {
+		File jsonl = folder.newFile("docs.jsonl");
+		FileUtils.writeStringToFile(jsonl,
+				"{\"id\": \"d1\", \"text\": \"The apps crashed.\"}\n{\"id\": \"d2\", \"text\": \"I tapped the buttons.\"}\n",
+				StandardCharsets.UTF_8);
+		File stopWords = folder.newFile("stop.txt");
+		FileUtils.writeStringToFile(stopWords, "the\n", StandardCharsets.UTF_8);
+
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		String lemmas = run(err, "--id-field", "id", "--stop-words", stopWords.getPath(), "-t", "2",
+				"--preprocessing=-p", jsonl.getPath());
+		assertEquals("d1\tapp crash\nd2\ti tap button\n", lemmas);
+		assertTrue(err.toString().contains("done 2 documents (0 errors)"));
+
+		String tsv = run(err, "--id-field", "id", "--output-format", "tsv", jsonl.getPath());
+		String[] rows = tsv.split("\n");
+		assertEquals("id\tsentence\tindex\tword\tlemma\tpos\tgeneral_pos\tstem\tbegin\tend", rows[0]);
+		assertTrue(rows[1].startsWith("d1\t0\t0\tThe\tthe\tDT\t"));
+
+		File output = new File(folder.getRoot(), "out.bin");
+		assertEquals("", run(err, "--id-field", "id", "--output-format", "binary", "-o", output.getPath(),
+				"--progress", "0", jsonl.getPath()));
+		try (SentenceCodec.DocumentReader reader = new SentenceCodec.DocumentReader(
+				new ByteArrayInputStream(FileUtils.readFileToByteArray(output)))) {
+			DocumentResult first = reader.read();
+			assertEquals("d1", first.getId());
+			assertEquals("app", first.getSentences().get(0).getTokens().get(1).getLemma());
+			assertEquals("d2", reader.read().getId());
+			assertNull(reader.read());
+		}
+	}
+
+	@Test
+	public void testWrongArguments() {
+		PrintStream out = new PrintStream(new ByteArrayOutputStream());
+		assertEquals(2, BatchPreprocessor.run(new String[0], out, out));
+		assertEquals(2, BatchPreprocessor.run(new String[] { "--output-format", "xml", "a.txt" }, out, out));
+		assertEquals(3, BatchPreprocessor.run(new String[] { new File(folder.getRoot(), "none").getPath() }, out,
+				out));
+	}
+
+	private static String run(ByteArrayOutputStream err, String... args) {
+		err.reset();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int status = BatchPreprocessor.run(args, new PrintStream(out), new PrintStream(err));
+		assertEquals(err.toString(), 0, status);
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static List<TextDocument> read(DocumentSource source) {
+		List<TextDocument> documents = new ArrayList<>();
+		while (source.hasNext()) {
+			documents.add(source.next());
+		}
+		return documents;
+	}
+
+	private static void assertDocument(String id, String text, TextDocument document) {
+		assertEquals(id, document.getId());
+		assertEquals(text, document.getText());
+		assertNull(document.getError());
+	}
+
+	private static void assertFailed(String id, TextDocument document) {
+		assertEquals(id, document.getId());
+		assertNull(document.getText());
+		assertNotNull(document.getError());
+	}
+
+}
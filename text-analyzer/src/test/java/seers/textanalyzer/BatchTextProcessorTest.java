@@ -0,0 +1,69 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import seers.textanalyzer.entity.DocumentResult;
+import seers.textanalyzer.entity.TextDocument;
+
+public class BatchTextProcessorTest {
+
+	@Test
+	public void testProcessInOrder() {
+		List<TextDocument> documents = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			documents.add(new TextDocument("d" + i, i == 7 ? null : "The app crashes on start " + i + "."));
+		}
+
+		try (BatchTextProcessor processor = new BatchTextProcessor(4, 3)) {
+			List<DocumentResult> results = processor.process(documents,
+					BatchTextProcessor.preprocessing(null, PreprocessingOptionsParser.getDefaultOptions()));
+
+			assertEquals(20, results.size());
+			for (int i = 0; i < 20; i++) {
+				DocumentResult result = results.get(i);
+				assertEquals("d" + i, result.getId());
+				assertEquals(i, result.getPosition());
+				assertTrue(result.isSuccessful());
+			}
+		}
+	}
+
+	@Test
+	public void testProcessAsCompletedIsolatesErrors() {
+		List<TextDocument> documents = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			documents.add(new TextDocument("d" + i, "text " + i));
+		}
+
+		Set<String> ids = new HashSet<>();
+		List<DocumentResult> failed = new ArrayList<>();
+		try (BatchTextProcessor processor = new BatchTextProcessor(4, 2)) {
+			processor.process(documents.iterator(), text -> {
+				if (text.endsWith("13")) {
+					throw new IllegalStateException("bad text");
+				}
+				return new ArrayList<>();
+			}, false, r -> {
+				ids.add(r.getId());
+				if (!r.isSuccessful()) {
+					failed.add(r);
+				}
+			});
+		}
+
+		assertEquals(50, ids.size());
+		assertEquals(1, failed.size());
+		assertEquals("d13", failed.get(0).getId());
+		assertFalse(failed.get(0).isSuccessful());
+	}
+
+}
@@ -0,0 +1,83 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import seers.textanalyzer.BoundedCache.Eviction;
+
+public class BoundedCacheTest {
+
+	@Test
+	public void testLruEviction() {
+		BoundedCache<String, String> cache = new BoundedCache<>(2, Eviction.LRU, 1);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		cache.get("a");
+		cache.put("c", "3");
+
+		assertNotNull(cache.get("a"));
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("c"));
+		assertEquals(1, cache.getEvictions());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testFifoEviction() {
+		BoundedCache<String, String> cache = new BoundedCache<>(2, Eviction.FIFO, 1);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		cache.get("a");
+		cache.put("c", "3");
+
+		assertNull(cache.get("a"));
+		assertNotNull(cache.get("b"));
+		assertNotNull(cache.get("c"));
+	}
+
+	@Test
+	public void testWeightedEviction() {
+		BoundedCache<String, String> cache = new BoundedCache<>(10, String::length, Eviction.LRU, 1);
+		cache.put("a", "1234");
+		cache.put("b", "1234");
+		cache.get("a");
+		cache.put("c", "12345");
+
+		assertNotNull(cache.get("a"));
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("c"));
+		assertEquals(9, cache.getWeight());
+
+		// too heavy to be cached
+		cache.put("d", "12345678901");
+		assertNull(cache.get("d"));
+		assertEquals(9, cache.getWeight());
+
+		cache.put("a", "1");
+		assertEquals(6, cache.getWeight());
+		cache.clear();
+		assertEquals(0, cache.getWeight());
+	}
+
+	@Test
+	public void testStemCacheCounters() {
+		BoundedCache<String, String> defaultCache = GeneralStemmer.getStemCache();
+		BoundedCache<String, String> cache = new BoundedCache<>(100);
+		GeneralStemmer.setStemCache(cache);
+		try {
+			assertEquals("connect", GeneralStemmer.stemmingPorter("connections"));
+			assertEquals("connect", GeneralStemmer.stemmingPorter("connections"));
+			assertEquals("connect", GeneralStemmer.stemmingPorter("connected"));
+
+			assertEquals(1, cache.getHits());
+			assertEquals(2, cache.getMisses());
+			assertEquals(2, cache.size());
+		} finally {
+			GeneralStemmer.setStemCache(defaultCache);
+		}
+	}
+
+}
@@ -0,0 +1,233 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import edu.stanford.nlp.ling.IndexedWord;
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import edu.stanford.nlp.semgraph.SemanticGraphEdge;
+import edu.stanford.nlp.trees.GrammaticalRelation;
+import edu.stanford.nlp.util.Pair;
+import seers.textanalyzer.DependencyTestCorpus.QueryChecks;
+import seers.textanalyzer.entity.CompactDependencies;
+import seers.textanalyzer.entity.Sentence;
+import seers.textanalyzer.entity.StringDictionary;
+
+public class CompactDependenciesTest {
+
+	@Test
+	public void testSameResults() {
+		Set<String> pos = DependencyTestCorpus.POS;
+		Set<String> lemmas = DependencyTestCorpus.LEMMAS;
+		Map<String, List<String>> specifics = new HashMap<>();
+		specifics.put("nmod", Arrays.asList("on", "of", "from"));
+		specifics.put("conj", Collections.singletonList("and"));
+		StringDictionary dictionary = new StringDictionary();
+
+		DependencyTestCorpus.check(DependencyTestCorpus.process(), sentence -> {
+			SemanticGraph graph = sentence.getDependencies();
+			CompactDependencies compact = new CompactDependencies(graph, dictionary);
+			assertEquals(graph.edgeCount(), compact.getNumEdges());
+			assertEquals(graph.vertexSet().size(), compact.getNumVertices());
+			assertEquals(toStrings(graph.edgeListSorted()), toStrings(compact, all(compact)));
+			assertEquals(toStrings(graph.edgeListSorted()), toStrings(compact.toGraph().edgeListSorted()));
+
+			return new QueryChecks() {
+
+				@Override
+				public void checkRelations(String[] relations, Set<String> relationSet) {
+					assertEquals(toStrings(DependenciesUtils.findRelationsByTgtRelations(graph, relations)),
+							toStrings(compact, DependenciesUtils.findRelationsByTgtRelations(compact, relations)));
+					assertEquals(
+							toStrings(DependenciesUtils.findRelationsByTgtRelationAndPos(graph, relations[0], "NN")),
+							toStrings(compact,
+									DependenciesUtils.findRelationsByTgtRelationAndPos(compact, relations[0], "NN")));
+					assertEquals(
+							toStrings(DependenciesUtils.findRelationsByTgtRelationPosAndLemmas(graph, relations[0],
+									null, lemmas)),
+							toStrings(compact, DependenciesUtils.findRelationsByTgtRelationPosAndLemmas(compact,
+									relations[0], null, lemmas)));
+				}
+
+				@Override
+				public void checkVertex(IndexedWord word, String[] relations, Set<String> relationSet) {
+					int vertex = CompactDependencies.getVertex(word);
+
+					Pair<GrammaticalRelation, IndexedWord> first = DependenciesUtils.getFirstChildByRelation(graph,
+							word, relations);
+					int firstEdge = DependenciesUtils.getFirstChildByRelation(compact, vertex, relations);
+					assertEquals(first == null ? null : CompactDependenciesTest.toString(word, first),
+							firstEdge == CompactDependencies.NO_EDGE ? null
+									: CompactDependenciesTest.toString(compact, firstEdge));
+
+					assertEquals(toStrings(word, DependenciesUtils.getChildRelations(graph, word, relations)),
+							toStrings(compact, DependenciesUtils.getChildRelations(compact, vertex, relations)));
+					assertEquals(
+							toStrings(word,
+									DependenciesUtils.getChildrenByRelationPosAndLemma(graph, word, relationSet, pos,
+											lemmas)),
+							toStrings(compact, DependenciesUtils.getChildrenByRelationPosAndLemma(compact, vertex,
+									relationSet, pos, lemmas)));
+
+					// the first matching child: by dependent for the compact overloads, in the order of
+					// childPairs for the graph overloads
+					List<Pair<GrammaticalRelation, IndexedWord>> posChildren = new ArrayList<>();
+					List<Pair<GrammaticalRelation, IndexedWord>> specificChildren = new ArrayList<>();
+					for (Pair<GrammaticalRelation, IndexedWord> child : graph.childPairs(word)) {
+						if (relationSet.contains(child.first.getShortName()) && pos.contains(child.second.tag())) {
+							posChildren.add(child);
+						}
+						List<String> relationSpecifics = specifics.get(child.first.getShortName());
+						if (relationSpecifics != null && relationSpecifics.contains(child.first.getSpecific())) {
+							specificChildren.add(child);
+						}
+					}
+
+					assertEquals(posChildren.isEmpty() ? null : posChildren.get(0),
+							DependenciesUtils.getFirstChildByRelationAndPos(graph, word, relationSet, pos));
+					assertEquals(getFirstByDependent(word, posChildren), getString(compact,
+							DependenciesUtils.getFirstChildByRelationAndPos(compact, vertex, relationSet, pos)));
+
+					assertEquals(specificChildren.isEmpty() ? null : specificChildren.get(0),
+							DependenciesUtils.getFirstChildByRelationSpecific(graph, word, specifics));
+					assertEquals(getFirstByDependent(word, specificChildren), getString(compact,
+							DependenciesUtils.getFirstChildByRelationSpecific(compact, vertex, specifics)));
+
+					Set<Integer> parents = new TreeSet<>();
+					for (IndexedWord parent : DependenciesUtils.getParentsbyRelation(graph, word, relations)) {
+						parents.add(CompactDependencies.getVertex(parent));
+					}
+					Set<Integer> compactParents = new TreeSet<>();
+					for (int parent : DependenciesUtils.getParentsbyRelation(compact, vertex, relations)) {
+						compactParents.add(parent);
+					}
+					assertEquals(parents, compactParents);
+				}
+
+			};
+		});
+	}
+
+	@Test
+	public void testCompactSentence() {
+		ResultCache previousCache = TextProcessor.getResultCache();
+		TextProcessor.setResultCache(null);
+		try {
+			Sentence sentence = TextProcessor.processTextFullPipeline("I tap the button.", false).get(0);
+			Set<String> edges = toStrings(sentence.getDependencies().edgeListSorted());
+
+			StringDictionary dictionary = new StringDictionary();
+			CompactDependencies compact = sentence.compactDependencies(dictionary);
+			assertNotNull(compact);
+			assertSame(dictionary, compact.getDictionary());
+			assertSame(compact, sentence.getCompactDependencies());
+			assertSame(compact, sentence.compactDependencies(new StringDictionary()));
+
+			// rebuilt on demand
+			assertEquals(edges, toStrings(sentence.getDependencies().edgeListSorted()));
+			assertEquals(DependenciesUtils.findRelationsByTgtRelations(sentence.getDependencies(), "nsubj").size(),
+					DependenciesUtils.findRelationsByTgtRelations(compact, "nsubj").length);
+
+			Sentence copy = ResultCache.copy(Collections.singletonList(sentence)).get(0);
+			assertSame(compact, copy.getCompactDependencies());
+			assertEquals(edges, toStrings(copy.getDependencies().edgeListSorted()));
+
+			// the index of the rebuilt graph is kept
+			assertNotNull(sentence.getDependencyIndex());
+			assertSame(sentence.getDependencyIndex(), sentence.getDependencyIndex());
+
+			sentence.setDependencies(null);
+			assertNull(sentence.getDependencyIndex());
+			assertNull(sentence.getCompactDependencies());
+			assertNull(sentence.getDependencies());
+			assertNull(sentence.compactDependencies(dictionary));
+		} finally {
+			TextProcessor.setResultCache(previousCache);
+		}
+	}
+
+	private static int[] all(CompactDependencies compact) {
+		int[] edges = new int[compact.getNumEdges()];
+		for (int i = 0; i < edges.length; i++) {
+			edges[i] = i;
+		}
+		return edges;
+	}
+
+	private static Set<String> toStrings(List<SemanticGraphEdge> edges) {
+		Set<String> strings = new TreeSet<>();
+		for (SemanticGraphEdge edge : edges) {
+			strings.add(toString(edge.getGovernor(), edge.getRelation(), edge.getDependent()));
+		}
+		return strings;
+	}
+
+	private static Set<String> toStrings(IndexedWord governor, List<Pair<GrammaticalRelation, IndexedWord>> pairs) {
+		Set<String> strings = new TreeSet<>();
+		for (Pair<GrammaticalRelation, IndexedWord> pair : pairs) {
+			strings.add(toString(governor, pair));
+		}
+		return strings;
+	}
+
+	private static Set<String> toStrings(CompactDependencies compact, int[] edges) {
+		List<String> strings = new ArrayList<>();
+		for (int edge : edges) {
+			strings.add(toString(compact, edge));
+		}
+		Set<String> set = new TreeSet<>(strings);
+		assertEquals("repeated edges", strings.size(), set.size());
+		return set;
+	}
+
+	/**
+	 * @return the child with the lowest index, or null if there are none
+	 */
+	private static String getFirstByDependent(IndexedWord governor,
+			List<Pair<GrammaticalRelation, IndexedWord>> children) {
+		Pair<GrammaticalRelation, IndexedWord> first = null;
+		for (Pair<GrammaticalRelation, IndexedWord> child : children) {
+			if (first == null || child.second.index() < first.second.index()) {
+				first = child;
+			}
+		}
+		return first == null ? null : toString(governor, first);
+	}
+
+	/**
+	 * @return the edge, or null if it is {@link CompactDependencies#NO_EDGE}
+	 */
+	private static String getString(CompactDependencies compact, int edge) {
+		return edge == CompactDependencies.NO_EDGE ? null : toString(compact, edge);
+	}
+
+	private static String toString(IndexedWord governor, Pair<GrammaticalRelation, IndexedWord> pair) {
+		return toString(governor, pair.first, pair.second);
+	}
+
+	private static String toString(IndexedWord governor, GrammaticalRelation relation, IndexedWord dependent) {
+		return CompactDependencies.getVertex(governor) + " " + relation + " " + CompactDependencies.getVertex(dependent)
+				+ " " + dependent.tag() + " " + dependent.lemma();
+	}
+
+	private static String toString(CompactDependencies compact, int edge) {
+		String specific = compact.getSpecific(edge);
+		int dependent = compact.getDependent(edge);
+		return compact.getGovernor(edge) + " " + compact.getRelation(edge) + (specific == null ? "" : ":" + specific)
+				+ " " + dependent + " " + compact.getTag(dependent) + " " + compact.getLemma(dependent);
+	}
+
+}
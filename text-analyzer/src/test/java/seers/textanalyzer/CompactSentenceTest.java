@@ -0,0 +1,79 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import seers.textanalyzer.entity.CompactSentence;
+import seers.textanalyzer.entity.Sentence;
+import seers.textanalyzer.entity.StringDictionary;
+import seers.textanalyzer.entity.Token;
+
+public class CompactSentenceTest {
+
+	@Test
+	public void testSameTokens() throws Exception {
+		String text = "The app crashes when I open the app. The app does not crash when I open the settings.";
+		List<Sentence> sentences = TextProcessor.processText(text);
+
+		StringDictionary dictionary = new StringDictionary();
+		List<Sentence> compactSentences = CompactSentence.compact(sentences, dictionary);
+
+		assertEquals(sentences.size(), compactSentences.size());
+		for (int i = 0; i < sentences.size(); i++) {
+			Sentence sentence = sentences.get(i);
+			Sentence compactSentence = compactSentences.get(i);
+
+			assertEquals(sentence.getId(), compactSentence.getId());
+			assertEquals(sentence.getText(), compactSentence.getText());
+			assertEquals(sentence.toString(), compactSentence.toString());
+			assertEquals(TextProcessor.getStringFromLemmas(sentence),
+					TextProcessor.getStringFromLemmas(compactSentence));
+
+			List<Token> tokens = compactSentence.getTokens();
+			for (int j = 0; j < tokens.size(); j++) {
+				Token expected = sentence.getTokens().get(j);
+				Token token = tokens.get(j);
+				assertEquals(expected.getWord(), token.getWord());
+				assertEquals(expected.getGeneralPos(), token.getGeneralPos());
+				assertEquals(expected.getPos(), token.getPos());
+				assertEquals(expected.getLemma(), token.getLemma());
+				assertEquals(expected.getStem(), token.getStem());
+				assertEquals(expected.getIndex(), token.getIndex());
+			}
+		}
+
+		CompactSentence first = (CompactSentence) compactSentences.get(0);
+		CompactSentence second = (CompactSentence) compactSentences.get(1);
+		assertEquals(first.getLemmaId(1), second.getLemmaId(1));
+		assertEquals(first.getPosId(0), second.getPosId(0));
+	}
+
+	@Test
+	public void testDependenciesAndQuotes() throws Exception {
+		String text = "The app shows \"Error: 'file' not found\" when I tap on \"Open\".";
+		Sentence sentence = TextProcessor.processTextFullPipelineAndQuotes(text, true).get(0);
+
+		CompactSentence compactSentence = new CompactSentence(sentence, new StringDictionary());
+		assertSame(sentence.getDependencies(), compactSentence.getDependencies());
+		assertEquals(DependenciesUtils.findRelationsByTgtRelations(sentence.getDependencies(), "nsubj"),
+				DependenciesUtils.findRelationsByTgtRelations(compactSentence.getDependencies(), "nsubj"));
+		assertEquals(2, compactSentence.getQuotes().size());
+		assertEquals(sentence.getQuotes(), compactSentence.getQuotes());
+	}
+
+	@Test
+	public void testNullFields() throws Exception {
+		List<Sentence> sentences = TextProcessor.tokenizeText("It crashes.");
+
+		CompactSentence sentence = new CompactSentence(sentences.get(0), new StringDictionary());
+		assertEquals(StringDictionary.NULL_ID, sentence.getLemmaId(0));
+		assertNull(sentence.getLemma(0));
+		assertNull(sentence.getTokens().get(0).getPos());
+	}
+
+}
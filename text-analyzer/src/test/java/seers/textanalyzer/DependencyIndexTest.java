@@ -0,0 +1,93 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import edu.stanford.nlp.ling.IndexedWord;
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import seers.textanalyzer.DependencyTestCorpus.QueryChecks;
+import seers.textanalyzer.entity.DependencyIndex;
+import seers.textanalyzer.entity.Sentence;
+
+public class DependencyIndexTest {
+
+	@Test
+	public void testSameResults() {
+		List<Sentence> sentences = DependencyTestCorpus.process();
+		assertEquals(3, sentences.size());
+
+		Set<String> pos = DependencyTestCorpus.POS;
+		Set<String> lemmas = DependencyTestCorpus.LEMMAS;
+		Map<String, List<String>> specifics = new HashMap<>();
+		specifics.put("nmod", Arrays.asList("on", "of", "from"));
+		specifics.put("conj", Collections.singletonList("and"));
+
+		DependencyTestCorpus.check(sentences, sentence -> {
+			SemanticGraph graph = sentence.getDependencies();
+			DependencyIndex index = sentence.getDependencyIndex();
+			assertSame(index, sentence.getDependencyIndex());
+
+			return new QueryChecks() {
+
+				@Override
+				public void checkRelations(String[] relations, Set<String> relationSet) {
+					assertEquals(DependenciesUtils.findRelationsByTgtRelations(graph, relations),
+							DependenciesUtils.findRelationsByTgtRelations(index, relations));
+					assertEquals(DependenciesUtils.findRelationsByTgtRelationAndPos(graph, relations[0], "NN"),
+							DependenciesUtils.findRelationsByTgtRelationAndPos(index, relations[0], "NN"));
+					assertEquals(DependenciesUtils.findRelationsByTgtRelationAndPos(graph, relations[0], null),
+							DependenciesUtils.findRelationsByTgtRelationAndPos(index, relations[0], null));
+					assertEquals(
+							DependenciesUtils.findRelationsByTgtRelationPosAndLemmas(graph, relations[0], null,
+									lemmas),
+							DependenciesUtils.findRelationsByTgtRelationPosAndLemmas(index, relations[0], null,
+									lemmas));
+				}
+
+				@Override
+				public void checkVertex(IndexedWord vertex, String[] relations, Set<String> relationSet) {
+					assertEquals(DependenciesUtils.getFirstChildByRelation(graph, vertex, relations),
+							DependenciesUtils.getFirstChildByRelation(index, vertex, relations));
+					assertEquals(DependenciesUtils.getChildRelations(graph, vertex, relations),
+							DependenciesUtils.getChildRelations(index, vertex, relations));
+					assertEquals(DependenciesUtils.getParentsbyRelation(graph, vertex, relations),
+							DependenciesUtils.getParentsbyRelation(index, vertex, relations));
+					assertEquals(DependenciesUtils.getFirstChildByRelationAndPos(graph, vertex, relationSet, pos),
+							DependenciesUtils.getFirstChildByRelationAndPos(index, vertex, relationSet, pos));
+					assertEquals(
+							DependenciesUtils.getChildrenByRelationPosAndLemma(graph, vertex, relationSet, pos,
+									lemmas),
+							DependenciesUtils.getChildrenByRelationPosAndLemma(index, vertex, relationSet, pos,
+									lemmas));
+					assertEquals(DependenciesUtils.getFirstChildByRelationSpecific(graph, vertex, specifics),
+							DependenciesUtils.getFirstChildByRelationSpecific(index, vertex, specifics));
+				}
+
+			};
+		});
+	}
+
+	@Test
+	public void testNoDependencies() {
+		Sentence sentence = TextProcessor.processText("I tap the button.", false).get(0);
+		assertNull(sentence.getDependencyIndex());
+
+		SemanticGraph graph = TextProcessor.processTextFullPipeline("I tap the button.", false).get(0)
+				.getDependencies();
+		sentence.setDependencies(graph);
+		assertEquals(DependenciesUtils.findRelationsByTgtRelations(graph, "nsubj"),
+				sentence.getDependencyIndex().getEdges("nsubj"));
+		assertEquals(0, sentence.getDependencyIndex().getEdges("none").size());
+	}
+
+}
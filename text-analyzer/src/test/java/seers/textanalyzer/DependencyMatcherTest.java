@@ -0,0 +1,131 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import edu.stanford.nlp.ling.IndexedWord;
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import edu.stanford.nlp.trees.GrammaticalRelation;
+import edu.stanford.nlp.util.Pair;
+import seers.textanalyzer.DependencyMatcher.Match;
+import seers.textanalyzer.entity.CompactDependencies;
+import seers.textanalyzer.entity.Sentence;
+import seers.textanalyzer.entity.StringDictionary;
+
+public class DependencyMatcherTest {
+
+	private static final String TEXT = "I tap the button. The app does not save my notes. "
+			+ "When I open the settings, the app shows an error. We downloaded the files from the server. "
+			+ "It crashes.";
+
+	private static final DependencyPattern SVO = new DependencyPattern("svo",
+			DependencyPattern.node("verb").pos("VB", "VBD", "VBP", "VBZ")
+					.child("nsubj", DependencyPattern.node("subject").pos("PRP"))
+					.child("dobj", DependencyPattern.node("object").pos("NN", "NNS")));
+
+	private static final DependencyPattern NEGATED = new DependencyPattern("negated",
+			DependencyPattern.node("verb").lemmas("save", "show").child("neg", DependencyPattern.node()));
+
+	private static final DependencyPattern NOT_NEGATED = new DependencyPattern("notNegated",
+			DependencyPattern.node("verb").lemmas("save", "show").without("neg"));
+
+	@Test
+	public void testPatterns() {
+		List<Sentence> sentences = TextProcessor.processTextFullPipeline(TEXT, false);
+		DependencyMatcher matcher = new DependencyMatcher(SVO, NEGATED, NOT_NEGATED);
+		List<List<Match>> matches = matcher.match(sentences);
+		assertEquals(sentences.size(), matches.size());
+
+		List<String> svo = new ArrayList<>();
+		List<String> negated = new ArrayList<>();
+		List<String> notNegated = new ArrayList<>();
+		for (List<Match> sentenceMatches : matches) {
+			for (Match match : sentenceMatches) {
+				String verb = match.getWord("verb");
+				if (match.getPattern() == SVO) {
+					svo.add(match.getWord("subject") + " " + verb + " " + match.getWord("object"));
+				} else if (match.getPattern() == NEGATED) {
+					negated.add(verb);
+				} else {
+					notNegated.add(verb);
+				}
+			}
+		}
+
+		assertEquals(Arrays.asList("I tap button", "I open settings", "We downloaded files"), svo);
+		assertEquals(Arrays.asList("save"), negated);
+		assertEquals(Arrays.asList("shows"), notNegated);
+	}
+
+	@Test
+	public void testSameAsUtils() {
+		List<Sentence> sentences = TextProcessor.processTextFullPipeline(TEXT, false);
+		Set<String> verbs = new HashSet<>(Arrays.asList("VB", "VBD", "VBP", "VBZ"));
+		DependencyMatcher matcher = new DependencyMatcher(SVO);
+
+		for (Sentence sentence : sentences) {
+			// the same pattern, chained by hand
+			Set<String> expected = new HashSet<>();
+			SemanticGraph graph = sentence.getDependencies();
+			for (IndexedWord verb : graph.vertexSet()) {
+				if (!verbs.contains(verb.tag())) {
+					continue;
+				}
+				Pair<GrammaticalRelation, IndexedWord> subject = DependenciesUtils.getFirstChildByRelationAndPos(graph,
+						verb, new HashSet<>(Arrays.asList("nsubj")), new HashSet<>(Arrays.asList("PRP")));
+				Pair<GrammaticalRelation, IndexedWord> object = DependenciesUtils.getFirstChildByRelationAndPos(graph,
+						verb, new HashSet<>(Arrays.asList("dobj")), new HashSet<>(Arrays.asList("NN", "NNS")));
+				if (subject != null && object != null) {
+					expected.add(verb.index() + " " + subject.second.index() + " " + object.second.index());
+				}
+			}
+
+			Set<String> actual = new HashSet<>();
+			for (Match match : matcher.match(sentence)) {
+				actual.add(index(match, "verb") + " " + index(match, "subject") + " " + index(match, "object"));
+			}
+			assertEquals(expected, actual);
+		}
+	}
+
+	@Test
+	public void testParallel() {
+		List<Sentence> sentences = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			sentences.addAll(TextProcessor.processTextFullPipeline(TEXT, false));
+		}
+		// compacted and graph-based sentences give the same matches
+		StringDictionary dictionary = new StringDictionary();
+		for (int i = 0; i < sentences.size(); i += 2) {
+			sentences.get(i).compactDependencies(dictionary);
+		}
+
+		DependencyMatcher matcher = new DependencyMatcher(SVO, NEGATED, NOT_NEGATED);
+		List<List<Match>> matches = matcher.match(sentences);
+		List<List<Match>> parallelMatches = matcher.matchParallel(sentences);
+		assertEquals(toStrings(matches), toStrings(parallelMatches));
+		assertEquals(toStrings(matches.subList(0, 5)), toStrings(matches.subList(5, 10)));
+		assertTrue(matcher.match(new Sentence("0")).isEmpty());
+	}
+
+	private static int index(Match match, String node) {
+		return CompactDependencies.getTokenIndex(match.getVertex(node));
+	}
+
+	private static List<String> toStrings(List<List<Match>> matches) {
+		List<String> strings = new ArrayList<>();
+		for (List<Match> sentenceMatches : matches) {
+			strings.add(sentenceMatches.toString());
+		}
+		return strings;
+	}
+
+}
@@ -0,0 +1,76 @@
+package seers.textanalyzer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import edu.stanford.nlp.ling.IndexedWord;
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import seers.textanalyzer.entity.Sentence;
+
+/**
+ * Sentences, relations, POS tags and lemmas shared by the tests that check
+ * that the overloads of the DependenciesUtils queries give the same results
+ */
+class DependencyTestCorpus {
+
+	static final String TEXT = "When I tap on the Save button of the settings screen, the app crashes and closes. "
+			+ "I can't save my notes or open the files that I downloaded from the server. "
+			+ "The user should be able to see the list of recent files, which is empty.";
+
+	static final String[][] RELATIONS = { { "nsubj" }, { "dobj", "nmod" }, { "nsubj", "dobj", "nmod", "amod" },
+			{ "det", "case", "aux", "neg", "conj", "cc" }, { "none" } };
+
+	static final Set<String> POS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("NN", "NNS", "VB", "PRP")));
+
+	static final Set<String> LEMMAS = Collections
+			.unmodifiableSet(new HashSet<>(Arrays.asList("app", "note", "file", "I", "server", "list")));
+
+	/**
+	 * @return the sentences of {@link #TEXT}, with dependencies
+	 */
+	static List<Sentence> process() {
+		return TextProcessor.processTextFullPipeline(TEXT, true);
+	}
+
+	/**
+	 * Runs the checks of every sentence with all the {@link #RELATIONS}, and
+	 * with every vertex of the sentence
+	 *
+	 * @param sentences
+	 *            with dependencies
+	 * @param checks
+	 *            of a sentence, created once per sentence
+	 */
+	static void check(List<Sentence> sentences, Function<Sentence, QueryChecks> checks) {
+		for (Sentence sentence : sentences) {
+			SemanticGraph graph = sentence.getDependencies();
+			QueryChecks sentenceChecks = checks.apply(sentence);
+
+			for (String[] relations : RELATIONS) {
+				Set<String> relationSet = new HashSet<>(Arrays.asList(relations));
+				sentenceChecks.checkRelations(relations, relationSet);
+
+				for (IndexedWord vertex : graph.vertexSet()) {
+					sentenceChecks.checkVertex(vertex, relations, relationSet);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Assertions on the queries of a sentence
+	 */
+	interface QueryChecks {
+
+		default void checkRelations(String[] relations, Set<String> relationSet) {
+		}
+
+		void checkVertex(IndexedWord vertex, String[] relations, Set<String> relationSet);
+
+	}
+
+}
@@ -0,0 +1,103 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import seers.textanalyzer.MappedCorpus.DocumentView;
+import seers.textanalyzer.MappedCorpus.SentenceView;
+import seers.textanalyzer.entity.Sentence;
+import seers.textanalyzer.entity.Token;
+
+public class MappedCorpusTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testReadDocuments() throws Exception {
+		List<List<Sentence>> documents = new ArrayList<>();
+		documents.add(TextProcessor.processText("When I tap on the Save button, the app crashes. I can't save.", true));
+		documents.add(new ArrayList<>());
+		documents.add(TextProcessor.tokenizeText("The app crashes."));
+		documents.add(TextProcessor.processText("Überprüfen Sie die Einstellungen, bitte.", false));
+
+		File file = folder.newFile("corpus.bin");
+		try (CorpusWriter writer = new CorpusWriter(file)) {
+			writer.write("doc0", documents.get(0));
+			writer.write("doc1", documents.get(1));
+			writer.write(null, documents.get(2));
+			writer.write("doc3", documents.get(3));
+		}
+
+		// tiny segments split the strings between segments
+		for (int segmentBits : new int[] { 6, MappedCorpus.DEFAULT_SEGMENT_BITS }) {
+			try (MappedCorpus corpus = new MappedCorpus(file, segmentBits)) {
+				assertEquals(documents.size(), corpus.getNumDocuments());
+				for (int i = 0; i < documents.size(); i++) {
+					assertDocument(documents.get(i), corpus.getDocument(i));
+				}
+
+				assertEquals("doc0", corpus.getDocument(0).getId());
+				assertNull(corpus.getDocument(2).getId());
+				assertEquals(3, corpus.getDocument("doc3").getPosition());
+				assertEquals(0, corpus.getDocument("doc1").getNumSentences());
+				assertNull(corpus.getDocument("doc2"));
+				assertNull(corpus.getDocument((String) null));
+			}
+		}
+	}
+
+	@Test
+	public void testLookupManyDocuments() throws Exception {
+		List<Sentence> sentences = TextProcessor.tokenizeText("The app crashes.");
+
+		File file = folder.newFile("corpus.bin");
+		try (CorpusWriter writer = new CorpusWriter(file)) {
+			for (int i = 0; i < 1000; i++) {
+				writer.write("doc" + i, sentences);
+			}
+		}
+
+		try (MappedCorpus corpus = new MappedCorpus(file)) {
+			for (int i = 0; i < 1000; i++) {
+				DocumentView document = corpus.getDocument("doc" + i);
+				assertEquals(i, document.getPosition());
+				assertEquals(4, document.getNumTokens());
+			}
+			assertNull(corpus.getDocument("doc1000"));
+			assertTrue(corpus.getNumStrings() > 1000);
+		}
+	}
+
+	private void assertDocument(List<Sentence> sentences, DocumentView document) {
+		assertEquals(sentences.size(), document.getNumSentences());
+		for (int i = 0; i < sentences.size(); i++) {
+			List<Token> tokens = sentences.get(i).getTokens();
+			SentenceView sentence = document.getSentence(i);
+
+			assertEquals(tokens.size(), sentence.getNumTokens());
+			for (int j = 0; j < tokens.size(); j++) {
+				Token token = tokens.get(j);
+				assertEquals(token.getWord(), sentence.getWord(j));
+				assertEquals(token.getGeneralPos(), sentence.getGeneralPos(j));
+				assertEquals(token.getPos(), sentence.getPos(j));
+				assertEquals(token.getLemma(), sentence.getLemma(j));
+				assertEquals(token.getStem(), sentence.getStem(j));
+				assertEquals(token.getBeginPosition(), sentence.getBeginPosition(j));
+				assertEquals(token.getEndPosition(), sentence.getEndPosition(j));
+				assertEquals(token.getIndex(), sentence.getIndex(j));
+			}
+			assertEquals(sentences.get(i).toString(), sentence.toSentence().toString());
+		}
+	}
+
+}
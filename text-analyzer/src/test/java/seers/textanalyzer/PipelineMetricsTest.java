@@ -0,0 +1,114 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.management.MBeanServer;
+
+import org.junit.After;
+import org.junit.Test;
+
+import seers.textanalyzer.MetricsListener.Cache;
+import seers.textanalyzer.MetricsListener.Stage;
+import seers.textanalyzer.entity.Sentence;
+
+public class PipelineMetricsTest {
+
+	private final ResultCache previousCache = TextProcessor.getResultCache();
+
+	@After
+	public void tearDown() {
+		TextProcessor.setMetricsListener(null);
+		TextProcessor.setResultCache(previousCache);
+	}
+
+	@Test
+	public void testStages() {
+		PipelineMetrics metrics = new PipelineMetrics();
+		TextProcessor.setMetricsListener(metrics);
+		TextProcessor.setResultCache(new ResultCache(10000));
+
+		PreprocessingOptions options = new PreprocessingOptions(true, true, true, 3, true, true);
+		List<String> stopWords = Arrays.asList("the");
+		String text = "The saveButton crashes the app. It does not start again.";
+		List<Sentence> sentences = TextProcessor.preprocessText(text, stopWords, options);
+		TextProcessor.preprocessText(text, stopWords, options);
+
+		int numTokens = TextProcessor.getAllTokens(sentences).size();
+		assertEquals(2, metrics.getDocuments());
+		assertEquals(2 * sentences.size(), metrics.getSentences());
+		assertEquals(2 * numTokens, metrics.getTokens());
+
+		// the second time, the text is in the cache
+		assertEquals(1, metrics.getStage(Stage.ANNOTATE).getCount());
+		assertEquals(1, metrics.getStage(Stage.BUILD).getCount());
+		assertEquals(2, metrics.getStage(Stage.CAMEL_CASE).getCount());
+		// once per sentence
+		assertEquals(sentences.size(), metrics.getStage(Stage.FILTER).getCount());
+		assertEquals(sentences.size(), metrics.getStage(Stage.STEM).getCount());
+		assertEquals(0.5, metrics.getCacheHitRate(Cache.RESULT), 0);
+		assertTrue(metrics.getStage(Stage.ANNOTATE).getTotalNanos() > 0);
+
+		TextProcessor.setMetricsListener(null);
+		TextProcessor.processText(text, false);
+		assertEquals(2, metrics.getDocuments());
+	}
+
+	@Test
+	public void testRegister() throws Exception {
+		PipelineMetrics metrics = new PipelineMetrics();
+		metrics.documentProcessed(2, 10, 1_000_000);
+		metrics.stageCompleted(Stage.STEM, 3_000_000);
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		metrics.register();
+		try {
+			assertEquals(10L, server.getAttribute(PipelineMetrics.getObjectName(null), "Tokens"));
+			assertEquals(1L, server.getAttribute(PipelineMetrics.getObjectName("STEM"), "Count"));
+			assertEquals(3.0, (Double) server.getAttribute(PipelineMetrics.getObjectName("STEM"), "MaxMillis"), 0);
+		} finally {
+			metrics.unregister();
+		}
+		assertFalse(server.isRegistered(PipelineMetrics.getObjectName(null)));
+	}
+
+	@Test
+	public void testHistogram() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000L);
+		}
+
+		assertEquals(1000, histogram.getCount());
+		assertEquals(1_000_000, histogram.getMaxNanos());
+		assertEquals(500_500_000, histogram.getTotalNanos());
+		// at most 25% over the actual percentiles
+		assertBetween(500_000, 625_000, histogram.getPercentile(50));
+		assertBetween(990_000, 1_000_000, histogram.getPercentile(99));
+		assertEquals(1_000_000, histogram.getPercentile(100));
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getPercentile(50));
+	}
+
+	@Test
+	public void testBuckets() {
+		for (long value = 0; value < 100_000; value++) {
+			int bucket = LatencyHistogram.getBucket(value);
+			assertTrue(value <= LatencyHistogram.getBucketMax(bucket));
+			assertTrue(bucket == 0 || value > LatencyHistogram.getBucketMax(bucket - 1));
+		}
+		assertEquals(Long.MAX_VALUE, LatencyHistogram.getBucketMax(LatencyHistogram.getBucket(Long.MAX_VALUE)));
+	}
+
+	private void assertBetween(long min, long max, long value) {
+		assertTrue(value + " not in [" + min + ", " + max + "]", value >= min && value <= max);
+	}
+
+}
@@ -0,0 +1,113 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import edu.stanford.nlp.ling.CoreAnnotations.SentencesAnnotation;
+import edu.stanford.nlp.pipeline.Annotation;
+
+public class PipelinePoolTest {
+
+	@Test
+	public void testAnnotateConcurrently() throws Exception {
+		PipelinePool pool = new PipelinePool(PipelinePool.createProperties("tokenize, ssplit"), 2,
+				PipelinePool.Mode.BORROW, true);
+
+		ExecutorService executor = Executors.newFixedThreadPool(6);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < 30; i++) {
+				results.add(executor.submit(() -> {
+					Annotation document = new Annotation("The app crashes. It does not start again.");
+					pool.annotate(document);
+					return document.get(SentencesAnnotation.class).size();
+				}));
+			}
+
+			for (Future<Integer> result : results) {
+				assertEquals(Integer.valueOf(2), result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertTrue(pool.getCreatedPipelines() <= 2);
+	}
+
+	@Test
+	public void testMap() throws Exception {
+		PipelinePool pool = new PipelinePool(PipelinePool.createProperties("tokenize, ssplit"), 3,
+				PipelinePool.Mode.BORROW, true);
+
+		List<String> texts = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			StringBuilder text = new StringBuilder();
+			for (int j = 0; j <= i; j++) {
+				text.append("The app crashes. ");
+			}
+			texts.add(text.toString());
+		}
+
+		List<Integer> numSentences = pool.map(texts, text -> {
+			Annotation document = new Annotation(text);
+			pool.annotate(document);
+			return document.get(SentencesAnnotation.class).size();
+		});
+
+		for (int i = 0; i < texts.size(); i++) {
+			assertEquals(Integer.valueOf(i + 1), numSentences.get(i));
+		}
+		assertTrue(pool.getCreatedPipelines() <= 3);
+	}
+
+	@Test
+	public void testMapPerThread() throws Exception {
+		PipelinePool pool = new PipelinePool(PipelinePool.createProperties("tokenize, ssplit"), 3,
+				PipelinePool.Mode.PER_THREAD, true);
+
+		List<String> texts = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			texts.add("The app crashes. It does not start again.");
+		}
+
+		// the caller and at most 2 helpers
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		List<Integer> numSentences = pool.map(texts, text -> {
+			threads.add(Thread.currentThread());
+			Annotation document = new Annotation(text);
+			pool.annotate(document);
+			return document.get(SentencesAnnotation.class).size();
+		});
+
+		for (Integer num : numSentences) {
+			assertEquals(Integer.valueOf(2), num);
+		}
+		assertTrue(threads.contains(Thread.currentThread()));
+		assertTrue(threads.size() <= 3);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testMapError() throws Exception {
+		PipelinePool pool = new PipelinePool(PipelinePool.createProperties("tokenize, ssplit"), 3,
+				PipelinePool.Mode.BORROW, true);
+
+		pool.map(Arrays.asList("a", "b", "c", "d"), text -> {
+			if (text.equals("c")) {
+				throw new IllegalStateException(text);
+			}
+			return text;
+		});
+	}
+
+}
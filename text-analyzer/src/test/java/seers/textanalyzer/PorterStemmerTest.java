@@ -0,0 +1,55 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class PorterStemmerTest {
+
+	private static final String[] WORDS = { "caresses", "ponies", "ties", "caress", "cats", "feed", "agreed",
+			"disabled", "matting", "mating", "meeting", "milling", "messing", "meetings", "happy", "relational",
+			"conditional", "rational", "valenci", "hesitanci", "digitizer", "conformabli", "radicalli",
+			"differentli", "vileli", "analogousli", "vietnamization", "predication", "operator", "feudalism",
+			"decisiveness", "hopefulness", "callousness", "formaliti", "sensitiviti", "sensibiliti", "triplicate",
+			"formative", "formalize", "electriciti", "electrical", "hopeful", "goodness", "revival", "allowance",
+			"inference", "airliner", "gyroscopic", "adjustable", "defensible", "irritant", "replacement",
+			"adjustment", "dependent", "adoption", "homologou", "communism", "activate", "angulariti", "homologous",
+			"effective", "bowdlerize", "probate", "rate", "cease", "controll", "roll", "a", "is", "",
+			"internationalizations", "supercalifragilisticexpialidociousnesses_and_a_few_more_characters" };
+
+	private static String stemOneByOne(String word) {
+		PorterStemmer stemmer = new PorterStemmer();
+		for (int j = 0; j < word.length(); j++)
+			stemmer.add(word.charAt(j));
+		stemmer.stem();
+		return stemmer.toString();
+	}
+
+	@Test
+	public void testReusableStemmer() {
+		PorterStemmer stemmer = new PorterStemmer();
+		char[] dst = new char[100];
+		StringBuilder sb = new StringBuilder();
+
+		for (String word : WORDS) {
+			String expected = stemOneByOne(word);
+
+			String text = "<<" + word + ">>";
+			int length = stemmer.stem(text, 2, word.length());
+			assertEquals(expected, new String(stemmer.getResultBuffer(), 0, length));
+
+			length = stemmer.stem(text.toCharArray(), 2, word.length());
+			assertEquals(length, stemmer.getResult(dst, 0));
+			assertEquals(expected, new String(dst, 0, length));
+
+			sb.setLength(0);
+			stemmer.stem(new StringBuilder(text), 2, word.length());
+			assertEquals(expected, stemmer.getResult(sb).toString());
+
+			sb.setLength(0);
+			assertEquals(expected, GeneralStemmer.stemmingPorter(text, 2, word.length(), sb).toString());
+			assertEquals(expected, GeneralStemmer.stemmingPorter(word));
+		}
+	}
+
+}
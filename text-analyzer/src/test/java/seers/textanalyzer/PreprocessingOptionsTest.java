@@ -0,0 +1,42 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PreprocessingOptionsTest {
+
+	@Test
+	public void testOf() {
+		PreprocessingOptions options = PreprocessingOptions.of("-p -n -s 4 -cc");
+
+		assertTrue(options.removePunctuation());
+		assertTrue(options.removeNumbers());
+		assertTrue(options.removeShortTokens());
+		assertEquals(4, options.getTokenMinLength());
+		assertFalse(options.removeSpecialCharTokens());
+		assertTrue(options.splitCamelCase());
+
+		assertSame(options, PreprocessingOptions.of("-p -n -s 4 -cc"));
+		assertEquals(options, PreprocessingOptions.of(options.toString()));
+	}
+
+	@Test
+	public void testDefaultOptions() {
+		PreprocessingOptions options = PreprocessingOptions.of(PreprocessingOptionsParser.getDefaultOptions());
+
+		assertTrue(options.removeShortTokens());
+		assertEquals(3, options.getTokenMinLength());
+		assertTrue(options.removeSpecialCharTokens());
+		assertEquals(PreprocessingOptionsParser.getDefaultOptions(), options.toString());
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testInvalidMinLength() {
+		PreprocessingOptions.of("-s 0");
+	}
+
+}
@@ -1,13 +1,27 @@
 package seers.textanalyzer;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.util.Random;
+
 import org.junit.Test;
 
 import seers.textanalyzer.QuoteProcessor.Quotes;
 
 public class QuoteProcessorTest {
 
+	private static final String[] TXTS = {
+			"Now again selected \" Export view to csv\"",
+			"You'll be presented with a chance to enter a ZIP and mileage radius: enter 87110 and leave the default radius at '50'.",
+			"if(getip(`document.referrer`)==\"www.'eg.'com\" || getip('document.referrer')==\"192.57.42.11\"",
+			"App crashes with the following stack traces when \"Maximum Score\" is the character \"-\" or is a big number.",
+			"This is a test", "\"This is a test\"",
+			"\" not end quote",
+			"The app shows \"Error: 'file' not found\" when I tap on \"Open\".",
+			"Tap \"a\" and \"a\" again, then 'don't go' and ''.",
+			"Type \"say 'hi' now\", \"QUT1\" or `QUT2`... and \"'\" \"\"\"" };
+
 	@Test
 	public void test() {
 		String[] txts = {
@@ -34,4 +48,44 @@ public class QuoteProcessorTest {
 		}
 	}
 
+	@Test
+	public void testSameAsLegacy() {
+		for (String txt : TXTS) {
+			assertSameAsLegacy(txt);
+		}
+	}
+
+	@Test
+	public void testSameAsLegacyRandom() {
+		String[] pieces = { "'", "\"", "`", " ", " ", " ", "a", "bc", "QUT", "1", ".", ",!", "?", "\n", "(", ")",
+				"'.", "\"", "don't" };
+		Random random = new Random(42);
+		for (int i = 0; i < 20000; i++) {
+			StringBuilder txt = new StringBuilder();
+			int length = 1 + random.nextInt(30);
+			for (int j = 0; j < length; j++) {
+				txt.append(pieces[random.nextInt(pieces.length)]);
+			}
+			assertSameAsLegacy(txt.toString());
+		}
+	}
+
+	@Test(timeout = 2000)
+	public void testManyQuotes() {
+		StringBuilder txt = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			// the unclosed quotes used to be scanned to the end of the text
+			txt.append("'unclosed \"value ").append(i).append("\" and `cmd` ");
+		}
+
+		Quotes quotes = new QuoteProcessor().processSentence(txt.toString());
+
+		assertEquals(2000, quotes.quotesMap.size());
+	}
+
+	private void assertSameAsLegacy(String txt) {
+		String expected = new LegacyQuoteProcessor().processSentence(txt).toString();
+		assertEquals(txt, expected, new QuoteProcessor().processSentence(txt).toString());
+	}
+
 }
@@ -0,0 +1,102 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import seers.textanalyzer.entity.Sentence;
+
+public class ResultCacheTest {
+
+	@Test
+	public void testDefensiveCopies() throws Exception {
+		ResultCache cache = new ResultCache(1000);
+		List<Sentence> sentences = cache.get("The app crashes.", "tokenize", null, TextProcessor::tokenizeText);
+		String expected = sentences.toString();
+
+		sentences.get(0).getTokens().get(0).setWord("A");
+		List<Sentence> cachedSentences = cache.get("The app crashes.", "tokenize", null,
+				TextProcessor::tokenizeText);
+		assertEquals(expected, cachedSentences.toString());
+
+		cachedSentences.get(0).getTokens().clear();
+		assertEquals(expected, cache.get("The app crashes.", "tokenize", null, TextProcessor::tokenizeText).toString());
+
+		assertEquals(2, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		// 4 tokens, 1 sentence, 1 entry
+		assertEquals(6, cache.getWeight());
+	}
+
+	@Test
+	public void testDocumentNearLimit() throws Exception {
+		String text = "The app crashes when I tap on the Save button of the settings screen. "
+				+ "I can't save my notes or open the files that I downloaded from the server.";
+		int weight = 1;
+		for (Sentence sentence : TextProcessor.tokenizeText(text)) {
+			weight += 1 + sentence.getTokens().size();
+		}
+
+		// far more than a sixteenth of the cache
+		ResultCache cache = new ResultCache(weight + 1);
+		cache.get(text, "tokenize", null, TextProcessor::tokenizeText);
+		assertEquals(1, cache.size());
+		assertEquals(weight, cache.getWeight());
+		cache.get(text, "tokenize", null, TextProcessor::tokenizeText);
+		assertEquals(1, cache.getHits());
+
+		// the least recently used entry is evicted to make room
+		cache.get("The app crashes.", "tokenize", null, TextProcessor::tokenizeText);
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertTrue(cache.getWeight() <= cache.getMaxWeight());
+	}
+
+	@Test
+	public void testModifiedStopWords() throws Exception {
+		ResultCache cache = new ResultCache(1000);
+		StopWords stopWords = StopWords.of(Arrays.asList("the"));
+		cache.get("The app crashes.", "-p", stopWords, t -> TextProcessor.preprocessText(t, stopWords, "-p"));
+		cache.get("The app crashes.", "-p", stopWords, t -> TextProcessor.preprocessText(t, stopWords, "-p"));
+		assertEquals(1, cache.getHits());
+
+		stopWords.add("app");
+		List<Sentence> sentences = cache.get("The app crashes.", "-p", stopWords,
+				t -> TextProcessor.preprocessText(t, stopWords, "-p"));
+		assertEquals(1, cache.getHits());
+		assertFalse(TextProcessor.getStringFromLemmas(sentences.get(0)).contains("app"));
+	}
+
+	@Test
+	public void testTextProcessorCache() throws Exception {
+		ResultCache previousCache = TextProcessor.getResultCache();
+		ResultCache cache = new ResultCache(10000);
+		TextProcessor.setResultCache(cache);
+		try {
+			List<String> stopWords = Arrays.asList("the");
+			List<Sentence> sentences = TextProcessor.preprocessText("The app crashes.", stopWords, "-p");
+			List<Sentence> cachedSentences = TextProcessor.preprocessText("The app crashes.", stopWords, "-p");
+			assertEquals(sentences.toString(), cachedSentences.toString());
+			assertNotSame(sentences.get(0), cachedSentences.get(0));
+			assertEquals(1, cache.getHits());
+
+			// other stop words, other options
+			TextProcessor.preprocessText("The app crashes.", Arrays.asList("the"), "-p");
+			TextProcessor.preprocessText("The app crashes.", stopWords, "-p -n");
+			assertEquals(1, cache.getHits());
+
+			TextProcessor.processText("The app crashes.");
+			TextProcessor.processText("The app crashes.");
+			assertEquals(2, cache.getHits());
+		} finally {
+			TextProcessor.setResultCache(previousCache);
+		}
+	}
+
+}
@@ -0,0 +1,111 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import seers.textanalyzer.entity.DocumentResult;
+import seers.textanalyzer.entity.Sentence;
+
+public class SentenceCodecTest {
+
+	@Test
+	public void testRoundTripWithDependencies() throws Exception {
+		List<Sentence> sentences = TextProcessor.processTextFullPipeline(
+				"When I tap on the \"Save\" button, the app crashes and closes. I can't save my notes.", true);
+
+		List<Sentence> decoded = roundTrip(sentences);
+
+		assertEquals(sentences.size(), decoded.size());
+		for (int i = 0; i < sentences.size(); i++) {
+			Sentence sentence = sentences.get(i);
+			Sentence decodedSentence = decoded.get(i);
+
+			assertEquals(sentence.getId(), decodedSentence.getId());
+			assertEquals(sentence.getText(), decodedSentence.getText());
+			assertEquals(sentence.toString(), decodedSentence.toString());
+			for (int j = 0; j < sentence.getTokens().size(); j++) {
+				assertEquals(sentence.getTokens().get(j).getStem(), decodedSentence.getTokens().get(j).getStem());
+				assertEquals(sentence.getTokens().get(j).getIndex(), decodedSentence.getTokens().get(j).getIndex());
+			}
+
+			SemanticGraph dependencies = sentence.getDependencies();
+			SemanticGraph decodedDependencies = decodedSentence.getDependencies();
+			assertEquals(dependencies.toString(SemanticGraph.OutputFormat.LIST),
+					decodedDependencies.toString(SemanticGraph.OutputFormat.LIST));
+			assertEquals(dependencies.getFirstRoot(), decodedDependencies.getFirstRoot());
+			assertEquals(DependenciesUtils.findRelationsByTgtRelations(dependencies, "nsubj", "dobj", "nmod"),
+					DependenciesUtils.findRelationsByTgtRelations(decodedDependencies, "nsubj", "dobj", "nmod"));
+		}
+	}
+
+	@Test
+	public void testRoundTripWithoutTags() throws Exception {
+		List<Sentence> sentences = TextProcessor.tokenizeText("The app crashes.");
+
+		List<Sentence> decoded = roundTrip(sentences);
+
+		assertEquals(sentences.toString(), decoded.toString());
+		assertNull(decoded.get(0).getTokens().get(0).getLemma());
+		assertNull(decoded.get(0).getDependencies());
+	}
+
+	@Test
+	public void testStreamWithQuotes() throws Exception {
+		List<List<Sentence>> documents = new ArrayList<>();
+		documents.add(TextProcessor.processTextFullPipelineAndQuotes(
+				"The app shows \"Error: 'file' not found\" when I tap on \"Open\".", false));
+		documents.add(TextProcessor.tokenizeText("The app crashes."));
+		documents.add(new ArrayList<>());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (SentenceCodec.DocumentWriter writer = new SentenceCodec.DocumentWriter(out)) {
+			for (int i = 0; i < documents.size(); i++) {
+				writer.write("doc" + i, documents.get(i));
+			}
+		}
+
+		try (SentenceCodec.DocumentReader reader = new SentenceCodec.DocumentReader(
+				new ByteArrayInputStream(out.toByteArray()))) {
+			for (int i = 0; i < documents.size(); i++) {
+				DocumentResult document = reader.read();
+				assertEquals("doc" + i, document.getId());
+				assertEquals(i, document.getPosition());
+				assertSameSentences(documents.get(i), document.getSentences());
+			}
+			assertNull(reader.read());
+		}
+	}
+
+	private static void assertSameSentences(List<Sentence> expected, List<Sentence> sentences) {
+		assertEquals(expected.toString(), sentences.toString());
+		for (int i = 0; i < expected.size(); i++) {
+			Sentence expectedSentence = expected.get(i);
+			Sentence sentence = sentences.get(i);
+			assertEquals(expectedSentence.getText(), sentence.getText());
+			if (expectedSentence.getDependencies() != null) {
+				assertEquals(expectedSentence.getDependencies().toString(SemanticGraph.OutputFormat.LIST),
+						sentence.getDependencies().toString(SemanticGraph.OutputFormat.LIST));
+			}
+
+			assertEquals(expectedSentence.getQuotes().keySet(), sentence.getQuotes().keySet());
+			for (String quoteKey : expectedSentence.getQuotes().keySet()) {
+				assertSameSentences(expectedSentence.getQuotes().get(quoteKey), sentence.getQuotes().get(quoteKey));
+			}
+		}
+	}
+
+	private static List<Sentence> roundTrip(List<Sentence> sentences) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		SentenceCodec.write(sentences, out);
+		return SentenceCodec.read(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+}
@@ -0,0 +1,116 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import seers.textanalyzer.entity.Sentence;
+import seers.textanalyzer.entity.Token;
+
+public class SentenceIteratorTest {
+
+	private static final String TEXT = "The app crashes when I tap the \"Save\" button. It does not start again!\n\n"
+			+ "Steps to reproduce: 1) open the app; 2) tap on Settings (the gear icon). "
+			+ "Expected: the settings are shown. Actual: java.lang.NullPointerException at "
+			+ "org.app.SettingsActivity.onCreate(SettingsActivity.java:42)\n"
+			+ "I am using version 2.3.1 on Android 7. Please fix it ASAP.";
+
+	@Test
+	public void testSameAsWholeText() throws Exception {
+		for (int chunkSize : new int[] { 60, 97, 150, 100000 }) {
+			assertSameSentences(TokenField.SURFACE, chunkSize);
+			assertSameSentences(TokenField.TAGGED, chunkSize);
+		}
+	}
+
+	@Test
+	public void testSplitLongSentences() throws Exception {
+		List<Sentence> sentences;
+		try (Stream<Sentence> stream = TextProcessor.streamText(new StringReader(TEXT), TokenField.SURFACE, false,
+				10)) {
+			sentences = stream.collect(Collectors.toList());
+		}
+
+		int lastEnd = 0;
+		for (int i = 0; i < sentences.size(); i++) {
+			assertEquals(String.valueOf(i), sentences.get(i).getId());
+			for (Token token : sentences.get(i).getTokens()) {
+				assertTrue(token.getBeginPosition() >= lastEnd);
+				assertTrue(token.getEndPosition() <= TEXT.length());
+				lastEnd = token.getEndPosition();
+			}
+		}
+		assertEquals(TEXT.length(), lastEnd);
+	}
+
+	@Test
+	public void testSentenceAfterLongSentence() throws Exception {
+		String text = "Exception in thread main java.lang.NullPointerException at org.app.A.b(A.java:1) "
+				+ "at org.app.C.d(C.java:2) at org.app.E.f(E.java:3) at org.app.G.h(G.java:4) "
+				+ "at org.app.I.j(I.java:5) The app closes.";
+
+		List<Sentence> sentences;
+		try (Stream<Sentence> stream = TextProcessor.streamText(new StringReader(text), TokenField.SURFACE, false,
+				30)) {
+			sentences = stream.collect(Collectors.toList());
+		}
+
+		// only the long sentence is split
+		List<Sentence> expected = TextProcessor.processText(text, TokenField.SURFACE);
+		Sentence expectedLast = expected.get(expected.size() - 1);
+		Sentence last = sentences.get(sentences.size() - 1);
+		assertEquals(expectedLast.getText(), last.getText());
+		assertEquals(expectedLast.getTokens().size(), last.getTokens().size());
+		for (int i = 0; i < last.getTokens().size(); i++) {
+			assertEquals(expectedLast.getTokens().get(i).getWord(), last.getTokens().get(i).getWord());
+			assertEquals(expectedLast.getTokens().get(i).getBeginPosition(),
+					last.getTokens().get(i).getBeginPosition());
+		}
+	}
+
+	@Test
+	public void testEmptyText() throws Exception {
+		try (SentenceIterator iterator = new SentenceIterator(new StringReader(""), TokenField.SURFACE, false)) {
+			assertFalse(iterator.hasNext());
+		}
+	}
+
+	private static void assertSameSentences(Set<TokenField> fields, int chunkSize) {
+		List<Sentence> expected = TextProcessor.processText(TEXT, fields);
+
+		List<Sentence> sentences;
+		try (Stream<Sentence> stream = TextProcessor.streamText(new StringReader(TEXT), fields, false, chunkSize)) {
+			sentences = stream.collect(Collectors.toList());
+		}
+
+		assertEquals(expected.size(), sentences.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Sentence expectedSentence = expected.get(i);
+			Sentence sentence = sentences.get(i);
+
+			assertEquals(expectedSentence.getId(), sentence.getId());
+			assertEquals(expectedSentence.getText(), sentence.getText());
+			assertEquals(expectedSentence.getTokens().size(), sentence.getTokens().size());
+
+			for (int j = 0; j < sentence.getTokens().size(); j++) {
+				Token expectedToken = expectedSentence.getTokens().get(j);
+				Token token = sentence.getTokens().get(j);
+
+				assertEquals(expectedToken.getWord(), token.getWord());
+				assertEquals(expectedToken.getLemma(), token.getLemma());
+				assertEquals(expectedToken.getPos(), token.getPos());
+				assertEquals(expectedToken.getBeginPosition(), token.getBeginPosition());
+				assertEquals(expectedToken.getEndPosition(), token.getEndPosition());
+			}
+		}
+	}
+
+}
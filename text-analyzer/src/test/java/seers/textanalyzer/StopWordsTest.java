@@ -0,0 +1,85 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import seers.textanalyzer.entity.Sentence;
+
+public class StopWordsTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testLookup() {
+		StopWords stopWords = StopWords.of(Arrays.asList(" The", "a", "like$$VB"));
+
+		assertEquals(3, stopWords.size());
+		assertEquals("the", stopWords.get(0));
+		assertTrue(stopWords.contains("the"));
+		assertTrue(stopWords.contains("like$$vb"));
+		assertFalse(stopWords.contains("like"));
+		assertEquals(2, stopWords.indexOf("like$$vb"));
+
+		assertTrue(stopWords.isStopWord("THE", null));
+		assertFalse(stopWords.isStopWord("like", null));
+		assertTrue(stopWords.isStopWord("a", "DT"));
+		assertTrue(stopWords.isStopWord("like", "VBP"));
+		assertFalse(stopWords.isStopWord("like", "IN"));
+	}
+
+	@Test
+	public void testReadStopWords() throws Exception {
+		File file = folder.newFile("stop.txt");
+		FileUtils.writeLines(file, StandardCharsets.UTF_8.name(), Arrays.asList(" The", "like$$VB"));
+
+		// mutable, as callers append their own stop words
+		List<String> stopWords = TextProcessor.readStopWords(file.getPath());
+		assertEquals(Arrays.asList("the", "like$$vb"), stopWords);
+		stopWords.add("App");
+		assertTrue(stopWords.contains("App"));
+		assertEquals(StopWords.read(file.getPath()), stopWords.subList(0, 2));
+
+		// compiled, so preprocessText looks up the lemmas in the hash sets
+		assertTrue(stopWords instanceof StopWords);
+		StopWords compiled = (StopWords) stopWords;
+		assertTrue(TextProcessor.isStopWord(stopWords, "app", "NN"));
+		assertTrue(TextProcessor.isStopWord(stopWords, "like", "VB"));
+
+		int version = compiled.getVersion();
+		stopWords.remove("App");
+		assertFalse(TextProcessor.isStopWord(stopWords, "app", "NN"));
+		stopWords.set(0, "like");
+		assertFalse(compiled.isStopWord("the", null));
+		assertTrue(compiled.isStopWord("like", "IN"));
+		assertEquals(version + 2, compiled.getVersion());
+
+		stopWords.clear();
+		assertFalse(compiled.isStopWord("like", "VB"));
+	}
+
+	@Test
+	public void testPreprocessText() {
+		String text = "I like the app, but it crashes like a rocket.";
+		StopWords stopWords = StopWords.of(Arrays.asList("the", "like$$VB"));
+
+		List<Sentence> sentences = TextProcessor.preprocessText(text, stopWords,
+				PreprocessingOptionsParser.getDefaultOptionsNoCamelCase());
+		String lemmas = sentences.stream().map(TextProcessor::getStringFromLemmas).collect(Collectors.joining(" "));
+
+		assertEquals("app but crash like rocket", lemmas);
+	}
+
+}
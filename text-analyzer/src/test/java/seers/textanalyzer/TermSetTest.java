@@ -0,0 +1,183 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import org.junit.Test;
+
+import edu.stanford.nlp.ling.IndexedWord;
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import seers.textanalyzer.DependencyTestCorpus.QueryChecks;
+import seers.textanalyzer.entity.CompactDependencies;
+import seers.textanalyzer.entity.DependencyIndex;
+import seers.textanalyzer.entity.Sentence;
+import seers.textanalyzer.entity.StringDictionary;
+import seers.textanalyzer.entity.TermSet;
+
+public class TermSetTest {
+
+	@Test
+	public void testContains() {
+		StringDictionary dictionary = new StringDictionary();
+		dictionary.getId("other");
+		TermSet set = TermSet.of(dictionary, Arrays.asList("b", "a", null, "b"));
+
+		assertEquals(Arrays.asList("b", "a"), set.getTerms());
+		assertTrue(set.contains("a"));
+		assertTrue(set.containsId(dictionary.lookup("b")));
+		assertFalse(set.contains("other"));
+		assertFalse(set.contains("c"));
+		assertFalse(set.contains((String) null));
+		assertFalse(set.containsId(StringDictionary.NULL_ID));
+		assertFalse(set.containsId(1000));
+		assertTrue(TermSet.of(dictionary, Arrays.asList()).isEmpty());
+	}
+
+	@Test
+	public void testLookupOnly() {
+		StringDictionary dictionary = new StringDictionary();
+		int a = dictionary.getId("a");
+		TermSet set = TermSet.of(dictionary, Arrays.asList("a", "b"));
+
+		// the terms are not added to the dictionary
+		assertEquals(1, dictionary.size());
+		assertEquals(StringDictionary.NULL_ID, dictionary.lookup("b"));
+		assertTrue(set.containsId(a));
+
+		// matched by string, once the term has an id
+		int b = dictionary.getId("b");
+		int c = dictionary.getId("c");
+		assertTrue(set.containsId(b));
+		assertFalse(set.containsId(c));
+	}
+
+	@Test
+	public void testSameResults() {
+		Set<String> pos = DependencyTestCorpus.POS;
+		Set<String> lemmas = DependencyTestCorpus.LEMMAS;
+		// the terms get their ids as the sentences are compacted
+		StringDictionary dictionary = new StringDictionary();
+		TermSet posSet = TermSet.of(dictionary, pos);
+		TermSet lemmaSet = TermSet.of(dictionary, lemmas);
+
+		DependencyTestCorpus.check(DependencyTestCorpus.process(), sentence -> {
+			SemanticGraph graph = sentence.getDependencies();
+			DependencyIndex index = sentence.getDependencyIndex();
+			CompactDependencies compact = new CompactDependencies(graph, dictionary);
+
+			return new QueryChecks() {
+
+				@Override
+				public void checkRelations(String[] relations, Set<String> relationSet) {
+					TermSet terms = TermSet.ofRelations(relations);
+
+					assertEquals(DependenciesUtils.findRelationsByTgtRelations(graph, relations),
+							DependenciesUtils.findRelationsByTgtRelations(graph, terms));
+					assertEquals(DependenciesUtils.findRelationsByTgtRelations(index, relations),
+							DependenciesUtils.findRelationsByTgtRelations(index, terms));
+					assertArrayEquals(DependenciesUtils.findRelationsByTgtRelations(compact, relations),
+							DependenciesUtils.findRelationsByTgtRelations(compact, terms));
+
+					for (String relation : relations) {
+						TermSet relationTerms = TermSet.ofRelations(relation);
+						checkRelation(relation, relationTerms, null, null);
+						for (String tag : pos) {
+							checkRelation(relation, relationTerms, tag, TermSet.of(dictionary, Arrays.asList(tag)));
+						}
+					}
+				}
+
+				private void checkRelation(String relation, TermSet relationTerms, String tag, TermSet tagTerms) {
+					assertEquals(DependenciesUtils.findRelationsByTgtRelationAndPos(graph, relation, tag),
+							DependenciesUtils.findRelationsByTgtRelationAndPos(graph, relationTerms, tagTerms));
+					assertEquals(DependenciesUtils.findRelationsByTgtRelationAndPos(index, relation, tag),
+							DependenciesUtils.findRelationsByTgtRelationAndPos(index, relationTerms, tagTerms));
+					assertArrayEquals(DependenciesUtils.findRelationsByTgtRelationAndPos(compact, relation, tag),
+							DependenciesUtils.findRelationsByTgtRelationAndPos(compact, relationTerms, tagTerms));
+
+					assertEquals(
+							DependenciesUtils.findRelationsByTgtRelationPosAndLemmas(graph, relation, tag, lemmas),
+							DependenciesUtils.findRelationsByTgtRelationPosAndLemmas(graph, relationTerms, tagTerms,
+									lemmaSet));
+					assertEquals(
+							DependenciesUtils.findRelationsByTgtRelationPosAndLemmas(index, relation, tag, lemmas),
+							DependenciesUtils.findRelationsByTgtRelationPosAndLemmas(index, relationTerms, tagTerms,
+									lemmaSet));
+					assertArrayEquals(
+							DependenciesUtils.findRelationsByTgtRelationPosAndLemmas(compact, relation, tag, lemmas),
+							DependenciesUtils.findRelationsByTgtRelationPosAndLemmas(compact, relationTerms, tagTerms,
+									lemmaSet));
+				}
+
+				@Override
+				public void checkVertex(IndexedWord word, String[] relations, Set<String> relationSet) {
+					TermSet terms = TermSet.ofRelations(relations);
+					int vertex = CompactDependencies.getVertex(word);
+
+					assertEquals(DependenciesUtils.checkForRelationsInPairs(graph.childPairs(word), relations),
+							DependenciesUtils.checkForRelationsInPairs(graph.childPairs(word), terms));
+
+					assertEquals(DependenciesUtils.getFirstChildByRelation(graph, word, relations),
+							DependenciesUtils.getFirstChildByRelation(graph, word, terms));
+					assertEquals(DependenciesUtils.getFirstChildByRelation(index, word, relations),
+							DependenciesUtils.getFirstChildByRelation(index, word, terms));
+					assertEquals(DependenciesUtils.getFirstChildByRelation(compact, vertex, relations),
+							DependenciesUtils.getFirstChildByRelation(compact, vertex, terms));
+
+					assertEquals(DependenciesUtils.getChildRelations(graph, word, relations),
+							DependenciesUtils.getChildRelations(graph, word, terms));
+					assertEquals(DependenciesUtils.getChildRelations(index, word, relations),
+							DependenciesUtils.getChildRelations(index, word, terms));
+
+					assertEquals(DependenciesUtils.getParentsbyRelation(graph, word, relations),
+							DependenciesUtils.getParentsbyRelation(graph, word, terms));
+					assertEquals(DependenciesUtils.getParentsbyRelation(index, word, relations),
+							DependenciesUtils.getParentsbyRelation(index, word, terms));
+
+					assertEquals(DependenciesUtils.getFirstChildByRelationAndPos(index, word, relationSet, pos),
+							DependenciesUtils.getFirstChildByRelationAndPos(index, word, terms, posSet));
+					assertEquals(DependenciesUtils.getFirstChildByRelationAndPos(compact, vertex, relationSet, pos),
+							DependenciesUtils.getFirstChildByRelationAndPos(compact, vertex, terms, posSet));
+
+					assertEquals(
+							DependenciesUtils.getChildrenByRelationPosAndLemma(graph, word, relationSet, pos,
+									lemmas),
+							DependenciesUtils.getChildrenByRelationPosAndLemma(graph, word, terms, posSet,
+									lemmaSet));
+					assertArrayEquals(
+							DependenciesUtils.getChildrenByRelationPosAndLemma(compact, vertex, relationSet, pos,
+									lemmas),
+							DependenciesUtils.getChildrenByRelationPosAndLemma(compact, vertex, terms, posSet,
+									lemmaSet));
+				}
+
+			};
+		});
+	}
+
+	@Test
+	public void testOtherDictionary() {
+		Sentence sentence = TextProcessor.processTextFullPipeline("I tap the button.", false).get(0);
+		CompactDependencies compact = new CompactDependencies(sentence.getDependencies(), new StringDictionary());
+
+		// compared by string when the dictionaries differ
+		int[] edges = DependenciesUtils.findRelationsByTgtRelations(compact, "dobj");
+		assertEquals(1, edges.length);
+		int verb = compact.getGovernor(edges[0]);
+		assertEquals(edges[0], DependenciesUtils.getFirstChildByRelationAndPos(compact, verb,
+				TermSet.ofRelations("dobj"), TermSet.of("NN")));
+		assertEquals(CompactDependencies.NO_EDGE, DependenciesUtils.getFirstChildByRelationAndPos(compact, verb,
+				TermSet.ofRelations("dobj"), TermSet.of("VB")));
+
+		// the repeated relations are matched once
+		assertEquals(Arrays.asList("dobj", "nsubj"), TermSet.ofRelations("dobj", "nsubj", "dobj").getTerms());
+		assertArrayEquals(DependenciesUtils.findRelationsByTgtRelations(compact, "dobj", "nsubj", "dobj"),
+				DependenciesUtils.findRelationsByTgtRelations(compact, TermSet.ofRelations("dobj", "nsubj", "dobj")));
+	}
+
+}
@@ -1,13 +1,22 @@
 package seers.textanalyzer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.stream.Collectors;
 
 import org.junit.Test;
 
+import edu.stanford.nlp.ling.CoreAnnotations.SentencesAnnotation;
+import edu.stanford.nlp.ling.CoreAnnotations.TokensAnnotation;
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import edu.stanford.nlp.util.CoreMap;
+import seers.textanalyzer.QuoteProcessor.Quotes;
 import seers.textanalyzer.entity.Sentence;
 import seers.textanalyzer.entity.Token;
 
@@ -40,6 +49,46 @@ public class TextProcessorTest {
 		System.out.println(sentence.getQuotes());
 	}
 
+	@Test
+	public void testProcessTextFullPipelineAndQuotesOnce() {
+		String text = "The app shows \"Error: 'file' not found\" when I tap on \"Open\". "
+				+ "Then it shows \"Error: 'file' not found\" again and `Open` does nothing.";
+
+		List<Sentence> sentences = TextProcessor.processTextFullPipelineAndQuotes(text, true);
+
+		Quotes quotes = new QuoteProcessor().processSentence(text);
+		List<Sentence> expected = processSentencesWithQuotes(quotes);
+		assertEquals(2, sentences.size());
+		assertEquals(toString(expected), toString(sentences));
+
+		// the sentences do not share their quotes
+		assertNotSame(sentences.get(0).getQuotes().get("QUT1"), sentences.get(1).getQuotes().get("QUT1"));
+	}
+
+	/**
+	 * The quotes processed per sentence, as they used to be
+	 */
+	private List<Sentence> processSentencesWithQuotes(Quotes quotes) {
+		List<Sentence> parsedSentences = TextProcessor.processTextFullPipeline(quotes.txt, true);
+		for (Sentence parsedSentence : parsedSentences) {
+			for (Entry<String, Quotes> quote : quotes.quotesMap.entrySet()) {
+				parsedSentence.addQuote(quote.getKey(), processSentencesWithQuotes(quote.getValue()));
+			}
+		}
+		return parsedSentences;
+	}
+
+	private String toString(List<Sentence> sentences) {
+		StringBuilder builder = new StringBuilder();
+		for (Sentence sentence : sentences) {
+			builder.append(sentence).append(sentence.getDependencies().toString(SemanticGraph.OutputFormat.LIST));
+			for (Entry<String, List<Sentence>> quote : sentence.getQuotes().entrySet()) {
+				builder.append(quote.getKey()).append("={").append(toString(quote.getValue())).append("}");
+			}
+		}
+		return builder.toString();
+	}
+
 	@Test
 	public void testPreprocessText() {
 		String text = "App crashes with the following stack traces when \"Maximum Score\" is the character \"-\" or is a big number.";
@@ -124,6 +173,43 @@ public class TextProcessorTest {
 
 	}
 
+	@Test
+	public void testCamelCaseSplitting() {
+		String text = "The getHTTPResponseCode method of MyClass2 returns null in parse_XMLFile. "
+				+ "I can't open the \"SaveAs\" dialog (mainWindow.showDialog) after 3 attempts on iOS10, "
+				+ "e.g., with URLs like http://x.org/fooBar?id=5.";
+		List<Sentence> sentences = TextProcessor.preprocessText(text, null,
+				PreprocessingOptionsParser.OPTION_PREFIX + PreprocessingOptionsParser.CAMEL_CASE_SPLITTING);
+
+		// as before: the sub-tokens of every token annotated on their own
+		PipelinePool pipeline = TextProcessor.getDefaultPipelinePool();
+		Annotation document = new Annotation(text);
+		pipeline.annotate(document);
+		List<CoreMap> expectedSentences = document.get(SentencesAnnotation.class);
+		assertEquals(expectedSentences.size(), sentences.size());
+
+		for (int i = 0; i < sentences.size(); i++) {
+			List<Token> expected = new ArrayList<>();
+			for (CoreLabel token : expectedSentences.get(i).get(TokensAnnotation.class)) {
+				Annotation tokenAnnot = new Annotation(TextProcessor.splitByCharacterTypeCamelCase(token.word()));
+				pipeline.annotate(tokenAnnot);
+				for (CoreLabel subToken : tokenAnnot.get(TokensAnnotation.class)) {
+					expected.add(TextProcessor.parseToken(subToken, false));
+				}
+			}
+
+			List<Token> tokens = sentences.get(i).getTokens();
+			assertEquals(expected.size(), tokens.size());
+			for (int j = 0; j < tokens.size(); j++) {
+				Token expectedToken = expected.get(j);
+				Token token = tokens.get(j);
+				assertEquals(expectedToken.toString(), token.toString());
+				assertEquals(expectedToken.getStem(), token.getStem());
+				assertEquals(expectedToken.getIndex(), token.getIndex());
+			}
+		}
+	}
+
 	@Test
 	public void testPreprocessText5() {
 		String text = "When I create an entry for a purchase, the autocomplete list shows up";
@@ -141,4 +227,30 @@ public class TextProcessorTest {
 		System.out.println(sentences.get(0).getDependencies());
 
 	}
+
+	@Test
+	public void testTokenizeText() {
+		String text = "The getHTTPResponseCode method returns 404. Clicking \"Save As\" does nothing.";
+
+		List<Sentence> sentences = TextProcessor.tokenizeText(text);
+		List<Sentence> fullSentences = TextProcessor.processText(text);
+
+		assertEquals(2, sentences.size());
+
+		List<Token> tokens = TextProcessor.getAllTokens(sentences);
+		List<Token> fullTokens = TextProcessor.getAllTokens(fullSentences);
+		assertEquals(fullTokens.size(), tokens.size());
+
+		for (int i = 0; i < tokens.size(); i++) {
+			Token token = tokens.get(i);
+			Token fullToken = fullTokens.get(i);
+
+			assertEquals(fullToken.getWord(), token.getWord());
+			assertEquals(fullToken.getStem(), token.getStem());
+			assertEquals(fullToken.getBeginPosition(), token.getBeginPosition());
+			assertEquals(fullToken.getEndPosition(), token.getEndPosition());
+			assertEquals(null, token.getLemma());
+			assertEquals(null, token.getPos());
+		}
+	}
 }
@@ -0,0 +1,104 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the token filters of {@link TextProcessor} against their former,
+ * regex-based implementations
+ */
+public class TokenFiltersTest {
+
+	private static final List<String> TOKENS = Arrays.asList("", " ", "a", "A1", "abc", "-", ".", ",", "$", "+", "#",
+			"'s", "n't", "--", "...", "''", "``", "\u2019", "\u00a9", "\ud83d\ude00", "\ud83d", "x\ud83d\ude00",
+			"-lrb-", "-LRB-", "-RSB-", "-rcb-x", "a-LCB-b", "-lcb", "lcb", "LSB", "rRb", "lrbs", "-lxb-", "-\u0130lrb-",
+			"\u017f", "123", "0123", "-12", "+3.5", "3.", ".5", ".", "1e10", "1E-3", "1e", "1e+", "2.5f", "2.5F",
+			"2d", "2.5dd", "1_000", "NaN", "-NaN", "nan", "Infinity", "+Infinity", "Infinityx", "infinity", "0x1p3",
+			"0X1.8P-2d", "0x.8p1", "0x1.p1", "0x1", "0xp1", "0x1pf", " 12 ", "\t3.4\n", "1 2", "1  2 3", "1\u00a02",
+			"1\u20092", "1\u200b2", "1\u30002", "1 \n 2", "1 ", " 1 2", "1 a", "12,121", "456454,121", "23234.2342",
+			"\u0661\u0662", "process_text", "camelCase", "e.g.", "foo/bar", "a--", "ab--", "--ab", "a-b-", "a.b.c",
+			"java.lang.Object", "\u00e9t\u00e9", "na\u00efve", "abc\u00e9", "\u00e9abc");
+
+	private static boolean isSpecialCharRegex(String str) {
+		String[] split = str.split("[^a-zA-Z0-9]");
+		return split.length != 1;
+	}
+
+	private static boolean isNumberRegex(String token) {
+		if (token.matches("\\d+((\\h|\\s)+\\d+)+")) {
+			return true;
+		}
+		try {
+			Double.valueOf(token);
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	private static boolean isParenthesisRegex(String token) {
+		for (String parenthesis : TextProcessor.PARENTHESIS) {
+			if (token.toLowerCase().contains(parenthesis.toLowerCase())) {
+				return true;
+			}
+		}
+		for (String parenthesis : TextProcessor.PARENTHESIS2) {
+			if (token.toLowerCase().equals(parenthesis.toLowerCase())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isPunctuationRegex(String token) {
+		return token.matches("[\\p{P}\\p{S}]") || isParenthesisRegex(token);
+	}
+
+	private static void assertSameClassification(String token) {
+		assertEquals("isSpecialChar: " + token, isSpecialCharRegex(token), TextProcessor.isSpecialChar(token));
+		assertEquals("isNumber: " + token, isNumberRegex(token), TextProcessor.isNumber(token));
+		assertEquals("isParenthesis: " + token, isParenthesisRegex(token), TextProcessor.isParenthesis(token));
+		assertEquals("isPunctuation: " + token, isPunctuationRegex(token), TextProcessor.isPunctuation(token));
+	}
+
+	@Test
+	public void testKnownTokens() {
+		for (String token : TOKENS) {
+			assertSameClassification(token);
+		}
+	}
+
+	@Test
+	public void testAllSingleChars() {
+		for (char c = 0; c < Character.MAX_VALUE; c++) {
+			assertSameClassification(String.valueOf(c));
+		}
+	}
+
+	@Test
+	public void testRandomTokens() {
+		char[] alphabet = "0123456789aAbBcCdDeEfFlLrRsSpPxXINaty+-._,/ \t\n\u00a0\u2000\u3000\u0130$%()'\"`"
+				.toCharArray();
+		Random random = new Random(42);
+
+		List<String> tokens = new ArrayList<>();
+		for (int i = 0; i < 200000; i++) {
+			char[] token = new char[random.nextInt(8)];
+			for (int j = 0; j < token.length; j++) {
+				token[j] = alphabet[random.nextInt(alphabet.length)];
+			}
+			tokens.add(new String(token));
+		}
+
+		for (String token : tokens) {
+			assertSameClassification(token);
+		}
+	}
+
+}
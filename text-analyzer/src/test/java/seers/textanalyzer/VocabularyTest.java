@@ -0,0 +1,111 @@
+package seers.textanalyzer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import seers.textanalyzer.entity.Sentence;
+import seers.textanalyzer.entity.StringDictionary;
+
+public class VocabularyTest {
+
+	@Test
+	public void testIds() throws Exception {
+		List<Sentence> sentences = TextProcessor.processText("The app crashes. The apps crashed.");
+
+		Vocabulary vocabulary = new Vocabulary();
+		int[] lemmaIds = vocabulary.getIdsFromSentences(TokenField.LEMMA, sentences);
+
+		String[] lemmas = TextProcessor.getStringFromLemmas(TextProcessor.getAllTokens(sentences)).split(" ");
+		assertEquals(lemmas.length, lemmaIds.length);
+		for (int i = 0; i < lemmas.length; i++) {
+			assertEquals(lemmas[i], vocabulary.getTerm(TokenField.LEMMA, lemmaIds[i]));
+		}
+
+		// the, app, crash, .
+		assertArrayEquals(new int[] { 0, 1, 2, 3, 0, 1, 2, 3 }, lemmaIds);
+		assertEquals(4, vocabulary.getDictionary(TokenField.LEMMA).size());
+		assertEquals(0, vocabulary.getDictionary(TokenField.WORD).size());
+	}
+
+	@Test
+	public void testPreprocessTextToIds() {
+		String text = "The saveButton crashes the app. It does not start again! The apps crashed.";
+		List<String> stopWords = Arrays.asList("the");
+		PreprocessingOptions options = PreprocessingOptions.of(PreprocessingOptionsParser.getDefaultOptions());
+		List<Sentence> sentences = TextProcessor.preprocessText(text, stopWords, options);
+
+		Vocabulary vocabulary = new Vocabulary();
+		for (TokenField field : new TokenField[] { TokenField.WORD, TokenField.STEM, TokenField.LEMMA,
+				TokenField.POS }) {
+			// the same ids, without the sentences
+			int[] ids = TextProcessor.preprocessTextToIds(text, stopWords, options, vocabulary, field);
+			assertArrayEquals(vocabulary.getIdsFromSentences(field, sentences), ids);
+		}
+		assertEquals(0, TextProcessor.preprocessTextToIds(null, stopWords, options, vocabulary,
+				TokenField.LEMMA).length);
+	}
+
+	@Test
+	public void testSaveAndLoad() throws Exception {
+		List<Sentence> sentences = TextProcessor.processText("The app crashes when I open the ñandú settings.");
+
+		Vocabulary vocabulary = new Vocabulary();
+		int[] wordIds = vocabulary.getIdsFromSentences(TokenField.WORD, sentences);
+		int[] posIds = vocabulary.getIdsFromSentences(TokenField.POS, sentences);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		vocabulary.write(out);
+		Vocabulary loaded = Vocabulary.read(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals(vocabulary.toString(), loaded.toString());
+		assertArrayEquals(wordIds, loaded.getIdsFromSentences(TokenField.WORD, sentences));
+		assertArrayEquals(posIds, loaded.getIdsFromSentences(TokenField.POS, sentences));
+	}
+
+	@Test
+	public void testConcurrentIds() throws Exception {
+		StringDictionary dictionary = new StringDictionary(16);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<int[]>> results = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				results.add(executor.submit(() -> {
+					int[] ids = new int[1000];
+					for (int i = 0; i < ids.length; i++) {
+						ids[i] = dictionary.getId("term" + i);
+					}
+					return ids;
+				}));
+			}
+
+			int[] expected = results.get(0).get();
+			for (Future<int[]> result : results) {
+				assertArrayEquals(expected, result.get());
+			}
+			Set<Integer> uniqueIds = new HashSet<>();
+			for (int i = 0; i < expected.length; i++) {
+				uniqueIds.add(expected[i]);
+				assertEquals("term" + i, dictionary.getString(expected[i]));
+			}
+			assertEquals(1000, uniqueIds.size());
+			assertEquals(1000, dictionary.size());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}